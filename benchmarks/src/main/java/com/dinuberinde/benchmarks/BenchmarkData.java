@@ -0,0 +1,115 @@
+package com.dinuberinde.benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+
+/**
+ * The rows read by the benchmarks, held in memory for the {@link StubResultSet}
+ * or inserted into an in-memory H2 table.
+ */
+final class BenchmarkData {
+
+    /**
+     * The number of string columns that are only mapped by {@link WideRow}.
+     */
+    static final int EXTRA_COLUMNS = 12;
+
+    static final String[] LABELS = new String[7 + EXTRA_COLUMNS];
+    static final int[] TYPES = new int[LABELS.length];
+    static final String SELECT_ALL = "SELECT * FROM BENCHMARK_ROWS";
+
+    private static final String[] STRINGS = new String[128];
+    private static final Date[] DATES = new Date[366];
+    private static final BigDecimal[] HEIGHTS = new BigDecimal[100];
+
+    static {
+        String[] labels = { "ID", "AGE", "MALE", "SCORE", "NAME", "BIRTHDATE", "HEIGHT" };
+        int[] types = { Types.BIGINT, Types.INTEGER, Types.BOOLEAN, Types.DOUBLE, Types.VARCHAR, Types.DATE, Types.DECIMAL };
+        System.arraycopy(labels, 0, LABELS, 0, labels.length);
+        System.arraycopy(types, 0, TYPES, 0, types.length);
+
+        for (int i = 0; i < EXTRA_COLUMNS; i++) {
+            LABELS[labels.length + i] = String.format("C%02d", i + 1);
+            TYPES[labels.length + i] = Types.VARCHAR;
+        }
+
+        // the values are drawn from small pools, so that a million rows fit in memory
+        for (int i = 0; i < STRINGS.length; i++) {
+            STRINGS[i] = "value-" + i;
+        }
+
+        for (int i = 0; i < DATES.length; i++) {
+            DATES[i] = Date.valueOf(LocalDate.of(1990, 1, 1).plusDays(i * 31L));
+        }
+
+        for (int i = 0; i < HEIGHTS.length; i++) {
+            HEIGHTS[i] = BigDecimal.valueOf(150 + i, 2).add(BigDecimal.ONE);
+        }
+    }
+
+    private BenchmarkData() {}
+
+    static StubResultSetMetaData metaData() {
+        return new StubResultSetMetaData(LABELS, TYPES);
+    }
+
+    static Object[][] rows(int count) {
+        Object[][] rows = new Object[count][];
+
+        for (int i = 0; i < count; i++) {
+            Object[] row = new Object[LABELS.length];
+            row[0] = (long) i;
+            row[1] = 18 + i % 80;
+            row[2] = i % 2 == 0;
+            row[3] = i * 0.5;
+            row[4] = STRINGS[i % STRINGS.length];
+            row[5] = DATES[i % DATES.length];
+            row[6] = HEIGHTS[i % HEIGHTS.length];
+
+            for (int j = 7; j < row.length; j++) {
+                row[j] = STRINGS[(i + j) % STRINGS.length];
+            }
+
+            rows[i] = row;
+        }
+
+        return rows;
+    }
+
+    static void createTable(Connection connection, Object[][] rows) throws SQLException {
+        StringBuilder table = new StringBuilder("CREATE TABLE BENCHMARK_ROWS(ID BIGINT PRIMARY KEY, AGE INTEGER, MALE BOOLEAN, " +
+                "SCORE DOUBLE PRECISION, NAME VARCHAR(64), BIRTHDATE DATE, HEIGHT DECIMAL(5,2)");
+        StringBuilder insert = new StringBuilder("INSERT INTO BENCHMARK_ROWS VALUES(?, ?, ?, ?, ?, ?, ?");
+
+        for (int i = 7; i < LABELS.length; i++) {
+            table.append(", ").append(LABELS[i]).append(" VARCHAR(32)");
+            insert.append(", ?");
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS BENCHMARK_ROWS");
+            statement.execute(table.append(")").toString());
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(insert.append(")").toString())) {
+            for (int i = 0; i < rows.length; i++) {
+                for (int j = 0; j < rows[i].length; j++) {
+                    statement.setObject(j + 1, rows[i][j]);
+                }
+
+                statement.addBatch();
+                if (i % 10_000 == 9_999) {
+                    statement.executeBatch();
+                }
+            }
+
+            statement.executeBatch();
+        }
+    }
+}
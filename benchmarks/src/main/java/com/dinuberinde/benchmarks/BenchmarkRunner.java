@@ -0,0 +1,32 @@
+package com.dinuberinde.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * It runs the benchmarks with the GC profiler, which reports the allocation rate
+ * and the bytes allocated per operation next to the timings.
+ * The command line accepts the options of JMH, for instance <strong>-p rows=1000 -p source=STUB</strong>.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(MappingBenchmark.class.getSimpleName());
+        }
+
+        Options options = builder.addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,23 @@
+package com.dinuberinde.benchmarks;
+
+import com.dinuberinde.MapperLabel;
+
+/**
+ * The row of {@link PrimitiveRow}, mapped to boxed fields.
+ */
+public class BoxedRow {
+    @MapperLabel(name = "ID")
+    Long id;
+
+    @MapperLabel(name = "AGE")
+    Integer age;
+
+    @MapperLabel(name = "MALE")
+    Boolean male;
+
+    @MapperLabel(name = "SCORE")
+    Double score;
+
+    @MapperLabel(name = "NAME")
+    String name;
+}
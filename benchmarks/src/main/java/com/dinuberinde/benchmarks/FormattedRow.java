@@ -0,0 +1,21 @@
+package com.dinuberinde.benchmarks;
+
+import com.dinuberinde.MapperDateFormatter;
+import com.dinuberinde.MapperDecimalFormatter;
+import com.dinuberinde.MapperLabel;
+
+/**
+ * A row with a date and a decimal column formatted to strings.
+ */
+public class FormattedRow {
+    @MapperLabel(name = "ID")
+    long id;
+
+    @MapperDateFormatter
+    @MapperLabel(name = "BIRTHDATE")
+    String birthDate;
+
+    @MapperDecimalFormatter(pattern = "#.00#")
+    @MapperLabel(name = "HEIGHT")
+    String height;
+}
@@ -0,0 +1,132 @@
+package com.dinuberinde.benchmarks;
+
+import com.dinuberinde.BoundMapper;
+import com.dinuberinde.ResultSetMapper;
+import com.dinuberinde.RowMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the mapping of a whole result set, against the hand-written JDBC baseline.
+ * The rows come either from an in-memory H2 database or from a {@link StubResultSet},
+ * which isolates the cost of the mapping from the cost of the driver.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MappingBenchmark {
+
+    public enum Source { STUB, H2 }
+
+    @Param({ "1", "1000", "1000000" })
+    public int rows;
+
+    @Param
+    public Shape shape;
+
+    @Param
+    public Source source;
+
+    private StubResultSetMetaData metaData;
+    private Object[][] data;
+    private Connection connection;
+    private Statement statement;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        metaData = BenchmarkData.metaData();
+        data = BenchmarkData.rows(rows);
+
+        if (source == Source.H2) {
+            connection = DriverManager.getConnection("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+            BenchmarkData.createTable(connection, data);
+            statement = connection.createStatement();
+            data = null;
+        }
+
+        ResultSetMapper.warmUp(shape.type());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+
+        if (connection != null) {
+            statement.close();
+            connection.close();
+        }
+    }
+
+    private ResultSet resultSet() throws SQLException {
+        return source == Source.H2 ? statement.executeQuery(BenchmarkData.SELECT_ALL) : new StubResultSet(metaData, data);
+    }
+
+    @Benchmark
+    public List<Object> baseline() throws SQLException {
+        try (ResultSet resultSet = resultSet()) {
+            List<Object> dtoList = new ArrayList<>();
+
+            while (resultSet.next()) {
+                dtoList.add(shape.baseline(resultSet));
+            }
+
+            return dtoList;
+        }
+    }
+
+    @Benchmark
+    public List<?> toList() throws SQLException {
+        try (ResultSet resultSet = resultSet()) {
+            return ResultSetMapper.toList(resultSet, shape.type());
+        }
+    }
+
+    @Benchmark
+    public Object toObject() throws SQLException {
+        try (ResultSet resultSet = resultSet()) {
+            return ResultSetMapper.toObject(resultSet, shape.type());
+        }
+    }
+
+    @Benchmark
+    public void apply(Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = resultSet()) {
+            while (resultSet.next()) {
+                blackhole.consume(ResultSetMapper.apply(resultSet, shape.type()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void bound(Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = resultSet()) {
+            BoundMapper<?> mapper = ResultSetMapper.bind(resultSet, shape.type());
+
+            while (resultSet.next()) {
+                blackhole.consume(mapper.map(resultSet));
+            }
+        }
+    }
+
+    @Benchmark
+    public void compiled(Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = resultSet()) {
+            RowMapper<?> mapper = ResultSetMapper.compiled(shape.type()).bind(resultSet);
+
+            while (resultSet.next()) {
+                blackhole.consume(mapper.map(resultSet));
+            }
+        }
+    }
+}
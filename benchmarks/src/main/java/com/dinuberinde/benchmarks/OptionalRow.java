@@ -0,0 +1,29 @@
+package com.dinuberinde.benchmarks;
+
+import com.dinuberinde.MapperLabel;
+
+/**
+ * The row of {@link PrimitiveRow}, with two optional columns missing from the result set.
+ */
+public class OptionalRow {
+    @MapperLabel(name = "ID")
+    long id;
+
+    @MapperLabel(name = "AGE")
+    int age;
+
+    @MapperLabel(name = "MALE")
+    boolean male;
+
+    @MapperLabel(name = "SCORE")
+    double score;
+
+    @MapperLabel(name = "NAME")
+    String name;
+
+    @MapperLabel(name = "MISSING_NUMBER", optional = true)
+    Long missingNumber;
+
+    @MapperLabel(name = "MISSING_TEXT", optional = true)
+    String missingText;
+}
@@ -0,0 +1,23 @@
+package com.dinuberinde.benchmarks;
+
+import com.dinuberinde.MapperLabel;
+
+/**
+ * A row mapped to primitive fields.
+ */
+public class PrimitiveRow {
+    @MapperLabel(name = "ID")
+    long id;
+
+    @MapperLabel(name = "AGE")
+    int age;
+
+    @MapperLabel(name = "MALE")
+    boolean male;
+
+    @MapperLabel(name = "SCORE")
+    double score;
+
+    @MapperLabel(name = "NAME")
+    String name;
+}
@@ -0,0 +1,110 @@
+package com.dinuberinde.benchmarks;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * The classes mapped by the benchmarks, each one with the hand-written JDBC mapping used as baseline.
+ * The baselines read the columns by their index in {@link BenchmarkData#LABELS}.
+ */
+public enum Shape {
+    PRIMITIVE(PrimitiveRow.class) {
+        @Override
+        Object baseline(ResultSet resultSet) throws SQLException {
+            PrimitiveRow row = new PrimitiveRow();
+            row.id = resultSet.getLong(1);
+            row.age = resultSet.getInt(2);
+            row.male = resultSet.getBoolean(3);
+            row.score = resultSet.getDouble(4);
+            row.name = resultSet.getString(5);
+            return row;
+        }
+    },
+
+    BOXED(BoxedRow.class) {
+        @Override
+        Object baseline(ResultSet resultSet) throws SQLException {
+            BoxedRow row = new BoxedRow();
+            row.id = resultSet.getLong(1);
+            row.age = resultSet.getInt(2);
+            row.male = resultSet.getBoolean(3);
+            row.score = resultSet.getDouble(4);
+            row.name = resultSet.getString(5);
+            return row;
+        }
+    },
+
+    OPTIONAL(OptionalRow.class) {
+        @Override
+        Object baseline(ResultSet resultSet) throws SQLException {
+            OptionalRow row = new OptionalRow();
+            row.id = resultSet.getLong(1);
+            row.age = resultSet.getInt(2);
+            row.male = resultSet.getBoolean(3);
+            row.score = resultSet.getDouble(4);
+            row.name = resultSet.getString(5);
+            return row;
+        }
+    },
+
+    FORMATTED(FormattedRow.class) {
+        private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        private final ThreadLocal<DecimalFormat> decimalFormat = ThreadLocal.withInitial(() ->
+                new DecimalFormat("#.00#", new DecimalFormatSymbols(new Locale("en", "EN"))));
+
+        @Override
+        Object baseline(ResultSet resultSet) throws SQLException {
+            FormattedRow row = new FormattedRow();
+            row.id = resultSet.getLong(1);
+            row.birthDate = resultSet.getDate(6).toLocalDate().format(dateFormatter);
+            row.height = decimalFormat.get().format(resultSet.getBigDecimal(7));
+            return row;
+        }
+    },
+
+    WIDE(WideRow.class) {
+        @Override
+        Object baseline(ResultSet resultSet) throws SQLException {
+            WideRow row = new WideRow();
+            row.id = resultSet.getLong(1);
+            row.age = resultSet.getInt(2);
+            row.male = resultSet.getBoolean(3);
+            row.score = resultSet.getDouble(4);
+            row.name = resultSet.getString(5);
+            row.birthDate = resultSet.getDate(6);
+            row.height = resultSet.getBigDecimal(7);
+            row.c01 = resultSet.getString(8);
+            row.c02 = resultSet.getString(9);
+            row.c03 = resultSet.getString(10);
+            row.c04 = resultSet.getString(11);
+            row.c05 = resultSet.getString(12);
+            row.c06 = resultSet.getString(13);
+            row.c07 = resultSet.getString(14);
+            row.c08 = resultSet.getString(15);
+            row.c09 = resultSet.getString(16);
+            row.c10 = resultSet.getString(17);
+            row.c11 = resultSet.getString(18);
+            row.c12 = resultSet.getString(19);
+            return row;
+        }
+    };
+
+    private final Class<?> type;
+
+    Shape(Class<?> type) {
+        this.type = type;
+    }
+
+    Class<?> type() {
+        return type;
+    }
+
+    /**
+     * It maps the current row of the result set by hand, as plain JDBC code would.
+     */
+    abstract Object baseline(ResultSet resultSet) throws SQLException;
+}
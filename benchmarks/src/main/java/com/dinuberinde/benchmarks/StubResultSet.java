@@ -0,0 +1,188 @@
+package com.dinuberinde.benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Locale;
+
+/**
+ * A forward-only result set over rows held in memory, so that the benchmarks
+ * can measure the cost of the mapping without the cost of a driver.
+ */
+final class StubResultSet extends UnsupportedResultSet {
+    private final StubResultSetMetaData metaData;
+    private final Object[][] rows;
+    private int cursor = -1;
+    private Object[] row;
+    private boolean wasNull;
+    private int fetchSize;
+    private boolean closed;
+
+    StubResultSet(StubResultSetMetaData metaData, Object[][] rows) {
+        this.metaData = metaData;
+        this.rows = rows;
+    }
+
+    private Object value(int columnIndex) {
+        Object value = row[columnIndex - 1];
+        wasNull = value == null;
+        return value;
+    }
+
+    @Override
+    public boolean next() {
+
+        if (cursor + 1 < rows.length) {
+            row = rows[++cursor];
+            return true;
+        }
+
+        cursor = rows.length;
+        row = null;
+        return false;
+    }
+
+    @Override
+    public boolean wasNull() {
+        return wasNull;
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() {
+        return metaData;
+    }
+
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        String label = columnLabel.toUpperCase(Locale.ROOT);
+
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (metaData.getColumnLabel(i).equals(label)) {
+                return i;
+            }
+        }
+
+        throw new SQLException("Column " + columnLabel + " not found");
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        Object value = value(columnIndex);
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public long getLong(int columnIndex) {
+        Object value = value(columnIndex);
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    @Override
+    public int getInt(int columnIndex) {
+        Object value = value(columnIndex);
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+
+    @Override
+    public short getShort(int columnIndex) {
+        Object value = value(columnIndex);
+        return value == null ? 0 : ((Number) value).shortValue();
+    }
+
+    @Override
+    public byte getByte(int columnIndex) {
+        Object value = value(columnIndex);
+        return value == null ? 0 : ((Number) value).byteValue();
+    }
+
+    @Override
+    public double getDouble(int columnIndex) {
+        Object value = value(columnIndex);
+        return value == null ? 0.0 : ((Number) value).doubleValue();
+    }
+
+    @Override
+    public float getFloat(int columnIndex) {
+        Object value = value(columnIndex);
+        return value == null ? 0.0f : ((Number) value).floatValue();
+    }
+
+    @Override
+    public boolean getBoolean(int columnIndex) {
+        Object value = value(columnIndex);
+        return value != null && (Boolean) value;
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex) {
+        return (BigDecimal) value(columnIndex);
+    }
+
+    @Override
+    public Date getDate(int columnIndex) {
+        return (Date) value(columnIndex);
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex) {
+        Object value = value(columnIndex);
+        return value == null ? null : new Timestamp(((Date) value).getTime());
+    }
+
+    @Override
+    public Object getObject(int columnIndex) {
+        return value(columnIndex);
+    }
+
+    @Override
+    public String getString(String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
+    }
+
+    @Override
+    public long getLong(String columnLabel) throws SQLException {
+        return getLong(findColumn(columnLabel));
+    }
+
+    @Override
+    public Object getObject(String columnLabel) throws SQLException {
+        return getObject(findColumn(columnLabel));
+    }
+
+    @Override
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    @Override
+    public void setFetchSize(int rows) {
+        this.fetchSize = rows;
+    }
+
+    @Override
+    public int getType() {
+        return TYPE_FORWARD_ONLY;
+    }
+
+    @Override
+    public int getConcurrency() {
+        return CONCUR_READ_ONLY;
+    }
+
+    @Override
+    public java.sql.Statement getStatement() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+}
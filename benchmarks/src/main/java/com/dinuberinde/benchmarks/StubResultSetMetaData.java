@@ -0,0 +1,133 @@
+package com.dinuberinde.benchmarks;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * The metadata of a {@link StubResultSet}: the labels and the SQL types of its columns.
+ */
+final class StubResultSetMetaData implements ResultSetMetaData {
+    private final String[] labels;
+    private final int[] types;
+
+    StubResultSetMetaData(String[] labels, int[] types) {
+        this.labels = labels;
+        this.types = types;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return labels.length;
+    }
+
+    @Override
+    public String getColumnLabel(int column) {
+        return labels[column - 1];
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return labels[column - 1];
+    }
+
+    @Override
+    public int getColumnType(int column) {
+        return types[column - 1];
+    }
+
+    @Override
+    public String getColumnTypeName(int column) {
+        return java.sql.JDBCType.valueOf(types[column - 1]).getName();
+    }
+
+    @Override
+    public String getColumnClassName(int column) {
+        return Object.class.getName();
+    }
+
+    @Override
+    public boolean isAutoIncrement(int column) {
+        return false;
+    }
+
+    @Override
+    public boolean isCaseSensitive(int column) {
+        return false;
+    }
+
+    @Override
+    public boolean isSearchable(int column) {
+        return false;
+    }
+
+    @Override
+    public boolean isCurrency(int column) {
+        return false;
+    }
+
+    @Override
+    public int isNullable(int column) {
+        return columnNullableUnknown;
+    }
+
+    @Override
+    public boolean isSigned(int column) {
+        return true;
+    }
+
+    @Override
+    public int getColumnDisplaySize(int column) {
+        return 0;
+    }
+
+    @Override
+    public String getSchemaName(int column) {
+        return "";
+    }
+
+    @Override
+    public int getPrecision(int column) {
+        return 0;
+    }
+
+    @Override
+    public int getScale(int column) {
+        return 0;
+    }
+
+    @Override
+    public String getTableName(int column) {
+        return "";
+    }
+
+    @Override
+    public String getCatalogName(int column) {
+        return "";
+    }
+
+    @Override
+    public boolean isReadOnly(int column) {
+        return true;
+    }
+
+    @Override
+    public boolean isWritable(int column) {
+        return false;
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(int column) {
+        return false;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Not supported by the benchmark result set");
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+package com.dinuberinde.benchmarks;
+
+import com.dinuberinde.MapperLabel;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+/**
+ * A row mapping all the columns of the result set.
+ */
+public class WideRow {
+    @MapperLabel(name = "ID")
+    long id;
+
+    @MapperLabel(name = "AGE")
+    int age;
+
+    @MapperLabel(name = "MALE")
+    boolean male;
+
+    @MapperLabel(name = "SCORE")
+    double score;
+
+    @MapperLabel(name = "NAME")
+    String name;
+
+    @MapperLabel(name = "BIRTHDATE")
+    Date birthDate;
+
+    @MapperLabel(name = "HEIGHT")
+    BigDecimal height;
+
+    @MapperLabel(name = "C01")
+    String c01;
+
+    @MapperLabel(name = "C02")
+    String c02;
+
+    @MapperLabel(name = "C03")
+    String c03;
+
+    @MapperLabel(name = "C04")
+    String c04;
+
+    @MapperLabel(name = "C05")
+    String c05;
+
+    @MapperLabel(name = "C06")
+    String c06;
+
+    @MapperLabel(name = "C07")
+    String c07;
+
+    @MapperLabel(name = "C08")
+    String c08;
+
+    @MapperLabel(name = "C09")
+    String c09;
+
+    @MapperLabel(name = "C10")
+    String c10;
+
+    @MapperLabel(name = "C11")
+    String c11;
+
+    @MapperLabel(name = "C12")
+    String c12;
+}
@@ -0,0 +1,36 @@
+package com.dinuberinde.processor;
+
+/**
+ * A minimal writer of indented Java source code.
+ */
+final class JavaSourceWriter {
+    private static final String INDENTATION = "    ";
+
+    private final StringBuilder source = new StringBuilder();
+    private int level;
+
+    JavaSourceWriter line(String line) {
+        source.append(INDENTATION.repeat(level)).append(line).append('\n');
+        return this;
+    }
+
+    JavaSourceWriter line() {
+        source.append('\n');
+        return this;
+    }
+
+    JavaSourceWriter indent() {
+        level++;
+        return this;
+    }
+
+    JavaSourceWriter outdent() {
+        level--;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return source.toString();
+    }
+}
@@ -0,0 +1,578 @@
+package com.dinuberinde.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Annotation processor generating, for each class having fields annotated with
+ * <strong>com.dinuberinde.MapperLabel</strong>, a plain Java mapper named
+ * <strong>&lt;Class&gt;ResultSetMapper</strong> in the package of the class.
+ * The generated mappers implement <strong>com.dinuberinde.GeneratedMapper</strong> and are registered
+ * in <strong>META-INF/services</strong>, so that the <strong>ResultSetMapper</strong> uses them instead
+ * of reflection.
+ * <br>
+ * Classes that cannot be mapped without reflection (abstract classes, classes without a no-arg constructor
+ * or built by an annotated constructor,
+ * final fields, unsupported field types, private fields without an accessible setter) are skipped with a note
+ * and keep using the reflective mapping. Private fields are written through their setters, named like the ones
+ * of Lombok, which are declared in the class or generated by a Lombok <strong>@Data</strong> or <strong>@Setter</strong>.
+ * At runtime, the classes with fields read by a registered <strong>com.dinuberinde.ColumnConverter</strong>
+ * keep using the reflective mapping as well, since the converters are not known at compile time.
+ */
+@SupportedAnnotationTypes(MapperProcessor.MAPPER_LABEL)
+public class MapperProcessor extends AbstractProcessor {
+    static final String MAPPER_LABEL = "com.dinuberinde.MapperLabel";
+    private static final String MAPPER_DATE_FORMATTER = "com.dinuberinde.MapperDateFormatter";
+    private static final String MAPPER_DECIMAL_FORMATTER = "com.dinuberinde.MapperDecimalFormatter";
+    private static final String GENERATED_MAPPER = "com.dinuberinde.GeneratedMapper";
+    private static final String SUFFIX = "ResultSetMapper";
+    private static final String LOMBOK_DATA = "lombok.Data";
+    private static final String LOMBOK_SETTER = "lombok.Setter";
+
+    private static final Map<String, String> GETTERS = new HashMap<>();
+
+    static {
+        GETTERS.put("long", "getLong");
+        GETTERS.put("java.lang.Long", "getLong");
+        GETTERS.put("int", "getInt");
+        GETTERS.put("java.lang.Integer", "getInt");
+        GETTERS.put("float", "getFloat");
+        GETTERS.put("java.lang.Float", "getFloat");
+        GETTERS.put("double", "getDouble");
+        GETTERS.put("java.lang.Double", "getDouble");
+        GETTERS.put("java.math.BigDecimal", "getBigDecimal");
+        GETTERS.put("java.lang.String", "getString");
+        GETTERS.put("boolean", "getBoolean");
+        GETTERS.put("java.lang.Boolean", "getBoolean");
+        GETTERS.put("java.util.Date", "getDate");
+        GETTERS.put("java.sql.Date", "getDate");
+        GETTERS.put("byte", "getByte");
+        GETTERS.put("java.lang.Byte", "getByte");
+        GETTERS.put("byte[]", "getBytes");
+        GETTERS.put("java.sql.Blob", "getBlob");
+        GETTERS.put("java.io.InputStream", "getBinaryStream");
+        GETTERS.put("java.sql.Timestamp", "getTimestamp");
+        GETTERS.put("java.lang.Object", "getObject");
+        GETTERS.put("java.sql.Clob", "getClob");
+        GETTERS.put("java.sql.Array", "getArray");
+    }
+
+    /**
+     * The qualified names of the generated mappers, to be registered as services.
+     */
+    private final Set<String> generatedMappers = new TreeSet<>();
+
+    /**
+     * The qualified names of the classes already processed.
+     */
+    private final Set<String> processedTypes = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+        if (roundEnv.processingOver()) {
+            writeServices();
+            return false;
+        }
+
+        TypeElement mapperLabel = processingEnv.getElementUtils().getTypeElement(MAPPER_LABEL);
+        if (mapperLabel == null) {
+            return false;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(mapperLabel)) {
+            if (element.getKind() == ElementKind.FIELD && element.getEnclosingElement() instanceof TypeElement) {
+                TypeElement type = (TypeElement) element.getEnclosingElement();
+
+                if (processedTypes.add(type.getQualifiedName().toString())) {
+                    generate(type);
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        String reason = unsupportedReason(type);
+        if (reason != null) {
+            note(type, reason);
+            return;
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        List<MappedField> fields = new ArrayList<>();
+
+        for (TypeElement clazz = type; clazz != null; clazz = superclass(clazz)) {
+            for (VariableElement field : ElementFilter.fieldsIn(clazz.getEnclosedElements())) {
+                AnnotationMirror label = annotation(field, MAPPER_LABEL);
+
+                if (label != null) {
+                    MappedField mappedField = mappedField(field, label, packageName);
+
+                    if (mappedField.error != null) {
+                        note(type, mappedField.error);
+                        return;
+                    }
+
+                    fields.add(mappedField);
+                }
+            }
+        }
+
+        String simpleName = flatName(type) + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        try {
+            JavaSourceWriter source = new JavaSourceWriter();
+            writeMapper(source, packageName, simpleName, type.getQualifiedName().toString(), fields);
+
+            try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+                writer.write(source.toString());
+            }
+
+            generatedMappers.add(qualifiedName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot generate " + qualifiedName + ": " + e.getMessage(), type);
+        }
+    }
+
+    private String unsupportedReason(TypeElement type) {
+
+        if (type.getKind() != ElementKind.CLASS) {
+            return "it is not a class";
+        }
+
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "it is abstract";
+        }
+
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            return "it is private";
+        }
+
+        if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            return "it is an inner class";
+        }
+
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL && type.getNestingKind() != NestingKind.MEMBER) {
+            return "it is a local or anonymous class";
+        }
+
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        boolean hasDefaultConstructor = constructors.stream()
+                .anyMatch(constructor -> constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE));
+
+        if (!hasDefaultConstructor) {
+            return "it has no accessible no-arg constructor";
+        }
+
+        boolean hasAnnotatedConstructor = constructors.stream()
+                .flatMap(constructor -> constructor.getParameters().stream())
+                .anyMatch(parameter -> annotation(parameter, MAPPER_LABEL) != null);
+
+        if (hasAnnotatedConstructor) {
+            return "it is built by a constructor with parameters annotated with MapperLabel";
+        }
+
+        return null;
+    }
+
+    private MappedField mappedField(VariableElement field, AnnotationMirror label, String packageName) {
+        MappedField mappedField = new MappedField();
+        mappedField.columnName = stringValue(label, "name");
+        mappedField.optional = Boolean.TRUE.equals(value(label, "optional"));
+
+        if (Boolean.TRUE.equals(value(label, "dedup"))) {
+            mappedField.error = "field " + field.getSimpleName() + " is deduplicated, which is left to the reflective mapping";
+            return mappedField;
+        }
+
+        String typeName = typeName(field.asType());
+        String getter = typeName != null ? GETTERS.get(typeName) : null;
+
+        if (getter == null) {
+            mappedField.error = "the type of field " + field.getSimpleName() + " is not supported";
+            return mappedField;
+        }
+
+        if (field.getModifiers().contains(Modifier.FINAL) || field.getModifiers().contains(Modifier.STATIC)) {
+            mappedField.error = "field " + field.getSimpleName() + " is final or static";
+            return mappedField;
+        }
+
+        mappedField.getter = getter;
+        mappedField.typeName = typeName;
+        mappedField.primitive = field.asType().getKind().isPrimitive();
+
+        if ("java.lang.String".equals(typeName)) {
+            AnnotationMirror dateFormatter = annotation(field, MAPPER_DATE_FORMATTER);
+            AnnotationMirror decimalFormatter = annotation(field, MAPPER_DECIMAL_FORMATTER);
+
+            if (dateFormatter != null) {
+                mappedField.datePattern = stringValue(dateFormatter, "pattern");
+            } else if (decimalFormatter != null) {
+                mappedField.decimalPattern = stringValue(decimalFormatter, "pattern");
+                mappedField.decimalLocale = stringValue(decimalFormatter, "locale");
+            }
+        }
+
+        String fieldName = field.getSimpleName().toString();
+        boolean accessible = !field.getModifiers().contains(Modifier.PRIVATE)
+                && (field.getModifiers().contains(Modifier.PUBLIC)
+                    || processingEnv.getElementUtils().getPackageOf(field).getQualifiedName().contentEquals(packageName));
+
+        String setterName = setterName(fieldName, field.asType().getKind() == TypeKind.BOOLEAN);
+
+        if (!accessible && !hasSetter(field, setterName, packageName)) {
+            mappedField.error = "field " + fieldName + " is private and has no accessible setter " + setterName;
+            return mappedField;
+        }
+
+        mappedField.assignment = accessible ? fieldName + " = " : setterName + "(";
+        mappedField.setter = !accessible;
+
+        return mappedField;
+    }
+
+    /**
+     * It yields true if the generated mapper, in the given package, can call the setter of a field:
+     * a setter declared in the class of the field or in its superclasses, or generated by Lombok.
+     */
+    private boolean hasSetter(VariableElement field, String setterName, String packageName) {
+        TypeElement declaringType = (TypeElement) field.getEnclosingElement();
+        boolean samePackage = processingEnv.getElementUtils().getPackageOf(declaringType).getQualifiedName().contentEquals(packageName);
+
+        for (TypeElement clazz = declaringType; clazz != null; clazz = superclass(clazz)) {
+            boolean visible = processingEnv.getElementUtils().getPackageOf(clazz).getQualifiedName().contentEquals(packageName);
+
+            for (ExecutableElement method : ElementFilter.methodsIn(clazz.getEnclosedElements())) {
+                Set<Modifier> modifiers = method.getModifiers();
+
+                if (method.getSimpleName().contentEquals(setterName) && method.getParameters().size() == 1
+                        && !modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.PRIVATE)
+                        && (modifiers.contains(Modifier.PUBLIC) || visible)
+                        && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), field.asType())) {
+                    return true;
+                }
+            }
+        }
+
+        // the setters generated by Lombok are not visible to the other processors
+        AnnotationMirror setter = annotation(field, LOMBOK_SETTER);
+        if (setter == null) {
+            setter = annotation(declaringType, LOMBOK_SETTER);
+        }
+
+        if (setter != null) {
+            String accessLevel = accessLevel(setter);
+            return "PUBLIC".equals(accessLevel) || samePackage && ("PROTECTED".equals(accessLevel) || "PACKAGE".equals(accessLevel));
+        }
+
+        return annotation(declaringType, LOMBOK_DATA) != null;
+    }
+
+    private static String accessLevel(AnnotationMirror setter) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : setter.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return ((VariableElement) entry.getValue().getValue()).getSimpleName().toString();
+            }
+        }
+
+        return "PUBLIC";
+    }
+
+    private void writeMapper(JavaSourceWriter source, String packageName, String simpleName, String typeName, List<MappedField> fields) {
+
+        if (!packageName.isEmpty()) {
+            source.line("package " + packageName + ";").line();
+        }
+
+        source.line("/**")
+              .line(" * Mapper of {@link " + typeName + "} generated by resultset-mapper-processor. Do not edit.")
+              .line(" */")
+              .line("public final class " + simpleName + " implements " + GENERATED_MAPPER + "<" + typeName + "> {")
+              .indent();
+
+        source.line("private static final String[] COLUMN_NAMES = {")
+              .indent();
+        for (int i = 0; i < fields.size(); i++) {
+            source.line(quote(fields.get(i).columnName) + (i < fields.size() - 1 ? "," : ""));
+        }
+        source.outdent()
+              .line("};")
+              .line();
+
+        source.line("private static final boolean[] OPTIONAL_COLUMNS = {")
+              .indent();
+        for (int i = 0; i < fields.size(); i++) {
+            source.line(fields.get(i).optional + (i < fields.size() - 1 ? "," : ""));
+        }
+        source.outdent()
+              .line("};")
+              .line();
+
+        source.line("private static final Class<?>[] FIELD_TYPES = {")
+              .indent();
+        for (int i = 0; i < fields.size(); i++) {
+            source.line(fields.get(i).typeName + ".class" + (i < fields.size() - 1 ? "," : ""));
+        }
+        source.outdent()
+              .line("};")
+              .line();
+
+        for (int i = 0; i < fields.size(); i++) {
+            MappedField field = fields.get(i);
+
+            if (field.datePattern != null) {
+                source.line("private static final java.time.format.DateTimeFormatter DATE_FORMATTER_" + i
+                        + " = java.time.format.DateTimeFormatter.ofPattern(" + quote(field.datePattern) + ");")
+                      .line();
+            } else if (field.decimalPattern != null) {
+                source.line("private static final ThreadLocal<java.text.DecimalFormat> DECIMAL_FORMAT_" + i + " = ThreadLocal.withInitial(() ->")
+                      .indent()
+                      .line("new java.text.DecimalFormat(" + quote(field.decimalPattern) + ", new java.text.DecimalFormatSymbols(new java.util.Locale("
+                              + quote(field.decimalLocale.toLowerCase(Locale.ROOT)) + ", " + quote(field.decimalLocale.toUpperCase(Locale.ROOT)) + "))));")
+                      .outdent()
+                      .line();
+            }
+        }
+
+        source.line("@Override")
+              .line("public Class<" + typeName + "> type() {")
+              .indent()
+              .line("return " + typeName + ".class;")
+              .outdent()
+              .line("}")
+              .line();
+
+        source.line("@Override")
+              .line("public String[] columnNames() {")
+              .indent()
+              .line("return COLUMN_NAMES.clone();")
+              .outdent()
+              .line("}")
+              .line();
+
+        source.line("@Override")
+              .line("public boolean[] optionalColumns() {")
+              .indent()
+              .line("return OPTIONAL_COLUMNS.clone();")
+              .outdent()
+              .line("}")
+              .line();
+
+        source.line("@Override")
+              .line("public Class<?>[] fieldTypes() {")
+              .indent()
+              .line("return FIELD_TYPES.clone();")
+              .outdent()
+              .line("}")
+              .line();
+
+        source.line("@Override")
+              .line("public " + typeName + " map(java.sql.ResultSet resultSet, int[] columnIndexes) throws java.sql.SQLException {")
+              .indent()
+              .line(typeName + " dto = new " + typeName + "();");
+
+        for (int i = 0; i < fields.size(); i++) {
+            MappedField field = fields.get(i);
+            String read = null;
+            String value;
+
+            // like the reflective mapping, the NULL dates and decimals are formatted as null
+            if (field.datePattern != null) {
+                read = "java.sql.Date value" + i + " = resultSet.getDate(columnIndexes[" + i + "]);";
+                value = "value" + i + " != null ? value" + i + ".toLocalDate().format(DATE_FORMATTER_" + i + ") : null";
+            } else if (field.decimalPattern != null) {
+                read = "java.math.BigDecimal value" + i + " = resultSet.getBigDecimal(columnIndexes[" + i + "]);";
+                value = "value" + i + " != null ? DECIMAL_FORMAT_" + i + ".get().format(value" + i + ") : null";
+            } else {
+                value = "resultSet." + field.getter + "(columnIndexes[" + i + "])";
+            }
+
+            String statement = "dto." + field.assignment + value + (field.setter ? ");" : ";");
+
+            if (field.optional) {
+                source.line("if (columnIndexes[" + i + "] > 0) {")
+                      .indent();
+            }
+
+            if (read != null) {
+                source.line(read);
+            }
+
+            source.line(statement);
+
+            if (field.optional && !field.primitive) {
+                // like the reflective mapping, a missing optional column sets the field to null, or leaves it unchanged if primitive
+                source.outdent()
+                      .line("} else {")
+                      .indent()
+                      .line("dto." + field.assignment + "null" + (field.setter ? ");" : ";"))
+                      .outdent()
+                      .line("}");
+            } else if (field.optional) {
+                source.outdent()
+                      .line("}");
+            }
+        }
+
+        source.line("return dto;")
+              .outdent()
+              .line("}")
+              .outdent()
+              .line("}");
+    }
+
+    private void writeServices() {
+
+        if (generatedMappers.isEmpty()) {
+            return;
+        }
+
+        try {
+            FileObject services = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + GENERATED_MAPPER);
+
+            try (Writer writer = services.openWriter()) {
+                for (String mapper : generatedMappers) {
+                    writer.write(mapper);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot register the generated mappers: " + e.getMessage());
+        }
+    }
+
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    private static String typeName(TypeMirror type) {
+
+        if (type.getKind().isPrimitive()) {
+            return type.getKind().name().toLowerCase(Locale.ROOT);
+        }
+
+        if (type.getKind() == TypeKind.ARRAY) {
+            return ((ArrayType) type).getComponentType().getKind() == TypeKind.BYTE ? "byte[]" : null;
+        }
+
+        if (type.getKind() == TypeKind.DECLARED) {
+            return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+        }
+
+        return null;
+    }
+
+    private static String flatName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+
+        for (Element enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+        }
+
+        return name.toString();
+    }
+
+    private static String setterName(String fieldName, boolean primitiveBoolean) {
+        String property = fieldName;
+
+        // like Lombok, the setter of a boolean field isActive is setActive
+        if (primitiveBoolean && fieldName.length() > 2 && fieldName.startsWith("is") && Character.isUpperCase(fieldName.charAt(2))) {
+            property = fieldName.substring(2);
+        }
+
+        return "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+    }
+
+    private static AnnotationMirror annotation(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType)) {
+                return mirror;
+            }
+        }
+
+        return null;
+    }
+
+    private Object value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+
+        return null;
+    }
+
+    private String stringValue(AnnotationMirror mirror, String name) {
+        return String.valueOf(value(mirror, name));
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                case '\t': quoted.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+
+        return quoted.append('"').toString();
+    }
+
+    private void note(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "No mapper generated for " + type.getQualifiedName() + " because " + reason + ": the reflective mapping will be used", type);
+    }
+
+    private static final class MappedField {
+        private String columnName;
+        private boolean optional;
+        private String getter;
+        private String typeName;
+        private boolean primitive;
+        private String assignment;
+        private boolean setter;
+        private String datePattern;
+        private String decimalPattern;
+        private String decimalLocale;
+        private String error;
+    }
+}
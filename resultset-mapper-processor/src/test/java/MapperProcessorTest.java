@@ -0,0 +1,193 @@
+import com.dinuberinde.BoundMapper;
+import com.dinuberinde.GeneratedMapper;
+import com.dinuberinde.ResultSetMapper;
+import com.dinuberinde.processor.MapperProcessor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * It compiles the DTOs of src/test/resources/sources through the processor and maps
+ * the same rows with the generated mappers and with the reflective mapping.
+ */
+class MapperProcessorTest {
+    private static Path output;
+    private static URLClassLoader classLoader;
+    private static Connection connection;
+
+    @BeforeAll
+    static void compileAndCreateTables() throws Exception {
+        output = Files.createTempDirectory("generated-mappers");
+        classLoader = new URLClassLoader(new URL[] { output.toUri().toURL() }, MapperProcessorTest.class.getClassLoader());
+        compile(output);
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:processor", "sa", "password");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE PAYMENTS (ID INTEGER NOT NULL, PAID_ON DATE, AMOUNT DECIMAL(10,2), RATE DOUBLE, PAID BOOLEAN, NOTE VARCHAR(255), PRIMARY KEY (ID))");
+            stmt.execute("INSERT INTO PAYMENTS VALUES (1, DATE '2021-03-07', 1234.5, 0.25, TRUE, 'first')");
+            stmt.execute("INSERT INTO PAYMENTS VALUES (2, NULL, NULL, NULL, NULL, NULL)");
+            stmt.execute("INSERT INTO PAYMENTS VALUES (3, DATE '1999-12-31', -0.5, 1.5, FALSE, NULL)");
+            stmt.execute("CREATE TABLE INVOICES (ID INTEGER NOT NULL, TOTAL DECIMAL(10,2), PRIMARY KEY (ID))");
+            stmt.execute("INSERT INTO INVOICES VALUES (1, 10.00), (2, NULL)");
+        }
+    }
+
+    @AfterAll
+    static void close() throws Exception {
+        connection.close();
+        classLoader.close();
+
+        try (Stream<Path> files = Files.walk(output)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static void compile(Path output) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(output.toFile()));
+            fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singletonList(output.toFile()));
+            fileManager.setLocation(StandardLocation.CLASS_PATH, Collections.singletonList(locationOf(ResultSetMapper.class)));
+
+            List<File> sources;
+            try (Stream<Path> files = Files.list(Paths.get(MapperProcessorTest.class.getResource("/sources/dto").toURI()))) {
+                sources = files.map(Path::toFile).collect(Collectors.toList());
+            }
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("--release", "11"), null, fileManager.getJavaFileObjectsFromFiles(sources));
+            task.setProcessors(Collections.singletonList(new MapperProcessor()));
+
+            assertTrue(task.call(), diagnostics.getDiagnostics().toString());
+        }
+    }
+
+    private static File locationOf(Class<?> type) throws URISyntaxException {
+        return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    @Test
+    void itShouldMapLikeTheReflectiveMapping() throws Exception {
+        Class<?> payment = classLoader.loadClass("dto.Payment");
+        GeneratedMapper<?> generated = generatedMapper(payment);
+        assertNotNull(generated, "no mapper was generated for dto.Payment");
+
+        try (Statement stmt = connection.createStatement()) {
+            String sql = "SELECT * FROM PAYMENTS ORDER BY ID";
+            List<?> generatedPayments = ResultSetMapper.toList(stmt.executeQuery(sql), payment);
+            List<Object> reflectivePayments = reflective(stmt.executeQuery(sql), payment);
+
+            assertEquals(3, generatedPayments.size());
+            for (int i = 0; i < generatedPayments.size(); i++) {
+                assertSameFields(reflectivePayments.get(i), generatedPayments.get(i));
+            }
+
+            assertEquals("07/03/2021", field(generatedPayments.get(0), "paidOn"));
+            assertEquals("1.234,50", field(generatedPayments.get(0), "amount"));
+            assertNull(field(generatedPayments.get(1), "paidOn"));
+            assertNull(field(generatedPayments.get(1), "amount"));
+            assertEquals("-0,50", field(generatedPayments.get(2), "amount"));
+
+            // like the reflective mapping, the missing optional columns set null, or leave the primitives unchanged
+            assertNull(field(generatedPayments.get(0), "notExistingColumn"));
+            assertEquals(-1, field(generatedPayments.get(0), "notExistingCount"));
+
+            // the rows are mapped by the generated mapper itself
+            ResultSet resultSet = stmt.executeQuery(sql);
+            assertTrue(resultSet.next());
+            assertSameFields(reflectivePayments.get(0), generated.map(resultSet, new int[] { 1, 2, 3, 4, 5, 6, 0, 0 }));
+        }
+    }
+
+    @Test
+    void itShouldUseTheReflectiveMappingForTheConvertedTypes() throws Exception {
+        Class<?> invoice = classLoader.loadClass("dto.Invoice");
+        assertNotNull(generatedMapper(invoice), "no mapper was generated for dto.Invoice");
+
+        ResultSetMapper.registerConverter(BigDecimal.class, (resultSet, columnIndex) -> {
+            BigDecimal total = resultSet.getBigDecimal(columnIndex);
+            return total != null ? total.negate() : null;
+        });
+
+        try (Statement stmt = connection.createStatement()) {
+            List<?> invoices = ResultSetMapper.toList(stmt.executeQuery("SELECT * FROM INVOICES ORDER BY ID"), invoice);
+
+            assertEquals(new BigDecimal("-10.00"), field(invoices.get(0), "total"));
+            assertNull(field(invoices.get(1), "total"));
+        }
+    }
+
+    @Test
+    void itShouldNotGenerateAMapperForPrivateFieldsWithoutSetter() throws Exception {
+        assertNull(generatedMapper(classLoader.loadClass("dto.Receipt")));
+    }
+
+    private static GeneratedMapper<?> generatedMapper(Class<?> type) {
+        for (GeneratedMapper<?> mapper : ServiceLoader.load(GeneratedMapper.class, classLoader)) {
+            if (mapper.type() == type) {
+                return mapper;
+            }
+        }
+
+        return null;
+    }
+
+    private static List<Object> reflective(ResultSet resultSet, Class<?> type) throws SQLException {
+        // the bound mappers never use the generated ones
+        BoundMapper<?> mapper = ResultSetMapper.bind(resultSet, type);
+        List<Object> dtoList = new ArrayList<>();
+
+        while (resultSet.next()) {
+            dtoList.add(mapper.map(resultSet));
+        }
+
+        return dtoList;
+    }
+
+    private static void assertSameFields(Object expected, Object actual) throws IllegalAccessException {
+        for (Field field : expected.getClass().getDeclaredFields()) {
+            field.setAccessible(true);
+            assertEquals(field.get(expected), field.get(actual), field.getName());
+        }
+    }
+
+    private static Object field(Object dto, String name) throws ReflectiveOperationException {
+        Field field = dto.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(dto);
+    }
+}
@@ -0,0 +1,13 @@
+package dto;
+
+import com.dinuberinde.MapperLabel;
+
+import java.math.BigDecimal;
+
+public class Invoice {
+    @MapperLabel(name = "ID")
+    Long id;
+
+    @MapperLabel(name = "TOTAL")
+    BigDecimal total;
+}
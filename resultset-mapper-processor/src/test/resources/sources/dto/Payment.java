@@ -0,0 +1,53 @@
+package dto;
+
+import com.dinuberinde.MapperDateFormatter;
+import com.dinuberinde.MapperDecimalFormatter;
+import com.dinuberinde.MapperLabel;
+
+public class Payment {
+    @MapperLabel(name = "ID")
+    private Long id;
+
+    @MapperLabel(name = "PAID_ON")
+    @MapperDateFormatter(pattern = "dd/MM/yyyy")
+    private String paidOn;
+
+    @MapperLabel(name = "AMOUNT")
+    @MapperDecimalFormatter(pattern = "#,##0.00", locale = "it")
+    private String amount;
+
+    @MapperLabel(name = "RATE")
+    double rate;
+
+    @MapperLabel(name = "PAID")
+    private boolean isPaid;
+
+    @MapperLabel(name = "NOTE")
+    String note;
+
+    @MapperLabel(name = "NOT_EXISTING_COLUMN", optional = true)
+    private String notExistingColumn = "unset";
+
+    @MapperLabel(name = "NOT_EXISTING_COUNT", optional = true)
+    int notExistingCount = -1;
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public void setPaidOn(String paidOn) {
+        this.paidOn = paidOn;
+    }
+
+    public void setAmount(String amount) {
+        this.amount = amount;
+    }
+
+    public void setPaid(boolean isPaid) {
+        this.isPaid = isPaid;
+    }
+
+    public void setNotExistingColumn(String notExistingColumn) {
+        this.notExistingColumn = notExistingColumn;
+    }
+}
@@ -0,0 +1,19 @@
+package dto;
+
+import com.dinuberinde.MapperLabel;
+
+public class Receipt {
+    @MapperLabel(name = "ID")
+    private Long id;
+
+    @MapperLabel(name = "NUMBER")
+    private String number;
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+}
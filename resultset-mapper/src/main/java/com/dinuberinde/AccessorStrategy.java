@@ -0,0 +1,26 @@
+package com.dinuberinde;
+
+/**
+ * The strategy used to write the mapped values into the fields of the objects.
+ * <br>
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  ResultSetMapper.setAccessorStrategy(AccessorStrategy.REFLECTION);
+ * </pre>
+ */
+public enum AccessorStrategy {
+
+    /**
+     * The fields are written through {@link java.lang.invoke.MethodHandle} setters, with dedicated
+     * writers for the primitive fields so that primitive columns are never boxed.
+     * If a setter cannot be created for a field, the field falls back to reflection.
+     * This is the default strategy.
+     */
+    METHOD_HANDLE,
+
+    /**
+     * The fields are written through {@link java.lang.reflect.Field}.
+     * Meant for restricted environments where method handles cannot be used.
+     */
+    REFLECTION
+}
@@ -0,0 +1,218 @@
+package com.dinuberinde;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A mapper of the rows of a join to parent objects holding the collections of their child objects.
+ * The result set is consumed in a single pass: the parents are deduplicated by their {@link MapperId}
+ * field through an identity map, keyed by a primitive long if the identifier is numeric, and
+ * each row adds its child objects to the {@link MapperCollection} fields of its parent.
+ * The rows of a parent do not need to be contiguous, and the parents keep the order of their first row.
+ */
+final class AggregateMapper<T> {
+    private final BoundMapper<T> parent;
+    private final CollectionMapping[] collections;
+    private final BoundMapper<?>[] children;
+
+    /**
+     * The index of the column of the identifier of the parents.
+     */
+    private final int idColumn;
+    private final boolean numericId;
+
+    /**
+     * The index of the column of the identifier of each child, or 0 if the children are not deduplicated.
+     * A child without identifier is added for each row where one of its columns is not null.
+     */
+    private final int[] childIdColumns;
+
+    private AggregateMapper(BoundMapper<T> parent, BoundMapper<?>[] children, int idColumn, boolean numericId, int[] childIdColumns) {
+        this.parent = parent;
+        this.collections = parent.getPlan().getCollections();
+        this.children = children;
+        this.idColumn = idColumn;
+        this.numericId = numericId;
+        this.childIdColumns = childIdColumns;
+    }
+
+    /**
+     * It binds the mapping plan of a parent class, and the ones of its children, to the columns of a result set.
+     * @param plan the mapping plan of the parent class
+     * @param metaData the metadata of the result set
+     * @return the aggregate mapper
+     * @throws ResultSetMapperException if the parent class has no identifier or if a required column does not exist
+     */
+    static <T> AggregateMapper<T> bind(MappingPlan<T> plan, ResultSetMetaData metaData) throws SQLException {
+        int idIndex = plan.getIdIndex();
+
+        if (idIndex < 0) {
+            throw new ResultSetMapperException(plan.getType().getName() + " has no field annotated with MapperId");
+        }
+
+        BoundMapper<T> parent = BoundMapper.bind(plan, metaData);
+        int idColumn = parent.getColumnIndexes()[idIndex];
+
+        if (idColumn == 0) {
+            throw new ResultSetMapperException("The identifier of " + plan.getType().getName() + " was not found in the result set");
+        }
+
+        CollectionMapping[] collections = plan.getCollections();
+        BoundMapper<?>[] children = new BoundMapper<?>[collections.length];
+        int[] childIdColumns = new int[collections.length];
+
+        for (int i = 0; i < collections.length; i++) {
+            MappingPlan<?> childPlan = MappingPlan.of(collections[i].getElementType());
+            children[i] = BoundMapper.bind(childPlan, metaData, collections[i].getPrefix());
+
+            if (childPlan.getIdIndex() >= 0) {
+                childIdColumns[i] = children[i].getColumnIndexes()[childPlan.getIdIndex()];
+            }
+        }
+
+        return new AggregateMapper<>(parent, children, idColumn, isNumeric(plan.getMappings()[idIndex].getType()), childIdColumns);
+    }
+
+    private static boolean isNumeric(Class<?> type) {
+        return type == long.class || type == Long.class
+                || type == int.class || type == Integer.class
+                || type == short.class || type == Short.class
+                || type == byte.class || type == Byte.class;
+    }
+
+    /**
+     * It maps all the remaining rows of a result set to the parent objects.
+     * @param resultSet the result set
+     * @return the parent objects, in the order of their first row
+     */
+    List<T> toList(ResultSet resultSet) throws Exception {
+        List<T> dtoList = new ArrayList<>();
+        LongObjectMap<Aggregate<T>> byNumericId = numericId ? new LongObjectMap<>() : null;
+        Map<Object, Aggregate<T>> byId = numericId ? null : new HashMap<>();
+
+        while (resultSet.next()) {
+            Aggregate<T> aggregate;
+
+            if (numericId) {
+                long id = resultSet.getLong(idColumn);
+                checkId(resultSet.wasNull());
+                aggregate = byNumericId.get(id);
+
+                if (aggregate == null) {
+                    aggregate = newAggregate(resultSet);
+                    byNumericId.put(id, aggregate);
+                    dtoList.add(aggregate.dto);
+                }
+            } else {
+                Object id = resultSet.getObject(idColumn);
+                checkId(id == null);
+                aggregate = byId.get(id);
+
+                if (aggregate == null) {
+                    aggregate = newAggregate(resultSet);
+                    byId.put(id, aggregate);
+                    dtoList.add(aggregate.dto);
+                }
+            }
+
+            for (int i = 0; i < children.length; i++) {
+                addChild(resultSet, aggregate, i);
+            }
+        }
+
+        return dtoList;
+    }
+
+    private void checkId(boolean isNull) {
+
+        if (isNull) {
+            throw new ResultSetMapperException("The identifier of " + parent.getType().getName() + " cannot be null");
+        }
+    }
+
+    private Aggregate<T> newAggregate(ResultSet resultSet) throws Exception {
+        T dto = parent.mapRow(resultSet);
+        Aggregate<T> aggregate = new Aggregate<>(dto, collections.length);
+
+        for (int i = 0; i < collections.length; i++) {
+            aggregate.collections[i] = collections[i].init(dto);
+        }
+
+        return aggregate;
+    }
+
+    private void addChild(ResultSet resultSet, Aggregate<T> aggregate, int i) throws Exception {
+        int childIdColumn = childIdColumns[i];
+
+        if (childIdColumn > 0) {
+            Object childId = resultSet.getObject(childIdColumn);
+
+            // no child in this row, like in the rows of an outer join without a match
+            if (childId == null) {
+                return;
+            }
+
+            if (!aggregate.childIds(i).add(childId)) {
+                return;
+            }
+        } else if (isEmpty(resultSet, children[i])) {
+            // a child without identifier is missing from the row if all its columns are null
+            return;
+        }
+
+        aggregate.collections[i].add(children[i].mapRow(resultSet));
+    }
+
+    private static boolean isEmpty(ResultSet resultSet, BoundMapper<?> child) throws SQLException {
+
+        for (int columnIndex : child.getColumnIndexes()) {
+            if (columnIndex > 0 && resultSet.getObject(columnIndex) != null) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * A parent object being aggregated, with its collections and the identifiers of the children already added.
+     */
+    private static final class Aggregate<T> {
+        private final T dto;
+        private final Collection<Object>[] collections;
+        private final Set<Object>[] childIds;
+
+        private Aggregate(T dto, int collectionCount) {
+            this.dto = dto;
+            this.collections = newCollections(collectionCount);
+            this.childIds = newSets(collectionCount);
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private static Collection<Object>[] newCollections(int length) {
+            return new Collection[length];
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private static Set<Object>[] newSets(int length) {
+            return new Set[length];
+        }
+
+        private Set<Object> childIds(int i) {
+
+            if (childIds[i] == null) {
+                childIds[i] = new HashSet<>();
+            }
+
+            return childIds[i];
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.dinuberinde;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a batched write of a list of objects: the update count of each object,
+ * and the failures of the objects that could not be written. A failed row does not stop the batch:
+ * the rows after it are written anyway.
+ * <br>
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  BatchResult result = ResultSetMapper.insertBatch(connection, "USERS", User.class, users, 500);
+ *  for (BatchResult.Failure failure : result.getFailures()) {
+ *      log(users.get(failure.getIndex()), failure.getException());
+ *  }
+ * </pre>
+ */
+public final class BatchResult {
+    private final int[] updateCounts;
+    private final List<Failure> failures;
+
+    BatchResult(int[] updateCounts, SQLException[] exceptions) {
+        this.updateCounts = updateCounts;
+
+        List<Failure> failures = new ArrayList<>();
+        for (int i = 0; i < exceptions.length; i++) {
+            if (exceptions[i] != null) {
+                failures.add(new Failure(i, exceptions[i]));
+            }
+        }
+
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * It yields the update count of each object, in the order of the written list.
+     * @return the update counts: the number of rows written, {@link Statement#SUCCESS_NO_INFO}
+     *         if the driver does not know it, or {@link Statement#EXECUTE_FAILED} if the object failed
+     */
+    public int[] getUpdateCounts() {
+        return updateCounts.clone();
+    }
+
+    /**
+     * It yields the failures of the objects that could not be written.
+     * @return the failures, in the order of the written list
+     */
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * It yields true if all the objects were written.
+     * @return true if there are no failures
+     */
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * The failure of an object of a batched write.
+     */
+    public static final class Failure {
+        private final int index;
+        private final SQLException exception;
+
+        private Failure(int index, SQLException exception) {
+            this.index = index;
+            this.exception = exception;
+        }
+
+        /**
+         * It yields the index of the object in the written list.
+         * @return the index
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * It yields the exception of the object, or of its whole batch if the driver did not tell them apart.
+         * @return the exception
+         */
+        public SQLException getException() {
+            return exception;
+        }
+
+        @Override
+        public String toString() {
+            return "Failure{index=" + index + ", exception=" + exception + "}";
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.dinuberinde;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The batched writes of a list of objects through the statements of their {@link WritePlan}.
+ * The objects are bound to a single prepared statement and executed in batches, and the failures
+ * of a batch are told apart by its update counts: if the driver stops at the first failed row,
+ * the rows after it are executed again in the next batch, so that each failure is reported on its row.
+ * A row whose values cannot be bound, for instance a formatted string that does not parse, fails
+ * on its own and is left out of its batch.
+ */
+final class BatchWriter<T> {
+
+    /**
+     * It binds an object to the parameters of a statement.
+     */
+    @FunctionalInterface
+    private interface Binder<T> {
+        void bind(PreparedStatement statement, T dto) throws Exception;
+    }
+
+    private final List<? extends T> objects;
+    private final int batchSize;
+    private final int[] updateCounts;
+    private final SQLException[] exceptions;
+
+    private BatchWriter(List<? extends T> objects, int batchSize) {
+        this.objects = objects;
+        this.batchSize = batchSize;
+        this.updateCounts = new int[objects.size()];
+        this.exceptions = new SQLException[objects.size()];
+    }
+
+    static <T> BatchResult insert(Connection connection, String table, WritePlan<T> plan, List<? extends T> objects, int batchSize) throws Exception {
+        BatchWriter<T> writer = new BatchWriter<>(objects, batchSize);
+        writer.execute(connection, plan.insertStatement(table), plan::bindInsert, allRows(objects.size()));
+        return writer.result();
+    }
+
+    static <T> BatchResult update(Connection connection, String table, WritePlan<T> plan, List<? extends T> objects, int batchSize) throws Exception {
+        BatchWriter<T> writer = new BatchWriter<>(objects, batchSize);
+        writer.execute(connection, plan.updateStatement(table), plan::bindUpdate, allRows(objects.size()));
+        return writer.result();
+    }
+
+    /**
+     * It updates the objects by identifier, then it inserts the ones that did not update any row.
+     */
+    static <T> BatchResult upsert(Connection connection, String table, WritePlan<T> plan, List<? extends T> objects, int batchSize) throws Exception {
+        BatchWriter<T> writer = new BatchWriter<>(objects, batchSize);
+        String insertStatement = plan.insertStatement(table);
+        writer.execute(connection, plan.updateStatement(table), plan::bindUpdate, allRows(objects.size()));
+
+        int[] missing = new int[objects.size()];
+        int missingCount = 0;
+        for (int i = 0; i < objects.size(); i++) {
+            if (writer.updateCounts[i] == 0 && writer.exceptions[i] == null) {
+                missing[missingCount++] = i;
+            }
+        }
+
+        if (missingCount > 0) {
+            writer.execute(connection, insertStatement, plan::bindInsert, Arrays.copyOf(missing, missingCount));
+        }
+
+        return writer.result();
+    }
+
+    private static int[] allRows(int size) {
+        int[] rows = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+
+        return rows;
+    }
+
+    private BatchResult result() {
+        return new BatchResult(updateCounts, exceptions);
+    }
+
+    /**
+     * It executes a statement for some of the objects, in batches.
+     * @param rows the indexes of the objects, in order
+     */
+    private void execute(Connection connection, String sql, Binder<T> binder, int[] rows) throws Exception {
+
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            // the indexes in the rows of the ones added to the current batch
+            int[] batch = new int[Math.min(batchSize, rows.length)];
+            int from = 0;
+
+            while (from < rows.length) {
+                int to = Math.min(from + batchSize, rows.length);
+                int size = 0;
+
+                for (int i = from; i < to; i++) {
+                    if (bind(statement, binder, rows[i])) {
+                        statement.addBatch();
+                        batch[size++] = i;
+                    }
+                }
+
+                if (size == 0) {
+                    from = to;
+                    continue;
+                }
+
+                try {
+                    int[] counts = statement.executeBatch();
+                    for (int i = 0; i < counts.length && i < size; i++) {
+                        updateCounts[rows[batch[i]]] = counts[i];
+                    }
+
+                    from = to;
+                } catch (BatchUpdateException e) {
+                    from = failed(rows, batch, size, to, e);
+                    statement.clearBatch();
+                }
+            }
+        }
+    }
+
+    /**
+     * It binds an object to the parameters of a statement, recording the failure of its row if it cannot be bound.
+     * @return true if the object was bound
+     */
+    private boolean bind(PreparedStatement statement, Binder<T> binder, int row) {
+        try {
+            binder.bind(statement, objects.get(row));
+            return true;
+        } catch (Exception e) {
+            updateCounts[row] = Statement.EXECUTE_FAILED;
+            exceptions[row] = e instanceof SQLException ? (SQLException) e : new SQLException(e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * It records the outcome of a failed batch.
+     * @param batch the indexes in the rows of the ones in the batch
+     * @param size the number of rows in the batch
+     * @return the index in the rows of the first row to execute again
+     */
+    private int failed(int[] rows, int[] batch, int size, int to, BatchUpdateException e) {
+        int[] counts = e.getUpdateCounts() != null ? e.getUpdateCounts() : new int[0];
+        SQLException next = e.getNextException();
+
+        for (int i = 0; i < counts.length && i < size; i++) {
+            updateCounts[rows[batch[i]]] = counts[i];
+
+            if (counts[i] == Statement.EXECUTE_FAILED) {
+                // the drivers that go on after a failure may chain the exception of each failed row, in order
+                exceptions[rows[batch[i]]] = next != null ? next : e;
+                next = next != null ? next.getNextException() : null;
+            }
+        }
+
+        if (counts.length >= size) {
+            return to;
+        }
+
+        // the driver stopped at the first failed row: the rows after it were not executed
+        int failedRow = batch[counts.length];
+        updateCounts[rows[failedRow]] = Statement.EXECUTE_FAILED;
+        exceptions[rows[failedRow]] = next != null ? next : e;
+        return failedRow + 1;
+    }
+}
@@ -0,0 +1,54 @@
+package com.dinuberinde;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The default executor of the blocking JDBC work of the asynchronous mapping.
+ * On runtimes with virtual threads it starts a virtual thread per task, so that many concurrent queries
+ * do not hold a platform thread each; otherwise it uses a cached pool of daemon threads.
+ * The virtual threads are detected by reflection, so that the library still targets Java 11.
+ */
+final class BlockingExecutors {
+
+    private BlockingExecutors() {}
+
+    static Executor get() {
+        return Holder.EXECUTOR;
+    }
+
+    private static final class Holder {
+        private static final ExecutorService VIRTUAL_EXECUTOR = virtualThreadPerTaskExecutorOrNull();
+        private static final boolean VIRTUAL = VIRTUAL_EXECUTOR != null;
+        private static final Executor EXECUTOR = VIRTUAL ? VIRTUAL_EXECUTOR : Executors.newCachedThreadPool(new DaemonThreadFactory());
+    }
+
+    private static ExecutorService virtualThreadPerTaskExecutorOrNull() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "resultset-mapper-", 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // a runtime without virtual threads, or with virtual threads in preview and not enabled
+            return null;
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "resultset-mapper-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
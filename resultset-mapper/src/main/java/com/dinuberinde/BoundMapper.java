@@ -0,0 +1,419 @@
+package com.dinuberinde;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A mapper of a class bound to the columns of a result set.
+ * The {@link MapperLabel} names of the class are resolved to column indexes once,
+ * by reading the {@link ResultSetMetaData} of the result set, and the rows are then read
+ * by index. Missing optional columns are detected up front and missing required columns
+ * make the binding fail before the first row is mapped.
+ * <br>
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  BoundMapper&lt;User&gt; mapper = ResultSetMapper.bind(resultSet, User.class);
+ *  while(resultSet.next()) {
+ *      users.add(mapper.map(resultSet));
+ *  }
+ * </pre>
+ * A bound mapper is only valid for result sets having the same columns of the one it was bound to.
+ * It is not thread-safe, since it keeps the deduplication tables and the row count of its mapping run:
+ * it must be bound once per result set and used by one thread at a time.
+ */
+public final class BoundMapper<T> implements RowMapper<T> {
+
+    /**
+     * One row every {@code SAMPLE_MASK + 1} has its fields timed, if the mapping is observed.
+     */
+    private static final int SAMPLE_MASK = 1023;
+
+    private final MappingPlan<T> plan;
+
+    /**
+     * The mappings of the constructor parameters followed by the mappings of the fields.
+     */
+    private final FieldMapping[] fields;
+
+    /**
+     * The number of constructor parameters, which come first in {@link #fields}.
+     */
+    private final int parameterCount;
+    private final int[] columnIndexes;
+
+    /**
+     * The table of the values of each deduplicated field, in the order of {@link #fields},
+     * null for the other fields; null if no field is deduplicated.
+     */
+    private final StringTable[] tables;
+
+    /**
+     * The rows mapped by {@link #mapRow(ResultSet, Object)}, used to sample them. It is not synchronized,
+     * since a lost update only shifts the sampled rows.
+     */
+    private int mappedRows;
+
+    private BoundMapper(MappingPlan<T> plan, int[] columnIndexes) {
+        this.plan = plan;
+        this.fields = plan.getMappings();
+        this.parameterCount = plan.getParameters().length;
+        this.columnIndexes = columnIndexes;
+        this.tables = tablesFor(fields);
+    }
+
+    private static StringTable[] tablesFor(FieldMapping[] fields) {
+        StringTable[] tables = null;
+
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].isDeduplicated()) {
+                if (tables == null) {
+                    tables = new StringTable[fields.length];
+                }
+
+                tables[i] = new StringTable();
+            }
+        }
+
+        return tables;
+    }
+
+    /**
+     * It binds the mapping plan of a class to the columns of a result set.
+     * @param plan the mapping plan
+     * @param metaData the metadata of the result set
+     * @return the bound mapper
+     * @throws ResultSetMapperException if a required column does not exist
+     */
+    static <T> BoundMapper<T> bind(MappingPlan<T> plan, ResultSetMetaData metaData) throws SQLException {
+        return bind(plan, metaData, "");
+    }
+
+    /**
+     * It binds the mapping plan of a class to the columns of a result set whose labels start with a prefix.
+     * @param plan the mapping plan
+     * @param metaData the metadata of the result set
+     * @param prefix the prefix of the labels of the columns
+     * @return the bound mapper
+     * @throws ResultSetMapperException if a required column does not exist
+     */
+    static <T> BoundMapper<T> bind(MappingPlan<T> plan, ResultSetMetaData metaData, String prefix) throws SQLException {
+        FieldMapping[] fields = plan.getMappings();
+        String[] columnNames = new String[fields.length];
+        boolean[] optional = new boolean[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            columnNames[i] = prefix + fields[i].getLabel().name();
+            optional[i] = fields[i].getLabel().optional();
+        }
+
+        return new BoundMapper<>(plan, columnIndexes(metaData, plan.getType(), columnNames, optional));
+    }
+
+    /**
+     * It resolves column names to column indexes.
+     * @param metaData the metadata of the result set
+     * @param type the mapped type, used for error reporting
+     * @param columnNames the names of the columns
+     * @param optional whether each column is optional
+     * @return the index of each column, or 0 for the missing optional columns
+     * @throws ResultSetMapperException if a required column does not exist
+     */
+    static int[] columnIndexes(ResultSetMetaData metaData, Class<?> type, String[] columnNames, boolean[] optional) throws SQLException {
+        int[] columnIndexes = positionalColumnIndexes(metaData, type, columnNames, optional);
+
+        if (columnIndexes != null) {
+            return columnIndexes;
+        }
+
+        Map<String, Integer> columns = columnIndexes(metaData);
+        columnIndexes = new int[columnNames.length];
+
+        for (int i = 0; i < columnNames.length; i++) {
+            Integer columnIndex = columns.get(columnNames[i].toUpperCase(Locale.ROOT));
+
+            if (columnIndex != null) {
+                columnIndexes[i] = columnIndex;
+            } else if (!optional[i]) {
+                throw new ResultSetMapperException("Column " + columnNames[i] + " of " + type.getName() + " was not found in the result set");
+            } else if (MapperListeners.isEnabled()) {
+                MapperListeners.optionalColumnMissing(type, columnNames[i]);
+            }
+        }
+
+        return columnIndexes;
+    }
+
+    /**
+     * It resolves column names to column indexes if the columns of the result set are exactly the columns
+     * of the names, in the same order, like in the queries of {@link ResultSetMapper#select(Class, String)},
+     * with the missing optional columns skipped. This needs no map of the columns.
+     * @return the index of each column, or null if the columns are not in the order of the names
+     */
+    private static int[] positionalColumnIndexes(ResultSetMetaData metaData, Class<?> type, String[] columnNames, boolean[] optional) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        int[] columnIndexes = new int[columnNames.length];
+        int column = 1;
+
+        for (int i = 0; i < columnNames.length; i++) {
+            if (column <= columnCount && metaData.getColumnLabel(column).equalsIgnoreCase(columnNames[i])) {
+                columnIndexes[i] = column++;
+            } else if (!optional[i]) {
+                return null;
+            }
+        }
+
+        if (column <= columnCount) {
+            return null;
+        }
+
+        // a name repeated by another matched column is resolved by the map, to the first column with that label
+        for (int i = 0; i < columnNames.length; i++) {
+            for (int j = 0; j < columnNames.length; j++) {
+                if (j != i && columnIndexes[j] > 0 && columnNames[j].equalsIgnoreCase(columnNames[i])) {
+                    return null;
+                }
+            }
+        }
+
+        if (MapperListeners.isEnabled()) {
+            for (int i = 0; i < columnNames.length; i++) {
+                if (columnIndexes[i] == 0) {
+                    MapperListeners.optionalColumnMissing(type, columnNames[i]);
+                }
+            }
+        }
+
+        return columnIndexes;
+    }
+
+    private static Map<String, Integer> columnIndexes(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        Map<String, Integer> columns = new HashMap<>(columnCount * 2);
+
+        for (int i = 1; i <= columnCount; i++) {
+            // like ResultSet.findColumn, the first column with a given label wins
+            columns.putIfAbsent(metaData.getColumnLabel(i).toUpperCase(Locale.ROOT), i);
+        }
+
+        return columns;
+    }
+
+    /**
+     * It yields the mappings of the constructor parameters followed by the mappings of the fields,
+     * in the order of {@link #getColumnIndexes()}.
+     * @return the mappings
+     */
+    FieldMapping[] getFields() {
+        return fields;
+    }
+
+    MappingPlan<T> getPlan() {
+        return plan;
+    }
+
+    int[] getColumnIndexes() {
+        return columnIndexes;
+    }
+
+    /**
+     * It yields the type of the mapped objects.
+     * @return the type of the mapped objects
+     */
+    public Class<T> getType() {
+        return plan.getType();
+    }
+
+    /**
+     * It maps the current row of the result set to an object.
+     * @param resultSet the result set, having the same columns of the one this mapper is bound to
+     * @return the object mapped
+     */
+    @Override
+    public T map(ResultSet resultSet) {
+        try {
+            return mapRow(resultSet);
+        } catch (ResultSetMapperException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ResultSetMapperException(e);
+        }
+    }
+
+    /**
+     * It maps the current row of the result set into an existing object, overwriting its mapped fields,
+     * so that no object is created. Missing optional columns set the field to null, or leave it unchanged if primitive.
+     * @param resultSet the result set, having the same columns of the one this mapper is bound to
+     * @param target the object to overwrite
+     * @return the target object
+     */
+    public T mapInto(ResultSet resultSet, T target) {
+
+        if (parameterCount > 0) {
+            throw new ResultSetMapperException(getType().getName() + " is built by its constructor and cannot be overwritten");
+        }
+
+        if (target == null) {
+            throw new ResultSetMapperException("Target cannot be null");
+        }
+
+        try {
+            return mapRow(resultSet, target);
+        } catch (ResultSetMapperException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ResultSetMapperException(e);
+        }
+    }
+
+    T mapRow(ResultSet resultSet) throws Exception {
+
+        if (parameterCount == 0) {
+            return mapRow(resultSet, plan.newInstance());
+        }
+
+        Object[] arguments = new Object[parameterCount];
+        for (int i = 0; i < parameterCount; i++) {
+            arguments[i] = deduplicate(i, fields[i].read(resultSet, columnIndexes[i]));
+        }
+
+        return mapRow(resultSet, plan.newInstance(arguments));
+    }
+
+    T mapRow(ResultSet resultSet, T dto) throws Exception {
+
+        if ((++mappedRows & SAMPLE_MASK) == 0 && MapperListeners.isEnabled()) {
+            return mapRowSampled(resultSet, dto);
+        }
+
+        for (int i = parameterCount; i < fields.length; i++) {
+            apply(i, resultSet, dto);
+        }
+
+        return dto;
+    }
+
+    private void apply(int i, ResultSet resultSet, Object dto) throws SQLException, IllegalAccessException {
+
+        if (tables != null && tables[i] != null) {
+            fields[i].write(dto, tables[i].intern((String) fields[i].read(resultSet, columnIndexes[i])));
+        } else {
+            fields[i].apply(resultSet, columnIndexes[i], dto);
+        }
+    }
+
+    private Object deduplicate(int i, Object value) {
+        return tables != null && tables[i] != null ? tables[i].intern((String) value) : value;
+    }
+
+    /**
+     * It reports the strings deduplicated since the last report, and it resets the counters.
+     */
+    void reportDeduplication() {
+
+        if (tables == null) {
+            return;
+        }
+
+        for (int i = 0; i < tables.length; i++) {
+            StringTable table = tables[i];
+
+            if (table != null) {
+                if (table.getLookups() > 0 && MapperListeners.isEnabled()) {
+                    MapperListeners.stringsDeduplicated(plan.getType(), fields[i].getLabel().name(),
+                            table.getLookups(), table.getDeduplicated(), table.getDeduplicatedChars());
+                }
+
+                table.reset();
+            }
+        }
+    }
+
+    /**
+     * It empties the tables of the deduplicated strings, before the mapper is reused for another result set.
+     */
+    void clearTables() {
+
+        if (tables == null) {
+            return;
+        }
+
+        for (StringTable table : tables) {
+            if (table != null) {
+                table.clear();
+            }
+        }
+    }
+
+    /**
+     * It maps the current row of the result set into an object, reporting the time spent on each field.
+     */
+    private T mapRowSampled(ResultSet resultSet, T dto) throws Exception {
+        Class<T> type = plan.getType();
+
+        for (int i = parameterCount; i < fields.length; i++) {
+            long start = System.nanoTime();
+            apply(i, resultSet, dto);
+            MapperListeners.fieldMapped(type, fields[i].getLabel().name(), System.nanoTime() - start);
+        }
+
+        return dto;
+    }
+
+    /**
+     * It creates a new instance of the mapped type.
+     * @return the new instance
+     */
+    T newInstance() throws Exception {
+        return plan.newInstance();
+    }
+
+    /**
+     * It reads the raw values of the current row of the result set, without converting them.
+     * The raw strings of the deduplicated fields are deduplicated here, since the rows are read by a single thread.
+     * @param resultSet the result set
+     * @return the raw value of each field
+     */
+    Object[] readRow(ResultSet resultSet) throws SQLException {
+        Object[] row = new Object[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            row[i] = fields[i].readRaw(resultSet, columnIndexes[i]);
+
+            if (tables != null && tables[i] != null && row[i] instanceof String) {
+                row[i] = tables[i].intern((String) row[i]);
+            }
+        }
+
+        return row;
+    }
+
+    /**
+     * It builds an object from the raw values of a row read by {@link #readRow(ResultSet)}.
+     * @param row the raw value of each field
+     * @return the object mapped
+     */
+    T build(Object[] row) throws Exception {
+        T dto;
+
+        if (parameterCount == 0) {
+            dto = plan.newInstance();
+        } else {
+            Object[] arguments = new Object[parameterCount];
+            for (int i = 0; i < parameterCount; i++) {
+                arguments[i] = row[i] == FieldMapping.MISSING ? fields[i].defaultValue() : fields[i].convert(row[i]);
+            }
+
+            dto = plan.newInstance(arguments);
+        }
+
+        for (int i = parameterCount; i < fields.length; i++) {
+            fields[i].applyRaw(dto, row[i]);
+        }
+
+        return dto;
+    }
+}
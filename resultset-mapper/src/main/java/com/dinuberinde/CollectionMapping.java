@@ -0,0 +1,81 @@
+package com.dinuberinde;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * The precomputed mapping of a field annotated with {@link MapperCollection}:
+ * the type of its elements, the prefix of their columns and the way to create and write the collection.
+ */
+final class CollectionMapping {
+    private final Field field;
+    private final Class<?> elementType;
+    private final String prefix;
+    private final Supplier<Collection<Object>> factory;
+    private final FieldWriter writer;
+
+    CollectionMapping(Field field, MapperCollection collection, AccessorStrategy strategy) {
+        this.field = field;
+        this.elementType = elementType(field);
+        this.prefix = collection.prefix();
+        this.factory = factory(field);
+        field.setAccessible(true);
+        this.writer = FieldWriter.of(field, strategy);
+    }
+
+    Field getField() {
+        return field;
+    }
+
+    Class<?> getElementType() {
+        return elementType;
+    }
+
+    String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * It creates an empty collection and writes it to the field of the object.
+     * @param dto the object
+     * @return the collection
+     */
+    Collection<Object> init(Object dto) throws IllegalAccessException {
+        Collection<Object> collection = factory.get();
+        writer.set(dto, collection);
+        return collection;
+    }
+
+    private static Supplier<Collection<Object>> factory(Field field) {
+        Class<?> type = field.getType();
+
+        if (type == List.class || type == Collection.class) {
+            return ArrayList::new;
+        } else if (type == Set.class) {
+            return LinkedHashSet::new;
+        } else {
+            throw new ResultSetMapperException("The field " + field.getName() + " annotated with MapperCollection must be a List, a Set or a Collection");
+        }
+    }
+
+    private static Class<?> elementType(Field field) {
+        Type type = field.getGenericType();
+
+        if (type instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+
+            if (argument instanceof Class) {
+                return (Class<?>) argument;
+            }
+        }
+
+        throw new ResultSetMapperException("The type of the elements of the field " + field.getName() + " annotated with MapperCollection must be a class");
+    }
+}
@@ -0,0 +1,35 @@
+package com.dinuberinde;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A converter of a column of a result set to a Java type, registered by
+ * {@link ResultSetMapper#registerConverter(Class, ColumnConverter)}.
+ * The converter of a field is resolved once, when the mapping plan of its class is built,
+ * and it is then called directly for each row.
+ * <br>
+ *<p>Example:</p>
+ *<pre class="code">
+ *  ResultSetMapper.registerConverter(Money.class, (resultSet, columnIndex) -&gt; {
+ *      BigDecimal amount = resultSet.getBigDecimal(columnIndex);
+ *      return amount != null ? Money.of(amount) : null;
+ *  });
+ *</pre>
+ * Built-in converters exist for {@link java.time.LocalDate}, {@link java.time.LocalDateTime},
+ * {@link java.time.LocalTime}, {@link java.time.OffsetDateTime}, {@link java.time.Instant},
+ * {@link java.util.UUID}, {@link Short} and the enums, mapped by the name of their constants.
+ * @param <T> the Java type
+ */
+@FunctionalInterface
+public interface ColumnConverter<T> {
+
+    /**
+     * It reads the value of a column of the current row of a result set.
+     * @param resultSet the result set
+     * @param columnIndex the index of the column
+     * @return the value of the column, converted to the Java type
+     * @throws SQLException if the column cannot be read
+     */
+    T read(ResultSet resultSet, int columnIndex) throws SQLException;
+}
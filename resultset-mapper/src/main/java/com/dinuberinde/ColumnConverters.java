@@ -0,0 +1,126 @@
+package com.dinuberinde;
+
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of the {@link ColumnConverter}s, holding the built-in converters
+ * and the ones registered by the users, which take precedence.
+ */
+final class ColumnConverters {
+    private static final Map<Class<?>, ColumnConverter<?>> CONVERTERS = new ConcurrentHashMap<>();
+
+    /**
+     * The converters of the enums, built on first use.
+     */
+    private static final ClassValue<ColumnConverter<?>> ENUMS = new ClassValue<>() {
+        @Override
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        protected ColumnConverter<?> computeValue(Class<?> type) {
+            return new EnumConverter(type);
+        }
+    };
+
+    static {
+        // the java.time types are read by the drivers directly, without going through java.sql.Date and java.sql.Timestamp
+        CONVERTERS.put(LocalDate.class, (resultSet, columnIndex) -> resultSet.getObject(columnIndex, LocalDate.class));
+        CONVERTERS.put(LocalDateTime.class, (resultSet, columnIndex) -> resultSet.getObject(columnIndex, LocalDateTime.class));
+        CONVERTERS.put(LocalTime.class, (resultSet, columnIndex) -> resultSet.getObject(columnIndex, LocalTime.class));
+        CONVERTERS.put(OffsetDateTime.class, (resultSet, columnIndex) -> resultSet.getObject(columnIndex, OffsetDateTime.class));
+        CONVERTERS.put(Instant.class, (resultSet, columnIndex) -> {
+            Timestamp timestamp = resultSet.getTimestamp(columnIndex);
+            return timestamp != null ? timestamp.toInstant() : null;
+        });
+        CONVERTERS.put(UUID.class, (resultSet, columnIndex) -> toUUID(resultSet.getObject(columnIndex)));
+        CONVERTERS.put(Short.class, (ColumnConverter<Short>) ResultSet::getShort);
+        CONVERTERS.put(short.class, (ColumnConverter<Short>) ResultSet::getShort);
+    }
+
+    private ColumnConverters() {}
+
+    /**
+     * It registers the converter of a type, replacing the previous one, and it discards
+     * the cached mapping plans, so that the classes mapped from now on use the new converter.
+     * @param type the type
+     * @param converter the converter
+     */
+    static void register(Class<?> type, ColumnConverter<?> converter) {
+        CONVERTERS.put(type, converter);
+        MappingPlan.clearCache();
+        CompiledMapper.clearCache();
+    }
+
+    /**
+     * It yields the converter of a type.
+     * @param type the type
+     * @return the converter, or null if the type has no converter
+     */
+    static ColumnConverter<?> of(Class<?> type) {
+        ColumnConverter<?> converter = CONVERTERS.get(type);
+
+        if (converter == null && type.isEnum()) {
+            return ENUMS.get(type);
+        }
+
+        return converter;
+    }
+
+    private static UUID toUUID(Object value) {
+
+        if (value == null || value instanceof UUID) {
+            return (UUID) value;
+        }
+
+        if (value instanceof byte[] && ((byte[]) value).length == 16) {
+            ByteBuffer bytes = ByteBuffer.wrap((byte[]) value);
+            return new UUID(bytes.getLong(), bytes.getLong());
+        }
+
+        return UUID.fromString(value.toString());
+    }
+
+    /**
+     * The converter of the name of an enum constant, through a table built once instead of {@link Enum#valueOf(Class, String)}.
+     */
+    private static final class EnumConverter<E extends Enum<E>> implements ColumnConverter<E> {
+        private final Class<E> type;
+        private final Map<String, E> constants;
+
+        private EnumConverter(Class<E> type) {
+            this.type = type;
+            E[] values = type.getEnumConstants();
+            this.constants = new HashMap<>(values.length * 2);
+
+            for (E value : values) {
+                constants.put(value.name(), value);
+            }
+        }
+
+        @Override
+        public E read(ResultSet resultSet, int columnIndex) throws SQLException {
+            String name = resultSet.getString(columnIndex);
+
+            if (name == null) {
+                return null;
+            }
+
+            E constant = constants.get(name);
+            if (constant == null) {
+                throw new ResultSetMapperException("No constant " + name + " was found in " + type.getName());
+            }
+
+            return constant;
+        }
+    }
+}
@@ -0,0 +1,594 @@
+package com.dinuberinde;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * The rows of a result set mapped into columns instead of objects, one column for each field
+ * annotated with {@link MapperLabel} of a class. Integral, floating point and boolean fields are stored
+ * in primitive arrays, strings are dictionary-encoded and the nulls of every column are tracked in a bitmap,
+ * so that no object is created per row and no value is boxed.
+ * <ul>
+ *     <li>long, Long: {@link LongColumn}</li>
+ *     <li>int, Integer, byte, Byte: {@link IntColumn}</li>
+ *     <li>double, Double, float, Float: {@link DoubleColumn}</li>
+ *     <li>boolean, Boolean: {@link BooleanColumn}</li>
+ *     <li>String, also if formatted by {@link MapperDateFormatter} or {@link MapperDecimalFormatter}: {@link StringColumn}</li>
+ *     <li>any other type, or a type with a converter registered by {@link ResultSetMapper#registerConverter}: {@link ObjectColumn}</li>
+ * </ul>
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  ColumnarBatch batch = ResultSetMapper.toColumns(resultSet, Address.class);
+ *  LongColumn numbers = batch.longColumn("STREET_NUMBER");
+ *  long sum = 0;
+ *  for (int row = 0; row &lt; batch.getRowCount(); row++) {
+ *      if (!numbers.isNull(row)) {
+ *          sum += numbers.get(row);
+ *      }
+ *  }
+ * </pre>
+ */
+public final class ColumnarBatch {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int rowCount;
+    private final Map<String, Column> columns;
+
+    private ColumnarBatch(int rowCount, Map<String, Column> columns) {
+        this.rowCount = rowCount;
+        this.columns = columns;
+    }
+
+    /**
+     * It reads the remaining rows of a result set into columns.
+     * @param mapper the mapper bound to the result set
+     * @param resultSet the result set
+     * @return the columnar batch
+     */
+    static ColumnarBatch read(BoundMapper<?> mapper, ResultSet resultSet) throws SQLException {
+        FieldMapping[] fields = mapper.getFields();
+        int[] columnIndexes = mapper.getColumnIndexes();
+        Column[] columns = new Column[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            columns[i] = Column.of(fields[i]);
+        }
+
+        int rowCount = 0;
+        for (; resultSet.next(); rowCount++) {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].append(resultSet, columnIndexes[i], rowCount);
+            }
+        }
+
+        Map<String, Column> columnsByName = new LinkedHashMap<>();
+        for (Column column : columns) {
+            column.complete(rowCount);
+            columnsByName.putIfAbsent(column.getName().toUpperCase(Locale.ROOT), column);
+        }
+
+        return new ColumnarBatch(rowCount, Collections.unmodifiableMap(columnsByName));
+    }
+
+    /**
+     * It yields the number of rows.
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * It yields the columns, in the order of the fields of the mapped class.
+     * @return the columns
+     */
+    public Collection<Column> getColumns() {
+        return columns.values();
+    }
+
+    /**
+     * It yields a column by name, ignoring the case.
+     * @param name the name of the column, as in {@link MapperLabel#name()}
+     * @return the column
+     * @throws ResultSetMapperException if there is no column with the given name
+     */
+    public Column column(String name) {
+        Column column = name != null ? columns.get(name.toUpperCase(Locale.ROOT)) : null;
+
+        if (column == null) {
+            throw new ResultSetMapperException("No column " + name + " was mapped");
+        }
+
+        return column;
+    }
+
+    /**
+     * It yields a column of long values by name, ignoring the case.
+     * @param name the name of the column, as in {@link MapperLabel#name()}
+     * @return the column
+     * @throws ResultSetMapperException if there is no such column or it has another type
+     */
+    public LongColumn longColumn(String name) {
+        return column(name, LongColumn.class);
+    }
+
+    /**
+     * It yields a column of int values by name, ignoring the case.
+     * @param name the name of the column, as in {@link MapperLabel#name()}
+     * @return the column
+     * @throws ResultSetMapperException if there is no such column or it has another type
+     */
+    public IntColumn intColumn(String name) {
+        return column(name, IntColumn.class);
+    }
+
+    /**
+     * It yields a column of double values by name, ignoring the case.
+     * @param name the name of the column, as in {@link MapperLabel#name()}
+     * @return the column
+     * @throws ResultSetMapperException if there is no such column or it has another type
+     */
+    public DoubleColumn doubleColumn(String name) {
+        return column(name, DoubleColumn.class);
+    }
+
+    /**
+     * It yields a column of boolean values by name, ignoring the case.
+     * @param name the name of the column, as in {@link MapperLabel#name()}
+     * @return the column
+     * @throws ResultSetMapperException if there is no such column or it has another type
+     */
+    public BooleanColumn booleanColumn(String name) {
+        return column(name, BooleanColumn.class);
+    }
+
+    /**
+     * It yields a column of string values by name, ignoring the case.
+     * @param name the name of the column, as in {@link MapperLabel#name()}
+     * @return the column
+     * @throws ResultSetMapperException if there is no such column or it has another type
+     */
+    public StringColumn stringColumn(String name) {
+        return column(name, StringColumn.class);
+    }
+
+    /**
+     * It yields a column of object values by name, ignoring the case.
+     * @param name the name of the column, as in {@link MapperLabel#name()}
+     * @return the column
+     * @throws ResultSetMapperException if there is no such column or it has another type
+     */
+    public ObjectColumn objectColumn(String name) {
+        return column(name, ObjectColumn.class);
+    }
+
+    private <C extends Column> C column(String name, Class<C> columnType) {
+        Column column = column(name);
+
+        if (!columnType.isInstance(column)) {
+            throw new ResultSetMapperException("Column " + name + " is a " + column.getClass().getSimpleName() + ", not a " + columnType.getSimpleName());
+        }
+
+        return columnType.cast(column);
+    }
+
+    private static int grow(int capacity, int row) {
+        return Math.max(capacity + (capacity >> 1), row + 1);
+    }
+
+    /**
+     * A column of a columnar batch, with the bitmap of its nulls.
+     */
+    public abstract static class Column {
+        private final String name;
+        private long[] nulls = new long[INITIAL_CAPACITY / Long.SIZE];
+        private int size;
+
+        private Column(String name) {
+            this.name = name;
+        }
+
+        private static Column of(FieldMapping field) {
+            String name = field.getLabel().name();
+            Class<?> fieldType = field.getType();
+
+            // a registered converter takes precedence
+            if (ColumnConverters.of(fieldType) != null) {
+                return new ObjectColumn(name, field);
+            } else if (fieldType == long.class || fieldType == Long.class) {
+                return new LongColumn(name);
+            } else if (fieldType == int.class || fieldType == Integer.class || fieldType == byte.class || fieldType == Byte.class) {
+                return new IntColumn(name);
+            } else if (fieldType == double.class || fieldType == Double.class || fieldType == float.class || fieldType == Float.class) {
+                return new DoubleColumn(name);
+            } else if (fieldType == boolean.class || fieldType == Boolean.class) {
+                return new BooleanColumn(name);
+            } else if (fieldType == String.class) {
+                return new StringColumn(name, field);
+            } else {
+                return new ObjectColumn(name, field);
+            }
+        }
+
+        /**
+         * It yields the name of the column, as in {@link MapperLabel#name()}.
+         * @return the name of the column
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * It yields the number of values of the column.
+         * @return the number of values of the column
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * It yields true if the value of a row is null. The values of missing optional columns are all null.
+         * @param row the row, starting from 0
+         * @return true if the value of the row is null
+         */
+        public boolean isNull(int row) {
+            checkRow(row);
+            return row >>> 6 < nulls.length && (nulls[row >>> 6] & (1L << row)) != 0;
+        }
+
+        /**
+         * It yields the value of a row, boxed.
+         * @param row the row, starting from 0
+         * @return the value of the row, or null
+         */
+        public abstract Object getObject(int row);
+
+        void checkRow(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("Row " + row + " out of " + size);
+            }
+        }
+
+        /**
+         * It reads the value of the current row of the result set.
+         * @param resultSet the result set
+         * @param columnIndex the index of the column, or 0 if the column is optional and it does not exist
+         * @param row the row, starting from 0
+         */
+        abstract void append(ResultSet resultSet, int columnIndex, int row) throws SQLException;
+
+        void setNull(int row) {
+            if (row >>> 6 >= nulls.length) {
+                nulls = Arrays.copyOf(nulls, Math.max(nulls.length * 2, (row >>> 6) + 1));
+            }
+
+            nulls[row >>> 6] |= 1L << row;
+        }
+
+        void complete(int size) {
+            this.size = size;
+        }
+    }
+
+    /**
+     * A column of long values.
+     */
+    public static final class LongColumn extends Column {
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        private LongColumn(String name) {
+            super(name);
+        }
+
+        /**
+         * It yields the value of a row.
+         * @param row the row, starting from 0
+         * @return the value of the row, 0 if it is null
+         */
+        public long get(int row) {
+            checkRow(row);
+            return values[row];
+        }
+
+        /**
+         * It yields a copy of the values of the column, where the nulls are 0.
+         * @return the values of the column
+         */
+        public long[] toArray() {
+            return Arrays.copyOf(values, size());
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return isNull(row) ? null : get(row);
+        }
+
+        @Override
+        void append(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+
+            if (columnIndex > 0) {
+                values[row] = resultSet.getLong(columnIndex);
+
+                if (!resultSet.wasNull()) {
+                    return;
+                }
+            }
+
+            setNull(row);
+        }
+    }
+
+    /**
+     * A column of int values.
+     */
+    public static final class IntColumn extends Column {
+        private int[] values = new int[INITIAL_CAPACITY];
+
+        private IntColumn(String name) {
+            super(name);
+        }
+
+        /**
+         * It yields the value of a row.
+         * @param row the row, starting from 0
+         * @return the value of the row, 0 if it is null
+         */
+        public int get(int row) {
+            checkRow(row);
+            return values[row];
+        }
+
+        /**
+         * It yields a copy of the values of the column, where the nulls are 0.
+         * @return the values of the column
+         */
+        public int[] toArray() {
+            return Arrays.copyOf(values, size());
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return isNull(row) ? null : get(row);
+        }
+
+        @Override
+        void append(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+
+            if (columnIndex > 0) {
+                values[row] = resultSet.getInt(columnIndex);
+
+                if (!resultSet.wasNull()) {
+                    return;
+                }
+            }
+
+            setNull(row);
+        }
+    }
+
+    /**
+     * A column of double values.
+     */
+    public static final class DoubleColumn extends Column {
+        private double[] values = new double[INITIAL_CAPACITY];
+
+        private DoubleColumn(String name) {
+            super(name);
+        }
+
+        /**
+         * It yields the value of a row.
+         * @param row the row, starting from 0
+         * @return the value of the row, 0 if it is null
+         */
+        public double get(int row) {
+            checkRow(row);
+            return values[row];
+        }
+
+        /**
+         * It yields a copy of the values of the column, where the nulls are 0.
+         * @return the values of the column
+         */
+        public double[] toArray() {
+            return Arrays.copyOf(values, size());
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return isNull(row) ? null : get(row);
+        }
+
+        @Override
+        void append(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+
+            if (columnIndex > 0) {
+                values[row] = resultSet.getDouble(columnIndex);
+
+                if (!resultSet.wasNull()) {
+                    return;
+                }
+            }
+
+            setNull(row);
+        }
+    }
+
+    /**
+     * A column of boolean values, stored in a bitset.
+     */
+    public static final class BooleanColumn extends Column {
+        private long[] values = new long[INITIAL_CAPACITY / Long.SIZE];
+
+        private BooleanColumn(String name) {
+            super(name);
+        }
+
+        /**
+         * It yields the value of a row.
+         * @param row the row, starting from 0
+         * @return the value of the row, false if it is null
+         */
+        public boolean get(int row) {
+            checkRow(row);
+            return (values[row >>> 6] & (1L << row)) != 0;
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return isNull(row) ? null : get(row);
+        }
+
+        @Override
+        void append(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (row >>> 6 == values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row >>> 6));
+            }
+
+            if (columnIndex > 0) {
+                if (resultSet.getBoolean(columnIndex)) {
+                    values[row >>> 6] |= 1L << row;
+                }
+
+                if (!resultSet.wasNull()) {
+                    return;
+                }
+            }
+
+            setNull(row);
+        }
+    }
+
+    /**
+     * A column of dictionary-encoded strings: each distinct string is stored once
+     * and each row holds the code of its string in the dictionary.
+     */
+    public static final class StringColumn extends Column {
+        private final FieldMapping field;
+        private int[] codes = new int[INITIAL_CAPACITY];
+        private Map<String, Integer> codesByString = new HashMap<>();
+        private List<String> dictionary = new ArrayList<>();
+
+        private StringColumn(String name, FieldMapping field) {
+            super(name);
+            this.field = field;
+        }
+
+        /**
+         * It yields the value of a row.
+         * @param row the row, starting from 0
+         * @return the value of the row, or null
+         */
+        public String get(int row) {
+            int code = code(row);
+            return code >= 0 ? dictionary.get(code) : null;
+        }
+
+        /**
+         * It yields the code of the value of a row in the dictionary.
+         * @param row the row, starting from 0
+         * @return the code of the value of the row, or -1 if it is null
+         */
+        public int code(int row) {
+            checkRow(row);
+            return codes[row];
+        }
+
+        /**
+         * It yields the distinct strings of the column, indexed by their code.
+         * @return the dictionary of the column
+         */
+        public List<String> getDictionary() {
+            return dictionary;
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return get(row);
+        }
+
+        @Override
+        void append(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (row == codes.length) {
+                codes = Arrays.copyOf(codes, grow(codes.length, row));
+            }
+
+            Object raw = field.readRaw(resultSet, columnIndex);
+            if (raw == FieldMapping.MISSING || raw == null) {
+                codes[row] = -1;
+                setNull(row);
+                return;
+            }
+
+            String value = (String) field.convert(raw);
+            Integer code = codesByString.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                codesByString.put(value, code);
+            }
+
+            codes[row] = code;
+        }
+
+        @Override
+        void complete(int size) {
+            super.complete(size);
+            dictionary = Collections.unmodifiableList(dictionary);
+            codesByString = null;
+        }
+    }
+
+    /**
+     * A column of values of any other type.
+     */
+    public static final class ObjectColumn extends Column {
+        private final FieldMapping field;
+        private Object[] values = new Object[INITIAL_CAPACITY];
+
+        private ObjectColumn(String name, FieldMapping field) {
+            super(name);
+            this.field = field;
+        }
+
+        /**
+         * It yields the value of a row.
+         * @param row the row, starting from 0
+         * @return the value of the row, or null
+         */
+        public Object get(int row) {
+            checkRow(row);
+            return values[row];
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return get(row);
+        }
+
+        @Override
+        void append(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+
+            Object raw = field.readRaw(resultSet, columnIndex);
+            if (raw == FieldMapping.MISSING || raw == null) {
+                setNull(row);
+                return;
+            }
+
+            values[row] = field.convert(raw);
+        }
+    }
+}
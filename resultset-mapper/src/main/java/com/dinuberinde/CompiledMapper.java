@@ -0,0 +1,415 @@
+package com.dinuberinde;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A mapper of a class compiled at runtime into a single method handle.
+ * The handle performs, in a straight line, the construction of the object, reading the arguments
+ * of its constructor from the columns if it is built by an annotated constructor, and then,
+ * for each field annotated with {@link MapperLabel}, one call to the getter of the result set
+ * and one store into the field: no type dispatch and no annotation lookup happen per row,
+ * and the JVM spins the handle into generated code that the JIT can inline as a whole.
+ * To let the JIT treat the handle as a constant, it is held by a static final field of a small class
+ * defined at runtime for each mapped class, unless the mapped class belongs to a class loader
+ * that this library might outlive, which such a class would retain.
+ * If the handle cannot be created, for instance in restricted environments, or if a field
+ * is deduplicated, see {@link MapperLabel#dedup()}, the mapper falls back to a {@link BoundMapper}.
+ * <br>
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  CompiledMapper&lt;User&gt; mapper = ResultSetMapper.compiled(User.class);
+ *
+ *  // map a result set to a list of users
+ *  List&lt;User&gt; users = mapper.toList(resultSet);
+ *
+ *  // or map a result set row by row
+ *  RowMapper&lt;User&gt; rowMapper = mapper.bind(resultSet);
+ *  while(resultSet.next()) {
+ *      users.add(rowMapper.map(resultSet));
+ *  }
+ * </pre>
+ */
+public final class CompiledMapper<T> {
+
+    /**
+     * The cached mappers, replaced instead of cleared when the mappers must be recompiled.
+     */
+    private static volatile ClassValue<CompiledMapper<?>> mappers = newMappers();
+
+    private static final AtomicInteger ROW_MAPPER_CLASSES = new AtomicInteger();
+
+    /**
+     * The handle read by the static initializer of the row mapper class being defined.
+     */
+    private static MethodHandle pendingHandle;
+
+    private final MappingPlan<T> plan;
+
+    /**
+     * The compiled mapping, of type (ResultSet, int[])Object, where the array holds
+     * the column index of each field; null if the compilation failed.
+     */
+    private final MethodHandle handle;
+
+    /**
+     * The constructor of the row mapper class holding the handle as a constant;
+     * null if the row mappers hold the handle in an instance field.
+     */
+    private final Constructor<? extends CompiledRowMapper<?>> rowMapperConstructor;
+
+    private CompiledMapper(MappingPlan<T> plan) {
+        this.plan = plan;
+        this.handle = compileOrNull(plan);
+        this.rowMapperConstructor = handle != null ? rowMapperConstructorOrNull(plan.getType(), handle) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> CompiledMapper<T> of(Class<T> type) {
+        return (CompiledMapper<T>) mappers.get(type);
+    }
+
+    private static ClassValue<CompiledMapper<?>> newMappers() {
+        return new ClassValue<>() {
+            @Override
+            protected CompiledMapper<?> computeValue(Class<?> type) {
+                return new CompiledMapper<>(MappingPlan.of(type));
+            }
+        };
+    }
+
+    /**
+     * It discards the cached mappers, so that they are recompiled on their next use.
+     */
+    static void clearCache() {
+        mappers = newMappers();
+    }
+
+    /**
+     * It yields the type of the mapped objects.
+     * @return the type of the mapped objects
+     */
+    public Class<T> getType() {
+        return plan.getType();
+    }
+
+    /**
+     * It yields true if the mapping was compiled, false if this mapper fell back to a {@link BoundMapper}.
+     * @return true if the mapping was compiled
+     */
+    public boolean isCompiled() {
+        return handle != null;
+    }
+
+    /**
+     * It binds this mapper to the columns of a result set.
+     * @param resultSet the result set
+     * @return the row mapper, valid for result sets having the same columns of the given one
+     * @throws ResultSetMapperException if a required column does not exist in the result set
+     */
+    @SuppressWarnings("unchecked")
+    public RowMapper<T> bind(ResultSet resultSet) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        try {
+            BoundMapper<T> mapper = BoundMapper.bind(plan, resultSet.getMetaData());
+
+            if (handle == null) {
+                return mapper;
+            }
+
+            return rowMapperConstructor != null
+                    ? (RowMapper<T>) rowMapperConstructor.newInstance((Object) mapper.getColumnIndexes())
+                    : new HandleRowMapper<>(handle, mapper.getColumnIndexes());
+        } catch (ResultSetMapperException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ResultSetMapperException(e);
+        }
+    }
+
+    /**
+     * It maps a result set to a list of objects by iterating over the result set.
+     * @param resultSet the result set
+     * @return a list of mapped objects
+     */
+    public List<T> toList(ResultSet resultSet) {
+        long start = MapperListeners.start();
+
+        try {
+            RowMapper<T> mapper = bind(resultSet);
+            List<T> dtoList = new ArrayList<>();
+
+            while (resultSet.next()) {
+                dtoList.add(mapper.map(resultSet));
+            }
+
+            MapperListeners.deduplicated(mapper);
+            MapperListeners.mapped(getType(), MapperOperation.TO_LIST, dtoList.size(), start);
+            return dtoList;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(getType(), MapperOperation.TO_LIST, e);
+        } catch (Exception e) {
+            throw MapperListeners.failed(getType(), MapperOperation.TO_LIST, new ResultSetMapperException(e));
+        }
+    }
+
+    private static MethodHandle compileOrNull(MappingPlan<?> plan) {
+
+        // the strings are deduplicated by the tables of a bound mapper, one for each mapping run
+        for (FieldMapping field : plan.getMappings()) {
+            if (field.isDeduplicated()) {
+                return null;
+            }
+        }
+
+        try {
+            return compile(plan);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * It defines a row mapper class holding the handle in a static final field, see {@link RowMapperClassWriter}.
+     * @return the constructor of the class, or null if the class cannot be defined or if it would retain
+     *         a class whose class loader might be discarded before the one of this library
+     */
+    private static synchronized Constructor<? extends CompiledRowMapper<?>> rowMapperConstructorOrNull(Class<?> type, MethodHandle handle) {
+
+        if (!outlivesLibrary(type.getClassLoader())) {
+            return null;
+        }
+
+        String name = CompiledMapper.class.getPackageName() + ".CompiledRowMapper$" + ROW_MAPPER_CLASSES.incrementAndGet();
+        pendingHandle = handle;
+        try {
+            Class<?> rowMapperClass = MethodHandles.lookup().defineClass(RowMapperClassWriter.write(name));
+            // the static initializer reads the pending handle
+            Class.forName(rowMapperClass.getName(), true, rowMapperClass.getClassLoader());
+
+            @SuppressWarnings("unchecked")
+            Constructor<? extends CompiledRowMapper<?>> constructor =
+                    (Constructor<? extends CompiledRowMapper<?>>) rowMapperClass.getDeclaredConstructor(int[].class);
+            return constructor;
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            // fall back to the handle held by an instance field
+            return null;
+        } finally {
+            pendingHandle = null;
+        }
+    }
+
+    /**
+     * It yields the handle for the static initializer of the row mapper class being defined.
+     * @return the handle
+     */
+    static MethodHandle pendingHandle() {
+        return pendingHandle;
+    }
+
+    private static boolean outlivesLibrary(ClassLoader classLoader) {
+
+        if (classLoader == null) {
+            return true;
+        }
+
+        for (ClassLoader loader = CompiledMapper.class.getClassLoader(); loader != null; loader = loader.getParent()) {
+            if (loader == classLoader) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static MethodHandle compile(MappingPlan<?> plan) throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(plan.getType(), MethodHandles.lookup());
+        MethodType stepType = MethodType.methodType(void.class, Object.class, ResultSet.class, int[].class);
+
+        // (Object dto, ResultSet resultSet, int[] columnIndexes)void
+        MethodHandle body = MethodHandles.empty(stepType);
+        FieldMapping[] parameters = plan.getParameters();
+        FieldMapping[] fields = plan.getFields();
+        for (int i = 0; i < fields.length; i++) {
+            // the column indexes of the constructor parameters come first
+            body = MethodHandles.foldArguments(step(lookup, fields[i], parameters.length + i), body);
+        }
+
+        // (Object dto, ResultSet resultSet, int[] columnIndexes)Object
+        MethodHandle returnDto = MethodHandles.dropArguments(MethodHandles.identity(Object.class), 1, ResultSet.class, int[].class);
+        MethodHandle mapping = MethodHandles.foldArguments(returnDto, body);
+
+        // (ResultSet resultSet, int[] columnIndexes)Object
+        return MethodHandles.foldArguments(mapping, constructor(lookup, plan.getConstructor(), parameters));
+    }
+
+    /**
+     * It compiles the construction of an object into a handle of type (ResultSet, int[])Object,
+     * that reads the arguments of the constructor, if any, from the columns of the result set.
+     */
+    private static MethodHandle constructor(MethodHandles.Lookup lookup, Constructor<?> constructor, FieldMapping[] parameters) throws ReflectiveOperationException {
+        MethodHandle[] arguments = new MethodHandle[parameters.length];
+        Class<?>[] valueTypes = new Class<?>[parameters.length];
+        int[] reorder = new int[parameters.length * 2];
+
+        for (int i = 0; i < parameters.length; i++) {
+            arguments[i] = argument(parameters[i], i);
+            valueTypes[i] = arguments[i].type().returnType();
+            reorder[i * 2] = 0;
+            reorder[i * 2 + 1] = 1;
+        }
+
+        // (valueTypes...)Object
+        MethodHandle newInstance = lookup.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class, valueTypes));
+
+        if (parameters.length == 0) {
+            return MethodHandles.dropArguments(newInstance, 0, ResultSet.class, int[].class);
+        }
+
+        // (ResultSet, int[], ResultSet, int[], ...)Object, then (ResultSet, int[])Object
+        MethodHandle collected = newInstance;
+        for (int i = parameters.length - 1; i >= 0; i--) {
+            collected = MethodHandles.collectArguments(collected, i, arguments[i]);
+        }
+
+        return MethodHandles.permuteArguments(collected, MethodType.methodType(Object.class, ResultSet.class, int[].class), reorder);
+    }
+
+    /**
+     * It compiles the read of a constructor argument into a handle of type (ResultSet, int[])valueType.
+     */
+    private static MethodHandle argument(FieldMapping parameter, int position) throws ReflectiveOperationException {
+        Class<?> type = parameter.getType();
+        Class<?> valueType = type.isPrimitive() ? type : Object.class;
+        MethodHandle columnIndex = MethodHandles.insertArguments(MethodHandles.arrayElementGetter(int[].class), 1, position);
+        MethodHandle column = MethodHandles.filterArguments(getter(parameter, valueType), 1, columnIndex);
+
+        if (!parameter.getLabel().optional()) {
+            return column;
+        }
+
+        // a missing optional column passes the default value of the type
+        MethodHandle present = MethodHandles.filterArguments(
+                MethodHandles.lookup().findStatic(CompiledMapper.class, "isPresent", MethodType.methodType(boolean.class, int.class)), 0, columnIndex);
+        MethodHandle missing = MethodHandles.dropArguments(
+                MethodHandles.constant(valueType, parameter.defaultValue()), 0, ResultSet.class, int[].class);
+
+        return MethodHandles.guardWithTest(MethodHandles.dropArguments(present, 0, ResultSet.class), column, missing);
+    }
+
+    /**
+     * It compiles the mapping of a field into a handle of type (Object, ResultSet, int[])void.
+     */
+    private static MethodHandle step(MethodHandles.Lookup lookup, FieldMapping fieldMapping, int position) throws ReflectiveOperationException {
+        Field field = fieldMapping.getField();
+        Class<?> fieldType = field.getType();
+        Class<?> valueType = fieldType.isPrimitive() ? fieldType : Object.class;
+        MethodHandle setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, valueType));
+
+        // (ResultSet resultSet, int columnIndex)valueType
+        MethodHandle getter = getter(fieldMapping, valueType);
+        MethodHandle columnIndex = MethodHandles.insertArguments(MethodHandles.arrayElementGetter(int[].class), 1, position);
+        MethodHandle column = MethodHandles.filterArguments(getter, 1, columnIndex);
+        MethodHandle step = MethodHandles.collectArguments(setter, 1, column);
+
+        if (!fieldMapping.getLabel().optional()) {
+            return step;
+        }
+
+        // a missing optional column leaves the primitive fields untouched and sets the other ones to null
+        MethodHandle present = MethodHandles.filterArguments(
+                MethodHandles.lookup().findStatic(CompiledMapper.class, "isPresent", MethodType.methodType(boolean.class, int.class)), 0, columnIndex);
+        MethodHandle missing = fieldType.isPrimitive()
+                ? MethodHandles.empty(step.type())
+                : MethodHandles.dropArguments(MethodHandles.insertArguments(setter, 1, (Object) null), 1, ResultSet.class, int[].class);
+
+        return MethodHandles.guardWithTest(MethodHandles.dropArguments(present, 0, Object.class, ResultSet.class), step, missing);
+    }
+
+    private static MethodHandle getter(FieldMapping fieldMapping, Class<?> valueType) throws ReflectiveOperationException {
+        MethodHandles.Lookup publicLookup = MethodHandles.publicLookup();
+
+        if (valueType == long.class) {
+            return publicLookup.findVirtual(ResultSet.class, "getLong", MethodType.methodType(long.class, int.class));
+        } else if (valueType == int.class) {
+            return publicLookup.findVirtual(ResultSet.class, "getInt", MethodType.methodType(int.class, int.class));
+        } else if (valueType == double.class) {
+            return publicLookup.findVirtual(ResultSet.class, "getDouble", MethodType.methodType(double.class, int.class));
+        } else if (valueType == float.class) {
+            return publicLookup.findVirtual(ResultSet.class, "getFloat", MethodType.methodType(float.class, int.class));
+        } else if (valueType == boolean.class) {
+            return publicLookup.findVirtual(ResultSet.class, "getBoolean", MethodType.methodType(boolean.class, int.class));
+        } else if (valueType == byte.class) {
+            return publicLookup.findVirtual(ResultSet.class, "getByte", MethodType.methodType(byte.class, int.class));
+        } else {
+            // the other primitive types, like short, are unboxed from the value of the reader
+            return MethodHandles.lookup()
+                    .findVirtual(FieldMapping.ColumnReader.class, "read", MethodType.methodType(Object.class, ResultSet.class, int.class))
+                    .bindTo(fieldMapping.getReader())
+                    .asType(MethodType.methodType(valueType, ResultSet.class, int.class));
+        }
+    }
+
+    private static boolean isPresent(int columnIndex) {
+        return columnIndex > 0;
+    }
+
+    /**
+     * A compiled mapper bound to the columns of a result set. Its subclasses invoke the compiled handle.
+     * It is not private, so that the classes defined at runtime can extend it.
+     */
+    abstract static class CompiledRowMapper<T> implements RowMapper<T> {
+        private final int[] columnIndexes;
+
+        CompiledRowMapper(int[] columnIndexes) {
+            this.columnIndexes = columnIndexes;
+        }
+
+        /**
+         * It invokes the compiled handle.
+         */
+        abstract Object invoke(ResultSet resultSet, int[] columnIndexes) throws Throwable;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T map(ResultSet resultSet) {
+            try {
+                return (T) invoke(resultSet, columnIndexes);
+            } catch (ResultSetMapperException e) {
+                throw e;
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new ResultSetMapperException(t instanceof Exception ? (Exception) t : new Exception(t));
+            }
+        }
+    }
+
+    /**
+     * A compiled row mapper holding the handle in an instance field, which the JIT does not treat as a constant.
+     */
+    private static final class HandleRowMapper<T> extends CompiledRowMapper<T> {
+        private final MethodHandle handle;
+
+        private HandleRowMapper(MethodHandle handle, int[] columnIndexes) {
+            super(columnIndexes);
+            this.handle = handle;
+        }
+
+        @Override
+        Object invoke(ResultSet resultSet, int[] columnIndexes) throws Throwable {
+            return (Object) handle.invokeExact(resultSet, columnIndexes);
+        }
+    }
+}
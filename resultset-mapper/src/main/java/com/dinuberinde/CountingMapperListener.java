@@ -0,0 +1,143 @@
+package com.dinuberinde;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MapperListener} that sums up the mapping activity, without any metrics dependency.
+ * It is thread-safe and the counters can be read at any time, for instance by a metrics exporter.
+ */
+public final class CountingMapperListener implements MapperListener {
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder mappingNanos = new LongAdder();
+    private final LongAdder sampledFields = new LongAdder();
+    private final LongAdder sampledFieldNanos = new LongAdder();
+    private final LongAdder optionalColumnMisses = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder deduplicatedStrings = new LongAdder();
+    private final LongAdder deduplicatedChars = new LongAdder();
+
+    @Override
+    public void onMapped(Class<?> type, MapperOperation operation, long rows, long nanos) {
+        this.operations.increment();
+        this.rows.add(rows);
+        this.mappingNanos.add(nanos);
+    }
+
+    @Override
+    public void onFieldMapped(Class<?> type, String column, long nanos) {
+        this.sampledFields.increment();
+        this.sampledFieldNanos.add(nanos);
+    }
+
+    @Override
+    public void onOptionalColumnMissing(Class<?> type, String column) {
+        this.optionalColumnMisses.increment();
+    }
+
+    @Override
+    public void onStringsDeduplicated(Class<?> type, String column, long strings, long deduplicated, long deduplicatedChars) {
+        this.deduplicatedStrings.add(deduplicated);
+        this.deduplicatedChars.add(deduplicatedChars);
+    }
+
+    @Override
+    public void onFailure(Class<?> type, MapperOperation operation, ResultSetMapperException exception) {
+        this.failures.increment();
+    }
+
+    /**
+     * It yields the number of completed mapping operations.
+     * @return the number of operations
+     */
+    public long getOperations() {
+        return operations.sum();
+    }
+
+    /**
+     * It yields the number of mapped rows.
+     * @return the number of rows
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * It yields the time spent by the completed mapping operations.
+     * @return the time in nanoseconds
+     */
+    public long getMappingNanos() {
+        return mappingNanos.sum();
+    }
+
+    /**
+     * It yields the number of fields timed in the sampled rows.
+     * @return the number of sampled fields
+     */
+    public long getSampledFields() {
+        return sampledFields.sum();
+    }
+
+    /**
+     * It yields the time spent mapping the fields of the sampled rows.
+     * @return the time in nanoseconds
+     */
+    public long getSampledFieldNanos() {
+        return sampledFieldNanos.sum();
+    }
+
+    /**
+     * It yields the number of optional columns found missing when binding the mappings.
+     * @return the number of missing optional columns
+     */
+    public long getOptionalColumnMisses() {
+        return optionalColumnMisses.sum();
+    }
+
+    /**
+     * It yields the number of failed mapping operations.
+     * @return the number of failures
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * It yields the number of strings replaced by an equal string of a deduplicated column.
+     * @return the number of deduplicated strings
+     */
+    public long getDeduplicatedStrings() {
+        return deduplicatedStrings.sum();
+    }
+
+    /**
+     * It yields the total length of the deduplicated strings.
+     * @return the number of characters no longer kept on the heap
+     */
+    public long getDeduplicatedChars() {
+        return deduplicatedChars.sum();
+    }
+
+    /**
+     * It resets all the counters to zero.
+     */
+    public void reset() {
+        operations.reset();
+        rows.reset();
+        mappingNanos.reset();
+        sampledFields.reset();
+        sampledFieldNanos.reset();
+        optionalColumnMisses.reset();
+        failures.reset();
+        deduplicatedStrings.reset();
+        deduplicatedChars.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "CountingMapperListener{operations=" + getOperations() + ", rows=" + getRows() + ", mappingNanos=" + getMappingNanos()
+                + ", sampledFields=" + getSampledFields() + ", sampledFieldNanos=" + getSampledFieldNanos()
+                + ", optionalColumnMisses=" + getOptionalColumnMisses() + ", failures=" + getFailures()
+                + ", deduplicatedStrings=" + getDeduplicatedStrings() + ", deduplicatedChars=" + getDeduplicatedChars() + "}";
+    }
+}
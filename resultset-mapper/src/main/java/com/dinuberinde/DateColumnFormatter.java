@@ -0,0 +1,114 @@
+package com.dinuberinde;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The formatter of a field annotated with {@link MapperDateFormatter}, resolved once per field.
+ * Patterns made only of <strong>dd</strong>, <strong>MM</strong> and <strong>yyyy</strong> (or <strong>uuuu</strong>)
+ * separated by punctuation, like <strong>dd/MM/yyyy</strong> and <strong>yyyy-MM-dd</strong>, are formatted by writing
+ * the digits directly into a char buffer of the thread; any other pattern is formatted by a cached
+ * {@link DateTimeFormatter}, which is thread-safe.
+ */
+final class DateColumnFormatter {
+    private static final char DAY = 'd';
+    private static final char MONTH = 'M';
+    private static final char YEAR = 'y';
+    private static final String SEPARATORS = " /-.,:_";
+
+    private final DateTimeFormatter formatter;
+
+    /**
+     * The fast path template: one char per output char, where {@link #DAY}, {@link #MONTH} and {@link #YEAR}
+     * mark the first digit of each field and the other chars are literals; null if the pattern is not supported.
+     */
+    private final char[] template;
+
+    /**
+     * The buffer of the fast path of each thread, as long as the template; null if the pattern is not supported.
+     */
+    private final ThreadLocal<char[]> buffers;
+
+    DateColumnFormatter(String pattern) {
+        this.formatter = DateTimeFormatter.ofPattern(pattern);
+        this.template = template(pattern);
+        this.buffers = template != null ? ThreadLocal.withInitial(() -> new char[template.length]) : null;
+    }
+
+    private static char[] template(String pattern) {
+        StringBuilder template = new StringBuilder();
+
+        for (int i = 0; i < pattern.length();) {
+            if (pattern.startsWith("dd", i) && !pattern.startsWith("ddd", i)) {
+                template.append(DAY).append(' ');
+                i += 2;
+            } else if (pattern.startsWith("MM", i) && !pattern.startsWith("MMM", i)) {
+                template.append(MONTH).append(' ');
+                i += 2;
+            } else if ((pattern.startsWith("yyyy", i) && !pattern.startsWith("yyyyy", i)) || (pattern.startsWith("uuuu", i) && !pattern.startsWith("uuuuu", i))) {
+                template.append(YEAR).append("   ");
+                i += 4;
+            } else if (SEPARATORS.indexOf(pattern.charAt(i)) >= 0) {
+                template.append(pattern.charAt(i));
+                i++;
+            } else {
+                return null;
+            }
+        }
+
+        return template.toString().toCharArray();
+    }
+
+    /**
+     * It formats a date.
+     * @param date the date
+     * @return the formatted date
+     */
+    String format(LocalDate date) {
+        int year = date.getYear();
+
+        // years outside 1..9999 are signed or of another era: leave them to the formatter
+        if (template == null || year < 1 || year > 9999) {
+            return formatter.format(date);
+        }
+
+        char[] chars = buffers.get();
+        for (int i = 0; i < chars.length; i++) {
+            char c = template[i];
+
+            if (c == DAY) {
+                i = writeDigits(chars, i, date.getDayOfMonth(), 2);
+            } else if (c == MONTH) {
+                i = writeDigits(chars, i, date.getMonthValue(), 2);
+            } else if (c == YEAR) {
+                i = writeDigits(chars, i, year, 4);
+            } else {
+                chars[i] = c;
+            }
+        }
+
+        return new String(chars);
+    }
+
+    /**
+     * It parses a date formatted by {@link #format(LocalDate)}.
+     * @param text the formatted date
+     * @return the date
+     * @throws java.time.format.DateTimeParseException if the text does not match the pattern
+     */
+    LocalDate parse(String text) {
+        return LocalDate.parse(text, formatter);
+    }
+
+    /**
+     * It writes a zero-padded number and yields the index of its last char.
+     */
+    private static int writeDigits(char[] chars, int start, int value, int width) {
+        for (int i = start + width - 1; i >= start; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+
+        return start + width - 1;
+    }
+}
@@ -0,0 +1,159 @@
+package com.dinuberinde;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParsePosition;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The formatter of a field annotated with {@link MapperDecimalFormatter}, resolved once per field.
+ * Since {@link DecimalFormat} is not thread-safe, each thread formats with its own copy of the format.
+ * Fixed-point patterns without grouping, like <strong>0.00</strong> or <strong>#.00#</strong>, are formatted
+ * without any {@link DecimalFormat}, with the same output: the rounded value is taken as an unscaled long,
+ * whose digits are written into a buffer of the thread, so that the formatted string is the only
+ * allocation besides the rounding and the unscaled value. The values that do not fit in a long
+ * are formatted by the {@link DecimalFormat}.
+ */
+final class DecimalColumnFormatter {
+
+    /**
+     * The supported fast path patterns: optional digits followed by at least one required digit,
+     * in the integer or in the fraction part.
+     */
+    private static final Pattern FIXED_POINT = Pattern.compile("(#*)(0*)(?:\\.(0*)(#*))?");
+
+    /**
+     * The digits of the largest unscaled values formatted by the fast path, which fit in a long.
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_LONG_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final ThreadLocal<DecimalFormat> formats;
+
+    /**
+     * The buffer of the fast path of each thread, large enough for any value that fits in a long.
+     */
+    private final ThreadLocal<char[]> buffers;
+    private final boolean fastPath;
+    private final int minimumIntegerDigits;
+    private final int minimumFractionDigits;
+    private final int maximumFractionDigits;
+    private final char decimalSeparator;
+    private final char minusSign;
+
+    DecimalColumnFormatter(String pattern, String locale) {
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols(new Locale(locale.toLowerCase(), locale.toUpperCase()));
+        DecimalFormat prototype = new DecimalFormat(pattern, symbols);
+        this.formats = ThreadLocal.withInitial(() -> (DecimalFormat) prototype.clone());
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.minusSign = symbols.getMinusSign();
+
+        Matcher matcher = FIXED_POINT.matcher(pattern);
+        if (matcher.matches() && symbols.getZeroDigit() == '0' && prototype.getRoundingMode() == RoundingMode.HALF_EVEN) {
+            this.minimumIntegerDigits = matcher.group(2).length();
+            this.minimumFractionDigits = matcher.group(3) != null ? matcher.group(3).length() : 0;
+            this.maximumFractionDigits = minimumFractionDigits + (matcher.group(4) != null ? matcher.group(4).length() : 0);
+            // patterns without any 0 have special rules in DecimalFormat
+            this.fastPath = minimumIntegerDigits + minimumFractionDigits > 0 && maximumFractionDigits <= MAX_LONG_DIGITS;
+        } else {
+            this.minimumIntegerDigits = 0;
+            this.minimumFractionDigits = 0;
+            this.maximumFractionDigits = 0;
+            this.fastPath = false;
+        }
+
+        int bufferLength = 2 + Math.max(MAX_LONG_DIGITS, minimumIntegerDigits) + maximumFractionDigits;
+        this.buffers = ThreadLocal.withInitial(() -> new char[bufferLength]);
+    }
+
+    /**
+     * It formats a number.
+     * @param value the number
+     * @return the formatted number
+     */
+    String format(BigDecimal value) {
+
+        if (!fastPath || value == null) {
+            return formats.get().format(value);
+        }
+
+        BigDecimal rounded = value.setScale(maximumFractionDigits, RoundingMode.HALF_EVEN);
+
+        // the unscaled value must fit in a long
+        if (rounded.precision() > MAX_LONG_DIGITS) {
+            return formats.get().format(value);
+        }
+
+        long unscaled = Math.abs(rounded.unscaledValue().longValue());
+        long integerPart = unscaled / POWERS_OF_TEN[maximumFractionDigits];
+        long fractionPart = unscaled % POWERS_OF_TEN[maximumFractionDigits];
+
+        // the optional fraction digits are printed only if they are not trailing zeros
+        int fractionDigits = maximumFractionDigits;
+        while (fractionDigits > minimumFractionDigits && fractionPart % 10 == 0) {
+            fractionPart /= 10;
+            fractionDigits--;
+        }
+
+        // the digits are written backwards, from the end of the buffer
+        char[] buffer = buffers.get();
+        int position = buffer.length;
+
+        for (int i = 0; i < fractionDigits; i++) {
+            buffer[--position] = (char) ('0' + fractionPart % 10);
+            fractionPart /= 10;
+        }
+
+        if (fractionDigits > 0) {
+            buffer[--position] = decimalSeparator;
+        }
+
+        // like DecimalFormat, a zero integer part is printed only if the pattern requires it
+        int integerDigits = 0;
+        for (; integerPart > 0; integerDigits++) {
+            buffer[--position] = (char) ('0' + integerPart % 10);
+            integerPart /= 10;
+        }
+
+        for (; integerDigits < minimumIntegerDigits; integerDigits++) {
+            buffer[--position] = '0';
+        }
+
+        if (value.signum() < 0) {
+            buffer[--position] = minusSign;
+        }
+
+        return new String(buffer, position, buffer.length - position);
+    }
+
+    /**
+     * It parses a number formatted by {@link #format(BigDecimal)}.
+     * @param text the formatted number
+     * @return the number
+     * @throws ResultSetMapperException if the text does not match the pattern
+     */
+    BigDecimal parse(String text) {
+        DecimalFormat format = formats.get();
+        ParsePosition position = new ParsePosition(0);
+        format.setParseBigDecimal(true);
+        Number number = format.parse(text, position);
+
+        if (number == null || position.getIndex() < text.length()) {
+            throw new ResultSetMapperException("Unparseable number: " + text);
+        }
+
+        return (BigDecimal) number;
+    }
+}
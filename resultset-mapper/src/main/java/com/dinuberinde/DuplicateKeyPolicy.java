@@ -0,0 +1,29 @@
+package com.dinuberinde;
+
+/**
+ * The handling of the rows having the same key in the maps built by
+ * {@link ResultSetMapper#toMap(java.sql.ResultSet, Class, String, Class, DuplicateKeyPolicy)}.
+ * <br>
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  Map&lt;Long, User&gt; users = ResultSetMapper.toMap(resultSet, User.class, "ID", Long.class, DuplicateKeyPolicy.KEEP_LAST);
+ * </pre>
+ */
+public enum DuplicateKeyPolicy {
+
+    /**
+     * A duplicate key fails the mapping with a {@link ResultSetMapperException}.
+     * This is the default policy.
+     */
+    FAIL,
+
+    /**
+     * The first row of a key is kept, and the following rows of the key are skipped without being mapped.
+     */
+    KEEP_FIRST,
+
+    /**
+     * The last row of a key is kept.
+     */
+    KEEP_LAST
+}
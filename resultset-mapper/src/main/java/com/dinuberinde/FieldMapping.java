@@ -0,0 +1,380 @@
+package com.dinuberinde;
+
+import java.io.InputStream;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Parameter;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.function.UnaryOperator;
+
+/**
+ * The precomputed mapping of a single field, or constructor parameter, annotated with {@link MapperLabel}.
+ * It holds the resolved annotations and the strategy used to read the column value,
+ * so that no reflection is needed while mapping the rows.
+ */
+final class FieldMapping {
+
+    /**
+     * Strategy used to read the value of a column from the current row of a result set.
+     */
+    @FunctionalInterface
+    interface ColumnReader {
+        Object read(ResultSet resultSet, int columnIndex) throws SQLException;
+    }
+
+    /**
+     * Strategy used to read a column from the current row of a result set and write it into the field of an object.
+     */
+    @FunctionalInterface
+    interface ColumnApplier {
+        void apply(ResultSet resultSet, int columnIndex, Object dto) throws SQLException, IllegalAccessException;
+    }
+
+    /**
+     * The raw value of a missing optional column.
+     */
+    static final Object MISSING = new Object();
+
+    /**
+     * The mapped field, null for a constructor parameter.
+     */
+    private final Field field;
+    private final Class<?> type;
+
+    /**
+     * The default value of the type: null, or zero or false if primitive.
+     */
+    private final Object defaultValue;
+    private final MapperLabel label;
+
+    /**
+     * True if the field or constructor parameter is annotated with {@link MapperId}.
+     */
+    private final boolean id;
+
+    /**
+     * True if the values are deduplicated, see {@link MapperLabel#dedup()}.
+     */
+    private final boolean deduplicated;
+    private final MapperDateFormatter dateFormatter;
+    private final MapperDecimalFormatter decimalFormatter;
+    private final MapperLob lob;
+    private final ColumnReader rawReader;
+    private final UnaryOperator<Object> converter;
+    private final ColumnReader reader;
+
+    /**
+     * The writer and the applier of the field, null for a constructor parameter.
+     */
+    private final FieldWriter writer;
+    private final ColumnApplier applier;
+
+    /**
+     * It creates the mapping of a field.
+     * @param field the field
+     * @param label the label of the field
+     * @param strategy the strategy used to write the field
+     */
+    FieldMapping(Field field, MapperLabel label, AccessorStrategy strategy) {
+        this(field, field.getType(), label, field, strategy);
+    }
+
+    /**
+     * It creates the mapping of a constructor parameter, whose value is passed to the constructor.
+     * @param parameter the constructor parameter
+     * @param label the label of the parameter
+     */
+    FieldMapping(Parameter parameter, MapperLabel label) {
+        this(parameter, parameter.getType(), label, null, null);
+    }
+
+    private FieldMapping(AnnotatedElement element, Class<?> type, MapperLabel label, Field field, AccessorStrategy strategy) {
+        this.field = field;
+        this.type = type;
+        this.defaultValue = type.isPrimitive() ? java.lang.reflect.Array.get(java.lang.reflect.Array.newInstance(type, 1), 0) : null;
+        this.label = label;
+        this.id = element.isAnnotationPresent(MapperId.class);
+        this.deduplicated = label.dedup();
+
+        if (deduplicated && type != String.class) {
+            throw new ResultSetMapperException("Only String fields can be deduplicated, but " + label.name() + " is " + type.getName());
+        }
+
+        this.dateFormatter = element.getAnnotation(MapperDateFormatter.class);
+        this.decimalFormatter = element.getAnnotation(MapperDecimalFormatter.class);
+        this.lob = element.getAnnotation(MapperLob.class);
+        this.rawReader = rawReaderFor(type);
+        this.converter = converterFor(type);
+        this.reader = converter == null ? rawReader : (resultSet, columnIndex) -> converter.apply(rawReader.read(resultSet, columnIndex));
+
+        if (field != null) {
+            field.setAccessible(true);
+            this.writer = FieldWriter.of(field, strategy);
+            this.applier = applierFor(type);
+        } else {
+            this.writer = null;
+            this.applier = null;
+        }
+    }
+
+    /**
+     * It yields the mapped field.
+     * @return the mapped field, or null for a constructor parameter
+     */
+    Field getField() {
+        return field;
+    }
+
+    /**
+     * It yields the type of the mapped field or constructor parameter.
+     * @return the type
+     */
+    Class<?> getType() {
+        return type;
+    }
+
+    MapperLabel getLabel() {
+        return label;
+    }
+
+    boolean isId() {
+        return id;
+    }
+
+    boolean isDeduplicated() {
+        return deduplicated;
+    }
+
+    MapperDateFormatter getDateFormatter() {
+        return dateFormatter;
+    }
+
+    MapperDecimalFormatter getDecimalFormatter() {
+        return decimalFormatter;
+    }
+
+    ColumnReader getReader() {
+        return reader;
+    }
+
+    /**
+     * It reads the column of the current row and writes it to the field of the object.
+     * @param resultSet the result set
+     * @param columnIndex the index of the column, or 0 if the column is optional and it does not exist
+     * @param dto the object
+     */
+    void apply(ResultSet resultSet, int columnIndex, Object dto) throws SQLException, IllegalAccessException {
+
+        if (columnIndex > 0) {
+            applier.apply(resultSet, columnIndex, dto);
+        } else if (!type.isPrimitive()) {
+            writer.set(dto, null);
+        }
+    }
+
+    /**
+     * It reads the value of the column of the current row, converted for the field or constructor parameter.
+     * @param resultSet the result set
+     * @param columnIndex the index of the column, or 0 if the column is optional and it does not exist
+     * @return the value, or the default value of the type if the column does not exist
+     */
+    Object read(ResultSet resultSet, int columnIndex) throws SQLException {
+        return columnIndex > 0 ? reader.read(resultSet, columnIndex) : defaultValue();
+    }
+
+    /**
+     * It writes a value, already read and converted, to the field of an object.
+     * @param dto the object
+     * @param value the value
+     */
+    void write(Object dto, Object value) throws IllegalAccessException {
+        writer.set(dto, value);
+    }
+
+    Object defaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * It reads the raw value of the column of the current row, without converting or formatting it.
+     * @param resultSet the result set
+     * @param columnIndex the index of the column, or 0 if the column is optional and it does not exist
+     * @return the raw value, boxed if primitive, or {@link #MISSING} if the column does not exist
+     */
+    Object readRaw(ResultSet resultSet, int columnIndex) throws SQLException {
+        return columnIndex > 0 ? rawReader.read(resultSet, columnIndex) : MISSING;
+    }
+
+    /**
+     * It converts a raw value read by {@link #readRaw(ResultSet, int)} into the value of the field.
+     * @param raw the raw value, not {@link #MISSING}
+     * @return the value of the field
+     */
+    Object convert(Object raw) {
+        return converter == null ? raw : converter.apply(raw);
+    }
+
+    /**
+     * It converts a raw value read by {@link #readRaw(ResultSet, int)} and writes it to the field of the object.
+     * This does not need the result set, so that it can happen on another thread.
+     * @param dto the object
+     * @param raw the raw value
+     */
+    void applyRaw(Object dto, Object raw) throws IllegalAccessException {
+
+        if (raw != MISSING) {
+            writer.set(dto, convert(raw));
+        } else if (!type.isPrimitive()) {
+            writer.set(dto, null);
+        }
+    }
+
+    /**
+     * It yields the applier of a field: primitive fields are read and written
+     * without boxing, the other fields are read by their reader and written as objects.
+     */
+    private ColumnApplier applierFor(Class<?> fieldType) {
+        FieldWriter writer = this.writer;
+
+        if (fieldType == long.class) {
+            return (resultSet, columnIndex, dto) -> writer.setLong(dto, resultSet.getLong(columnIndex));
+        } else if (fieldType == int.class) {
+            return (resultSet, columnIndex, dto) -> writer.setInt(dto, resultSet.getInt(columnIndex));
+        } else if (fieldType == double.class) {
+            return (resultSet, columnIndex, dto) -> writer.setDouble(dto, resultSet.getDouble(columnIndex));
+        } else if (fieldType == float.class) {
+            return (resultSet, columnIndex, dto) -> writer.setFloat(dto, resultSet.getFloat(columnIndex));
+        } else if (fieldType == boolean.class) {
+            return (resultSet, columnIndex, dto) -> writer.setBoolean(dto, resultSet.getBoolean(columnIndex));
+        } else if (fieldType == byte.class) {
+            return (resultSet, columnIndex, dto) -> writer.setByte(dto, resultSet.getByte(columnIndex));
+        } else {
+            ColumnReader reader = this.reader;
+            return (resultSet, columnIndex, dto) -> writer.set(dto, reader.read(resultSet, columnIndex));
+        }
+    }
+
+    /**
+     * It yields the conversion applied to the raw value of a column, or null if the raw value is written as is.
+     */
+    private UnaryOperator<Object> converterFor(Class<?> fieldType) {
+
+        if (fieldType == String.class) {
+
+            if (dateFormatter != null) {
+                DateColumnFormatter formatter = new DateColumnFormatter(dateFormatter.pattern());
+                return raw -> raw != null ? formatter.format((LocalDate) raw) : null;
+            }
+
+            if (decimalFormatter != null) {
+                DecimalColumnFormatter formatter = new DecimalColumnFormatter(decimalFormatter.pattern(), decimalFormatter.locale());
+                return raw -> raw != null ? formatter.format((BigDecimal) raw) : null;
+            }
+        }
+
+        return null;
+    }
+
+    private ColumnReader rawReaderFor(Class<?> fieldType) {
+
+        if (fieldType == String.class && (dateFormatter != null || decimalFormatter != null)) {
+            return dateFormatter != null ? new LocalDateReader() : ResultSet::getBigDecimal;
+        }
+
+        if (fieldType == LobHandle.class) {
+            return lobReader();
+        }
+
+        // the registered converters take precedence over the built-in readers
+        ColumnConverter<?> converter = ColumnConverters.of(fieldType);
+        if (converter != null) {
+            return converter::read;
+        }
+
+        ColumnReader numericReader = numericReaderFor(fieldType);
+
+        if (numericReader != null) {
+            return numericReader;
+        } else if (fieldType == String.class) {
+            return ResultSet::getString;
+        } else if (fieldType == Boolean.class || fieldType == boolean.class) {
+            return ResultSet::getBoolean;
+        } else if (fieldType == java.util.Date.class || fieldType == java.sql.Date.class) {
+            return ResultSet::getDate;
+        } else if (fieldType == Byte.class || fieldType == byte.class) {
+            return ResultSet::getByte;
+        } else if (fieldType == byte[].class) {
+            return ResultSet::getBytes;
+        } else if (fieldType == Blob.class) {
+            return ResultSet::getBlob;
+        } else if (fieldType == InputStream.class) {
+            return ResultSet::getBinaryStream;
+        } else if (fieldType == Timestamp.class) {
+            return ResultSet::getTimestamp;
+        } else if (fieldType == Object.class) {
+            return ResultSet::getObject;
+        } else if (fieldType == Clob.class) {
+            return ResultSet::getClob;
+        } else if (fieldType == Array.class) {
+            return ResultSet::getArray;
+        } else {
+            throw new IllegalStateException("No suitable type was found for " + label.name());
+        }
+    }
+
+    private ColumnReader lobReader() {
+        int threshold = lob != null ? lob.threshold() : LobHandle.DEFAULT_THRESHOLD;
+
+        if (threshold < 0 || threshold > Integer.MAX_VALUE - 8) {
+            throw new ResultSetMapperException("The LOB threshold of " + label.name() + " must be between 0 and " + (Integer.MAX_VALUE - 8));
+        }
+
+        if (lob != null && lob.text()) {
+            return (resultSet, columnIndex) -> LobHandle.readText(resultSet, columnIndex, threshold);
+        }
+
+        return (resultSet, columnIndex) -> LobHandle.readBinary(resultSet, columnIndex, threshold);
+    }
+
+    private static ColumnReader numericReaderFor(Class<?> fieldType) {
+
+        if (fieldType == Long.class || fieldType == long.class) {
+            return ResultSet::getLong;
+        } else if (fieldType == Integer.class || fieldType == int.class) {
+            return ResultSet::getInt;
+        } else if (fieldType == Float.class || fieldType == float.class) {
+            return ResultSet::getFloat;
+        } else if (fieldType == Double.class || fieldType == double.class) {
+            return ResultSet::getDouble;
+        } else if (fieldType == BigDecimal.class) {
+            return ResultSet::getBigDecimal;
+        } else  {
+            return null;
+        }
+    }
+
+    /**
+     * It reads a date column as a {@link LocalDate}, without an intermediate {@link java.sql.Date},
+     * or through {@link ResultSet#getDate(int)} from the first row on which the driver does not support it.
+     */
+    private static final class LocalDateReader implements ColumnReader {
+        private volatile boolean unsupported;
+
+        @Override
+        public Object read(ResultSet resultSet, int columnIndex) throws SQLException {
+
+            if (!unsupported) {
+                try {
+                    return resultSet.getObject(columnIndex, LocalDate.class);
+                } catch (SQLException e) {
+                    unsupported = true;
+                }
+            }
+
+            java.sql.Date date = resultSet.getDate(columnIndex);
+            return date != null ? date.toLocalDate() : null;
+        }
+    }
+}
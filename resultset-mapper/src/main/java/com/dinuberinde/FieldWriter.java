@@ -0,0 +1,188 @@
+package com.dinuberinde;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Writes a value into a field of an object. The primitive setters allow
+ * primitive columns to be written without boxing.
+ */
+abstract class FieldWriter {
+
+    /**
+     * It creates the writer of a field according to the given strategy.
+     * @param field the field, already made accessible
+     * @param strategy the accessor strategy
+     * @return the writer of the field
+     */
+    static FieldWriter of(Field field, AccessorStrategy strategy) {
+
+        if (strategy == AccessorStrategy.METHOD_HANDLE) {
+            try {
+                return new MethodHandleWriter(field);
+            } catch (IllegalAccessException | RuntimeException e) {
+                // fall back to reflection
+            }
+        }
+
+        return new ReflectionWriter(field);
+    }
+
+    abstract void set(Object dto, Object value) throws IllegalAccessException;
+
+    abstract void setLong(Object dto, long value) throws IllegalAccessException;
+
+    abstract void setInt(Object dto, int value) throws IllegalAccessException;
+
+    abstract void setDouble(Object dto, double value) throws IllegalAccessException;
+
+    abstract void setFloat(Object dto, float value) throws IllegalAccessException;
+
+    abstract void setBoolean(Object dto, boolean value) throws IllegalAccessException;
+
+    abstract void setByte(Object dto, byte value) throws IllegalAccessException;
+
+    private static final class ReflectionWriter extends FieldWriter {
+        private final Field field;
+
+        private ReflectionWriter(Field field) {
+            this.field = field;
+        }
+
+        @Override
+        void set(Object dto, Object value) throws IllegalAccessException {
+            field.set(dto, value);
+        }
+
+        @Override
+        void setLong(Object dto, long value) throws IllegalAccessException {
+            field.setLong(dto, value);
+        }
+
+        @Override
+        void setInt(Object dto, int value) throws IllegalAccessException {
+            field.setInt(dto, value);
+        }
+
+        @Override
+        void setDouble(Object dto, double value) throws IllegalAccessException {
+            field.setDouble(dto, value);
+        }
+
+        @Override
+        void setFloat(Object dto, float value) throws IllegalAccessException {
+            field.setFloat(dto, value);
+        }
+
+        @Override
+        void setBoolean(Object dto, boolean value) throws IllegalAccessException {
+            field.setBoolean(dto, value);
+        }
+
+        @Override
+        void setByte(Object dto, byte value) throws IllegalAccessException {
+            field.setByte(dto, value);
+        }
+    }
+
+    private static final class MethodHandleWriter extends FieldWriter {
+
+        /**
+         * The setter of the field, adapted to take the object as {@link Object}
+         * and the value as the field type erased to {@link Object} if it is not primitive.
+         */
+        private final MethodHandle setter;
+
+        /**
+         * The setter of the field, adapted to take the object and the value as {@link Object}:
+         * the value is unboxed if the field is primitive.
+         */
+        private final MethodHandle objectSetter;
+
+        private MethodHandleWriter(Field field) throws IllegalAccessException {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+            Class<?> valueType = field.getType().isPrimitive() ? field.getType() : Object.class;
+            MethodHandle setter = lookup.unreflectSetter(field);
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, valueType));
+            this.objectSetter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        }
+
+        @Override
+        void set(Object dto, Object value) {
+            try {
+                objectSetter.invokeExact(dto, value);
+            } catch (Throwable t) {
+                throw propagate(t);
+            }
+        }
+
+        @Override
+        void setLong(Object dto, long value) {
+            try {
+                setter.invokeExact(dto, value);
+            } catch (Throwable t) {
+                throw propagate(t);
+            }
+        }
+
+        @Override
+        void setInt(Object dto, int value) {
+            try {
+                setter.invokeExact(dto, value);
+            } catch (Throwable t) {
+                throw propagate(t);
+            }
+        }
+
+        @Override
+        void setDouble(Object dto, double value) {
+            try {
+                setter.invokeExact(dto, value);
+            } catch (Throwable t) {
+                throw propagate(t);
+            }
+        }
+
+        @Override
+        void setFloat(Object dto, float value) {
+            try {
+                setter.invokeExact(dto, value);
+            } catch (Throwable t) {
+                throw propagate(t);
+            }
+        }
+
+        @Override
+        void setBoolean(Object dto, boolean value) {
+            try {
+                setter.invokeExact(dto, value);
+            } catch (Throwable t) {
+                throw propagate(t);
+            }
+        }
+
+        @Override
+        void setByte(Object dto, byte value) {
+            try {
+                setter.invokeExact(dto, value);
+            } catch (Throwable t) {
+                throw propagate(t);
+            }
+        }
+
+        private static RuntimeException propagate(Throwable t) {
+
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+
+            if (t instanceof RuntimeException) {
+                return (RuntimeException) t;
+            }
+
+            return new ResultSetMapperException((Exception) t);
+        }
+    }
+}
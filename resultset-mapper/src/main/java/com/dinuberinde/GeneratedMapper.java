@@ -0,0 +1,49 @@
+package com.dinuberinde;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A mapper generated at compile time by the <strong>resultset-mapper-processor</strong>
+ * annotation processor for a class having fields annotated with {@link MapperLabel}.
+ * Generated mappers are registered as services in
+ * <strong>META-INF/services/com.dinuberinde.GeneratedMapper</strong> and are used automatically
+ * by {@link ResultSetMapper#apply}, {@link ResultSetMapper#toList} and {@link ResultSetMapper#toObject}
+ * instead of the reflective mapping.
+ * This interface is not meant to be implemented by hand.
+ */
+public interface GeneratedMapper<T> {
+
+    /**
+     * It yields the type of the mapped objects.
+     * @return the type of the mapped objects
+     */
+    Class<T> type();
+
+    /**
+     * It yields the names of the mapped columns, in the order expected by {@link #map(ResultSet, int[])}.
+     * @return the names of the mapped columns
+     */
+    String[] columnNames();
+
+    /**
+     * It yields whether each of the mapped columns is optional.
+     * @return whether each of the mapped columns is optional
+     */
+    boolean[] optionalColumns();
+
+    /**
+     * It yields the type of the field written from each of the mapped columns, so that the classes
+     * with fields read by a {@link ColumnConverter} keep using the reflective mapping.
+     * @return the type of the field written from each of the mapped columns
+     */
+    Class<?>[] fieldTypes();
+
+    /**
+     * It maps the current row of the result set to an object.
+     * @param resultSet the result set
+     * @param columnIndexes the index of each column of {@link #columnNames()}, or 0 for the missing optional columns
+     * @return the object mapped
+     */
+    T map(ResultSet resultSet, int[] columnIndexes) throws SQLException;
+}
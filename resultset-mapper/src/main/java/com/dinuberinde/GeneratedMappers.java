@@ -0,0 +1,74 @@
+package com.dinuberinde;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ServiceLoader;
+
+/**
+ * The registry of the {@link GeneratedMapper}s, discovered through the {@link ServiceLoader}
+ * of the class loader of each mapped class. The lookup happens once per class.
+ */
+final class GeneratedMappers {
+
+    private static final ClassValue<GeneratedMapper<?>> MAPPERS = new ClassValue<>() {
+        @Override
+        protected GeneratedMapper<?> computeValue(Class<?> type) {
+            ClassLoader classLoader = type.getClassLoader() != null ? type.getClassLoader() : ClassLoader.getSystemClassLoader();
+
+            for (GeneratedMapper<?> mapper : ServiceLoader.load(GeneratedMapper.class, classLoader)) {
+                if (mapper.type() == type) {
+                    return mapper;
+                }
+            }
+
+            return null;
+        }
+    };
+
+    private GeneratedMappers() {}
+
+    /**
+     * It yields the generated mapper of a class.
+     * @param type the class
+     * @return the generated mapper of the class, or null if there is none or if a field of the class
+     *         is read by a {@link ColumnConverter}
+     */
+    @SuppressWarnings("unchecked")
+    static <T> GeneratedMapper<T> of(Class<T> type) {
+        GeneratedMapper<T> mapper = (GeneratedMapper<T>) MAPPERS.get(type);
+
+        if (mapper == null) {
+            return null;
+        }
+
+        // the converters are registered at runtime, so the generated code cannot apply them
+        for (Class<?> fieldType : mapper.fieldTypes()) {
+            if (ColumnConverters.of(fieldType) != null) {
+                return null;
+            }
+        }
+
+        return mapper;
+    }
+
+    /**
+     * It binds a generated mapper to the columns of a result set.
+     * @param mapper the generated mapper
+     * @param resultSet the result set
+     * @return the row mapper
+     * @throws ResultSetMapperException if a required column does not exist in the result set
+     */
+    static <T> RowMapper<T> bind(GeneratedMapper<T> mapper, ResultSet resultSet) throws SQLException {
+        int[] columnIndexes = BoundMapper.columnIndexes(resultSet.getMetaData(), mapper.type(), mapper.columnNames(), mapper.optionalColumns());
+
+        return rs -> {
+            try {
+                return mapper.map(rs, columnIndexes);
+            } catch (ResultSetMapperException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ResultSetMapperException(e);
+            }
+        };
+    }
+}
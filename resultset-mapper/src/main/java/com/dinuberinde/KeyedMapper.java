@@ -0,0 +1,145 @@
+package com.dinuberinde;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The mapping of the rows of a result set into a map, keyed by the value of a column read by index,
+ * so that no intermediate list is built. The {@link Long} keys are read as primitive longs into a
+ * {@link LongObjectMap}, without boxing, and the other keys are read by {@link ResultSet#getObject(int, Class)}
+ * into a {@link HashMap}.
+ */
+final class KeyedMapper<K, T> {
+    private final RowMapper<T> mapper;
+    private final Class<K> keyType;
+    private final String keyColumn;
+    private final int keyIndex;
+
+    /**
+     * The rows mapped to objects.
+     */
+    private long rows;
+
+    private KeyedMapper(RowMapper<T> mapper, Class<K> keyType, String keyColumn, int keyIndex) {
+        this.mapper = mapper;
+        this.keyType = keyType;
+        this.keyColumn = keyColumn;
+        this.keyIndex = keyIndex;
+    }
+
+    static <K, T> KeyedMapper<K, T> bind(RowMapper<T> mapper, ResultSet resultSet, String keyColumn, Class<K> keyType) {
+        int keyIndex;
+
+        try {
+            keyIndex = resultSet.findColumn(keyColumn);
+        } catch (SQLException e) {
+            throw new ResultSetMapperException("Key column " + keyColumn + " was not found in the result set");
+        }
+
+        return new KeyedMapper<>(mapper, keyType, keyColumn, keyIndex);
+    }
+
+    /**
+     * It maps all the remaining rows of a result set to a map with an object for each key.
+     * @param resultSet the result set
+     * @param policy the handling of the rows of a key already in the map
+     * @return the map of the objects by key
+     */
+    @SuppressWarnings("unchecked")
+    Map<K, T> toMap(ResultSet resultSet, DuplicateKeyPolicy policy) throws Exception {
+
+        if (keyType == Long.class) {
+            LongObjectMap<T> map = new LongObjectMap<>();
+
+            while (resultSet.next()) {
+                long key = resultSet.getLong(keyIndex);
+                checkKey(resultSet.wasNull());
+
+                if (policy != DuplicateKeyPolicy.KEEP_FIRST || !map.containsKey(key)) {
+                    if (map.put(key, map(resultSet)) != null && policy == DuplicateKeyPolicy.FAIL) {
+                        throw duplicateKey(key);
+                    }
+                }
+            }
+
+            return (Map<K, T>) map;
+        }
+
+        Map<K, T> map = new HashMap<>();
+
+        while (resultSet.next()) {
+            K key = resultSet.getObject(keyIndex, keyType);
+            checkKey(key == null);
+
+            if (policy != DuplicateKeyPolicy.KEEP_FIRST || !map.containsKey(key)) {
+                if (map.put(key, map(resultSet)) != null && policy == DuplicateKeyPolicy.FAIL) {
+                    throw duplicateKey(key);
+                }
+            }
+        }
+
+        return map;
+    }
+
+    /**
+     * It maps all the remaining rows of a result set to a map with the list of the objects of each key.
+     * @param resultSet the result set
+     * @return the map of the objects by key, each list in the order of the rows
+     */
+    @SuppressWarnings("unchecked")
+    Map<K, List<T>> groupBy(ResultSet resultSet) throws Exception {
+
+        if (keyType == Long.class) {
+            LongObjectMap<List<T>> map = new LongObjectMap<>();
+
+            while (resultSet.next()) {
+                long key = resultSet.getLong(keyIndex);
+                checkKey(resultSet.wasNull());
+                List<T> group = map.get(key);
+
+                if (group == null) {
+                    group = new ArrayList<>();
+                    map.put(key, group);
+                }
+
+                group.add(map(resultSet));
+            }
+
+            return (Map<K, List<T>>) (Map<?, ?>) map;
+        }
+
+        Map<K, List<T>> map = new HashMap<>();
+
+        while (resultSet.next()) {
+            K key = resultSet.getObject(keyIndex, keyType);
+            checkKey(key == null);
+            map.computeIfAbsent(key, k -> new ArrayList<>()).add(map(resultSet));
+        }
+
+        return map;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    private T map(ResultSet resultSet) {
+        rows++;
+        return mapper.map(resultSet);
+    }
+
+    private void checkKey(boolean isNull) {
+
+        if (isNull) {
+            throw new ResultSetMapperException("Key column " + keyColumn + " cannot be null");
+        }
+    }
+
+    private ResultSetMapperException duplicateKey(Object key) {
+        return new ResultSetMapperException("Duplicate key " + key + " in column " + keyColumn);
+    }
+}
@@ -0,0 +1,326 @@
+package com.dinuberinde;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The payload of a large object column, readable after the result set is closed.
+ * Payloads up to a threshold are held on the heap, larger ones are streamed to a temporary file
+ * while the row is mapped, and they are then read through a memory-mapped buffer or a stream.
+ * The temporary file is deleted when the handle is closed, or when the handle becomes unreachable.
+ * <br>
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  try (LobHandle content = document.getContent()) {
+ *      ByteBuffer bytes = content.asByteBuffer();
+ *      ...
+ *  }
+ * </pre>
+ */
+public final class LobHandle implements AutoCloseable {
+
+    /**
+     * The default maximum size in bytes of the payloads kept on the heap.
+     */
+    public static final int DEFAULT_THRESHOLD = 1024 * 1024;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * The payload if it is on the heap, null if it was spilled to a file.
+     */
+    private final byte[] bytes;
+    private final Path file;
+    private final long size;
+    private final Cleaner.Cleanable cleanable;
+    private ByteBuffer mapped;
+    private volatile boolean closed;
+
+    private LobHandle(byte[] bytes) {
+        this.bytes = bytes;
+        this.file = null;
+        this.size = bytes.length;
+        this.cleanable = null;
+    }
+
+    private LobHandle(Path file, long size) {
+        this.bytes = null;
+        this.file = file;
+        this.size = size;
+        this.cleanable = CLEANER.register(this, new FileDeleter(file));
+    }
+
+    /**
+     * It yields the handle of a payload held in memory.
+     * @param bytes the payload
+     * @return the handle
+     */
+    public static LobHandle of(byte[] bytes) {
+
+        if (bytes == null) {
+            throw new ResultSetMapperException("Bytes cannot be null");
+        }
+
+        return new LobHandle(bytes.clone());
+    }
+
+    /**
+     * It reads a binary column of the current row of a result set.
+     * @param resultSet the result set
+     * @param columnIndex the index of the column
+     * @param threshold the maximum size in bytes of the payloads kept on the heap
+     * @return the handle, or null if the column is null
+     */
+    static LobHandle readBinary(ResultSet resultSet, int columnIndex, int threshold) throws SQLException {
+        try (InputStream in = resultSet.getBinaryStream(columnIndex)) {
+            return in != null ? read(in, threshold) : null;
+        } catch (IOException e) {
+            throw new ResultSetMapperException(e);
+        }
+    }
+
+    /**
+     * It reads a character column of the current row of a result set, encoding it in UTF-8.
+     * @param resultSet the result set
+     * @param columnIndex the index of the column
+     * @param threshold the maximum size in bytes of the payloads kept on the heap
+     * @return the handle, or null if the column is null
+     */
+    static LobHandle readText(ResultSet resultSet, int columnIndex, int threshold) throws SQLException {
+        try (Reader reader = resultSet.getCharacterStream(columnIndex)) {
+            return reader != null ? read(new Utf8InputStream(reader), threshold) : null;
+        } catch (IOException e) {
+            throw new ResultSetMapperException(e);
+        }
+    }
+
+    private static LobHandle read(InputStream in, int threshold) throws IOException {
+        // one byte more than the threshold tells whether the payload fits on the heap
+        byte[] head = in.readNBytes(threshold + 1);
+
+        if (head.length <= threshold) {
+            return new LobHandle(head);
+        }
+
+        Path file = Files.createTempFile("resultset-mapper-lob", ".bin");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(head);
+            long size = head.length + in.transferTo(out);
+            return new LobHandle(file, size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * It yields the size of the payload.
+     * @return the size in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * It yields true if the payload is held on the heap, false if it was spilled to a temporary file.
+     * @return true if the payload is on the heap
+     */
+    public boolean isOnHeap() {
+        return bytes != null;
+    }
+
+    /**
+     * It yields a read-only buffer of the payload, memory-mapped if the payload was spilled to a file.
+     * A buffer holds at most {@link Integer#MAX_VALUE} bytes: larger payloads must be read by {@link #openStream()}.
+     * @return the buffer
+     * @throws ResultSetMapperException if the payload is larger than {@link Integer#MAX_VALUE} bytes
+     */
+    public synchronized ByteBuffer asByteBuffer() {
+        checkOpen();
+
+        if (bytes != null) {
+            return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        }
+
+        if (size > Integer.MAX_VALUE) {
+            throw new ResultSetMapperException("The payload of " + size + " bytes does not fit in a buffer: read it by openStream()");
+        }
+
+        if (mapped == null) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return mapped.duplicate();
+    }
+
+    /**
+     * It opens a stream over the payload. The stream must be closed.
+     * @return the stream
+     */
+    public InputStream openStream() {
+        checkOpen();
+
+        if (bytes != null) {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        try {
+            return Files.newInputStream(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * It copies the payload into an array.
+     * @return the payload
+     * @throws ResultSetMapperException if the payload is too large for an array
+     */
+    public byte[] toByteArray() {
+        checkOpen();
+
+        if (bytes != null) {
+            return bytes.clone();
+        }
+
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new ResultSetMapperException("The payload of " + size + " bytes is too large for an array");
+        }
+
+        byte[] copy = new byte[(int) size];
+        asByteBuffer().get(copy);
+        return copy;
+    }
+
+    /**
+     * It decodes the payload as UTF-8 text, like the one of a {@link MapperLob#text()} column.
+     * @return the text
+     */
+    public String asString() {
+        return new String(toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private void checkOpen() {
+
+        if (closed) {
+            throw new ResultSetMapperException("The handle is closed");
+        }
+    }
+
+    /**
+     * It releases the payload, deleting its temporary file if any.
+     */
+    @Override
+    public synchronized void close() {
+
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        mapped = null;
+
+        if (cleanable != null) {
+            cleanable.clean();
+        }
+    }
+
+    /**
+     * The deletion of a temporary file, which must not refer to the handle.
+     */
+    private static final class FileDeleter implements Runnable {
+        private final Path file;
+
+        private FileDeleter(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * A stream of the UTF-8 encoding of the characters of a reader.
+     */
+    private static final class Utf8InputStream extends InputStream {
+        private final Reader reader;
+        private final char[] chars = new char[8192];
+        private byte[] encoded = new byte[0];
+        private int position;
+
+        private Utf8InputStream(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? encoded[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+
+            if (length == 0) {
+                return 0;
+            }
+
+            if (!fill()) {
+                return -1;
+            }
+
+            int count = Math.min(length, encoded.length - position);
+            System.arraycopy(encoded, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean fill() throws IOException {
+
+            while (position == encoded.length) {
+                int count = reader.read(chars);
+                if (count < 0) {
+                    return false;
+                }
+
+                // a surrogate pair split between two reads is completed before encoding
+                if (count > 0 && Character.isHighSurrogate(chars[count - 1])) {
+                    int next = reader.read();
+                    if (next >= 0) {
+                        String pair = new String(chars, 0, count) + (char) next;
+                        encoded = pair.getBytes(StandardCharsets.UTF_8);
+                        position = 0;
+                        continue;
+                    }
+                }
+
+                encoded = new String(chars, 0, count).getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+
+            return true;
+        }
+    }
+}
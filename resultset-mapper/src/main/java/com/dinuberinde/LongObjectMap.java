@@ -0,0 +1,316 @@
+package com.dinuberinde;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A map from primitive long keys to non-null values, with open addressing and linear probing,
+ * so that looking up a numeric identifier neither boxes the key nor allocates an entry.
+ * It is a {@link Map} of {@link Long} keys as well, so that it can be returned where a map is expected,
+ * but its long methods should be preferred. The iteration order is unspecified, the iterators do not support
+ * removal and fail fast, like their entries, if a key is added or removed, and it is not thread-safe.
+ * The maps of {@link ResultSetMapper#toMap(java.sql.ResultSet, Class, String, Class)} and
+ * {@link ResultSetMapper#groupBy(java.sql.ResultSet, Class, String, Class)} with {@link Long} keys are of this class.
+ */
+public final class LongObjectMap<V> extends AbstractMap<Long, V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * The number of additions and removals of keys, which move the entries across the slots.
+     */
+    private int modCount;
+
+    /**
+     * It creates an empty map.
+     */
+    public LongObjectMap() {
+        this.keys = new long[DEFAULT_CAPACITY];
+        this.values = new Object[DEFAULT_CAPACITY];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * It yields the value of a key.
+     * @param key the key
+     * @return the value of the key, or null if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int mask = keys.length - 1;
+
+        for (int slot = slot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * It associates a value to a key.
+     * @param key the key
+     * @param value the value, not null
+     * @return the previous value of the key, or null if the key was not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Objects.requireNonNull(value, "The values of a LongObjectMap cannot be null");
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        modCount++;
+
+        // keep the load factor at most 1/2, so that the probe sequences stay short
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+
+        return null;
+    }
+
+    /**
+     * It yields true if a key is in the map.
+     * @param key the key
+     * @return true if the key has a value
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * It removes a key from the map.
+     * @param key the key
+     * @return the previous value of the key, or null if the key was not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int mask = keys.length - 1;
+
+        for (int slot = slot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                close(slot);
+                size--;
+                modCount++;
+                return previous;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * It closes the gap left by a removed key, moving back the keys after it that
+     * would no longer be reachable from their slot, so that no tombstone is needed.
+     */
+    private void close(int gap) {
+        int mask = keys.length - 1;
+
+        for (int slot = (gap + 1) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            // the key can fill the gap if its own slot is not between the gap and the key
+            if (((slot - slot(keys[slot], mask)) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+
+        values[gap] = null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Long ? get((long) (Long) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long && containsKey((long) (Long) key);
+    }
+
+    @Override
+    public V put(Long key, V value) {
+        return put((long) Objects.requireNonNull(key, "The keys of a LongObjectMap cannot be null"), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Long ? remove((long) (Long) key) : null;
+    }
+
+    @Override
+    public void clear() {
+        keys = new long[DEFAULT_CAPACITY];
+        values = new Object[DEFAULT_CAPACITY];
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<Long, V>> entrySet() {
+        return new AbstractSet<Map.Entry<Long, V>>() {
+
+            @Override
+            public Iterator<Map.Entry<Long, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        int mask = keys.length - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i], mask);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        // the identifiers are often sequential: spread them with the 64-bit golden ratio
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<Long, V>> {
+        private final long[] keys = LongObjectMap.this.keys;
+        private final Object[] values = LongObjectMap.this.values;
+        private final int expectedModCount = modCount;
+        private int slot = -1;
+
+        private EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            do {
+                slot++;
+            } while (slot < values.length && values[slot] == null);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<Long, V> next() {
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            Entry entry = new Entry(slot, keys[slot], (V) values[slot], expectedModCount);
+            advance();
+            return entry;
+        }
+    }
+
+    /**
+     * An entry of the map, writing its value through to its slot, as long as no key was added or removed.
+     */
+    private final class Entry implements Map.Entry<Long, V> {
+        private final int slot;
+        private final long key;
+        private final int expectedModCount;
+        private V value;
+
+        private Entry(int slot, long key, V value, int expectedModCount) {
+            this.slot = slot;
+            this.key = key;
+            this.value = value;
+            this.expectedModCount = expectedModCount;
+        }
+
+        @Override
+        public Long getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+
+            // the slot may hold another key after a rehash or the removal of a key
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            values[slot] = Objects.requireNonNull(value, "The values of a LongObjectMap cannot be null");
+            V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (!(other instanceof Map.Entry)) {
+                return false;
+            }
+
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) other;
+            return getKey().equals(entry.getKey()) && value.equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(key) ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.dinuberinde;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a {@link java.util.List}, {@link java.util.Set} or {@link java.util.Collection} field
+ * to be filled with the child objects found in the rows of a join, when the result set
+ * is mapped by {@link ResultSetMapper#toAggregate(java.sql.ResultSet, Class)}.
+ * The type of the elements is mapped like any other class, reading its columns with the given prefix,
+ * and the children are deduplicated by their {@link MapperId} field, if any.
+ * <br>
+ *<p>Example:</p>
+ *<pre class="code">
+ *public class User {
+ *
+ *  &#064;MapperId
+ *  &#064;MapperLabel(name = "ID")
+ *  private Long id;
+ *
+ *  &#064;MapperCollection(prefix = "ADDRESS_")
+ *  private List&lt;Address&gt; addresses;
+ *
+ *  // getters and setters or Lombok
+ * }
+ *</pre>
+ *
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  ResultSet resultSet = stmt.executeQuery("SELECT U.*, A.ID AS ADDRESS_ID, A.STREET AS ADDRESS_STREET " +
+ *      "FROM USERS U LEFT JOIN ADDRESS A ON A.USER_ID = U.ID");
+ *  List&lt;User&gt; users = ResultSetMapper.toAggregate(resultSet, User.class);
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface MapperCollection {
+
+    /**
+     * The prefix of the labels of the columns of the child objects.
+     */
+    String prefix() default "";
+}
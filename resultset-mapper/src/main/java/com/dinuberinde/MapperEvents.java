@@ -0,0 +1,170 @@
+package com.dinuberinde;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The JDK Flight Recorder events of the mapping. They are disabled unless a recording enables them,
+ * for instance with <strong>-XX:StartFlightRecording</strong> and a settings file enabling
+ * <strong>com.dinuberinde.*</strong>, and then they cost a check of a flag.
+ * This class is only loaded if the runtime has the <strong>jdk.jfr</strong> module.
+ */
+final class MapperEvents {
+    private static final EventType MAPPING = EventType.getEventType(MappingEvent.class);
+    private static final EventType FIELD_MAPPING = EventType.getEventType(FieldMappingEvent.class);
+    private static final EventType OPTIONAL_COLUMN_MISSING = EventType.getEventType(OptionalColumnMissingEvent.class);
+    private static final EventType MAPPING_FAILURE = EventType.getEventType(MappingFailureEvent.class);
+    private static final EventType STRING_DEDUPLICATION = EventType.getEventType(StringDeduplicationEvent.class);
+
+    private MapperEvents() {}
+
+    static boolean isEnabled() {
+        return MAPPING.isEnabled() || FIELD_MAPPING.isEnabled() || OPTIONAL_COLUMN_MISSING.isEnabled() || MAPPING_FAILURE.isEnabled()
+                || STRING_DEDUPLICATION.isEnabled();
+    }
+
+    static void mapped(Class<?> type, MapperOperation operation, long rows, long nanos) {
+        MappingEvent event = new MappingEvent();
+
+        if (event.shouldCommit()) {
+            event.type = type;
+            event.operation = operation.name();
+            event.rows = rows;
+            event.mappingTime = nanos;
+            event.commit();
+        }
+    }
+
+    static void fieldMapped(Class<?> type, String column, long nanos) {
+        FieldMappingEvent event = new FieldMappingEvent();
+
+        if (event.shouldCommit()) {
+            event.type = type;
+            event.column = column;
+            event.mappingTime = nanos;
+            event.commit();
+        }
+    }
+
+    static void optionalColumnMissing(Class<?> type, String column) {
+        OptionalColumnMissingEvent event = new OptionalColumnMissingEvent();
+
+        if (event.shouldCommit()) {
+            event.type = type;
+            event.column = column;
+            event.commit();
+        }
+    }
+
+    static void stringsDeduplicated(Class<?> type, String column, long strings, long deduplicated, long deduplicatedChars) {
+        StringDeduplicationEvent event = new StringDeduplicationEvent();
+
+        if (event.shouldCommit()) {
+            event.type = type;
+            event.column = column;
+            event.strings = strings;
+            event.deduplicated = deduplicated;
+            event.deduplicatedChars = deduplicatedChars;
+            event.commit();
+        }
+    }
+
+    static void failed(Class<?> type, MapperOperation operation, ResultSetMapperException exception) {
+        MappingFailureEvent event = new MappingFailureEvent();
+
+        if (event.shouldCommit()) {
+            event.type = type;
+            event.operation = operation.name();
+            event.message = exception.getMessage();
+            event.commit();
+        }
+    }
+
+    @Name("com.dinuberinde.Mapping")
+    @Label("Result Set Mapping")
+    @Category("Result Set Mapper")
+    @Description("A result set mapped to objects")
+    static final class MappingEvent extends Event {
+        @Label("Type")
+        Class<?> type;
+
+        @Label("Operation")
+        String operation;
+
+        @Label("Rows")
+        long rows;
+
+        @Label("Mapping Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long mappingTime;
+    }
+
+    @Name("com.dinuberinde.FieldMapping")
+    @Label("Result Set Field Mapping")
+    @Category("Result Set Mapper")
+    @Description("A field of a sampled row mapped from its column")
+    static final class FieldMappingEvent extends Event {
+        @Label("Type")
+        Class<?> type;
+
+        @Label("Column")
+        String column;
+
+        @Label("Mapping Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long mappingTime;
+    }
+
+    @Name("com.dinuberinde.OptionalColumnMissing")
+    @Label("Optional Column Missing")
+    @Category("Result Set Mapper")
+    @Description("An optional column not found in the result set")
+    static final class OptionalColumnMissingEvent extends Event {
+        @Label("Type")
+        Class<?> type;
+
+        @Label("Column")
+        String column;
+    }
+
+    @Name("com.dinuberinde.MappingFailure")
+    @Label("Result Set Mapping Failure")
+    @Category("Result Set Mapper")
+    @Description("A mapping that failed")
+    static final class MappingFailureEvent extends Event {
+        @Label("Type")
+        Class<?> type;
+
+        @Label("Operation")
+        String operation;
+
+        @Label("Message")
+        String message;
+    }
+
+    @Name("com.dinuberinde.StringDeduplication")
+    @Label("Result Set String Deduplication")
+    @Category("Result Set Mapper")
+    @Description("The strings of a low-cardinality column deduplicated by a mapping")
+    static final class StringDeduplicationEvent extends Event {
+        @Label("Type")
+        Class<?> type;
+
+        @Label("Column")
+        String column;
+
+        @Label("Strings")
+        long strings;
+
+        @Label("Deduplicated")
+        long deduplicated;
+
+        @Label("Deduplicated Characters")
+        long deduplicatedChars;
+    }
+}
@@ -0,0 +1,33 @@
+package com.dinuberinde;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks the field, annotated with {@link MapperLabel}, that identifies an object,
+ * so that the rows of a join having the same identifier are aggregated into a single object.
+ * <br>
+ *<p>Example:</p>
+ *<pre class="code">
+ *public class User {
+ *
+ *  &#064;MapperId
+ *  &#064;MapperLabel(name = "ID")
+ *  private Long id;
+ *
+ *  &#064;MapperCollection(prefix = "ADDRESS_")
+ *  private List&lt;Address&gt; addresses;
+ *
+ *  // getters and setters or Lombok
+ * }
+ *</pre>
+ *
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  ResultSetMapper.toAggregate(resultSet, User.class);
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+public @interface MapperId {
+}
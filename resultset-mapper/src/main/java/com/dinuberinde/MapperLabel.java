@@ -5,6 +5,8 @@ import java.lang.annotation.*;
 
 /**
  * Marks a field to be mapped.
+ * It can also mark the parameters of a constructor, like the canonical constructor of a record:
+ * if all the parameters of a constructor are marked, the objects are built by that constructor.
  * <br>
  *<p>Example:</p>
  *<pre class="code">
@@ -25,6 +27,10 @@ import java.lang.annotation.*;
  * }
  *</pre>
  *
+ *<pre class="code">
+ *public record Address(&#064;MapperLabel(name = "ID") long id, &#064;MapperLabel(name = "STREET") String street) {}
+ *</pre>
+ *
  * <p>Usage:</p>
  * <pre class="code">
  *  ResultSetMapper.toObject(resultSet, User.class);
@@ -33,7 +39,7 @@ import java.lang.annotation.*;
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.FIELD)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
 public @interface MapperLabel {
 
     /**
@@ -45,4 +51,11 @@ public @interface MapperLabel {
      * Set to true if the column may not exist in order to prevent a {@link java.sql.SQLException}.
      */
     boolean optional() default false;
+
+    /**
+     * Set to true for a {@link String} column with few distinct values, like a status or a country code,
+     * so that the rows having the same value share a single string. The values are deduplicated by a table
+     * of each mapping, which stops deduplicating if the column turns out to have many distinct values.
+     */
+    boolean dedup() default false;
 }
@@ -0,0 +1,61 @@
+package com.dinuberinde;
+
+/**
+ * A listener of the mapping, to measure how much of a slow query is spent mapping its rows.
+ * Listeners are registered by {@link ResultSetMapper#addListener(MapperListener)} and they are
+ * called synchronously by the mapping thread, so they must be fast and thread-safe.
+ * When no listener is registered, and the JDK Flight Recorder events are disabled,
+ * the mapping is not timed at all.
+ * <br>
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  CountingMapperListener counter = new CountingMapperListener();
+ *  ResultSetMapper.addListener(counter);
+ *  ...
+ *  long rows = counter.getRows();
+ * </pre>
+ */
+public interface MapperListener {
+
+    /**
+     * It is called when a mapping operation completes.
+     * @param type the type of the mapped objects
+     * @param operation the operation
+     * @param rows the number of mapped rows
+     * @param nanos the time spent by the operation, in nanoseconds, including the time to fetch the rows
+     */
+    default void onMapped(Class<?> type, MapperOperation operation, long rows, long nanos) {}
+
+    /**
+     * It is called for each field of a sampled row, one row every 1024 mapped by the same {@link BoundMapper}.
+     * @param type the type of the mapped object
+     * @param column the label of the column of the field
+     * @param nanos the time spent reading, converting and writing the field, in nanoseconds
+     */
+    default void onFieldMapped(Class<?> type, String column, long nanos) {}
+
+    /**
+     * It is called when a mapping is bound to a result set that misses an optional column.
+     * @param type the type of the mapped objects
+     * @param column the label of the missing column
+     */
+    default void onOptionalColumnMissing(Class<?> type, String column) {}
+
+    /**
+     * It is called when a mapping operation completes, for each column annotated with {@link MapperLabel#dedup()}.
+     * @param type the type of the mapped objects
+     * @param column the label of the column
+     * @param strings the number of non-null strings looked up in the table of the column
+     * @param deduplicated the number of strings replaced by an equal string of the table
+     * @param deduplicatedChars the total length of the replaced strings, a lower bound of the characters saved on the heap
+     */
+    default void onStringsDeduplicated(Class<?> type, String column, long strings, long deduplicated, long deduplicatedChars) {}
+
+    /**
+     * It is called when a mapping operation fails.
+     * @param type the type of the mapped objects
+     * @param operation the operation
+     * @param exception the exception thrown by the operation
+     */
+    default void onFailure(Class<?> type, MapperOperation operation, ResultSetMapperException exception) {}
+}
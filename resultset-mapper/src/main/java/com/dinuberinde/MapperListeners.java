@@ -0,0 +1,174 @@
+package com.dinuberinde;
+
+/**
+ * The registered {@link MapperListener}s, and the dispatch of the mapping activity to them
+ * and to the JDK Flight Recorder events. The listeners are held in a copy-on-write array,
+ * so that checking whether anything is listening costs a single volatile read.
+ */
+final class MapperListeners {
+
+    /**
+     * The start time of an operation that is not observed.
+     */
+    static final long NOT_OBSERVED = Long.MIN_VALUE;
+
+    private static final MapperListener[] NONE = new MapperListener[0];
+    private static final boolean FLIGHT_RECORDER = isFlightRecorderAvailable();
+
+    private static volatile MapperListener[] listeners = NONE;
+
+    private MapperListeners() {}
+
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, MapperListeners.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            // a runtime without the jdk.jfr module
+            return false;
+        }
+    }
+
+    static synchronized void add(MapperListener listener) {
+        MapperListener[] current = listeners;
+        MapperListener[] updated = new MapperListener[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    static synchronized boolean remove(MapperListener listener) {
+        MapperListener[] current = listeners;
+
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                MapperListener[] updated = new MapperListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated.length == 0 ? NONE : updated;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * It yields true if a listener is registered or if the mapping events are recorded.
+     * @return true if the mapping is observed
+     */
+    static boolean isEnabled() {
+        return listeners.length > 0 || (FLIGHT_RECORDER && MapperEvents.isEnabled());
+    }
+
+    /**
+     * It yields the start time of an operation.
+     * @return the current time in nanoseconds, or {@link #NOT_OBSERVED} if the mapping is not observed
+     */
+    static long start() {
+        return isEnabled() ? System.nanoTime() : NOT_OBSERVED;
+    }
+
+    /**
+     * It reports a completed operation.
+     * @param type the type of the mapped objects
+     * @param operation the operation
+     * @param rows the number of mapped rows
+     * @param start the start time of the operation, from {@link #start()}
+     */
+    static void mapped(Class<?> type, MapperOperation operation, long rows, long start) {
+
+        if (start == NOT_OBSERVED) {
+            return;
+        }
+
+        long nanos = System.nanoTime() - start;
+        for (MapperListener listener : listeners) {
+            try {
+                listener.onMapped(type, operation, rows, nanos);
+            } catch (RuntimeException e) {
+                // a failing listener must not fail the mapping
+            }
+        }
+
+        if (FLIGHT_RECORDER) {
+            MapperEvents.mapped(type, operation, rows, nanos);
+        }
+    }
+
+    static void fieldMapped(Class<?> type, String column, long nanos) {
+        for (MapperListener listener : listeners) {
+            try {
+                listener.onFieldMapped(type, column, nanos);
+            } catch (RuntimeException e) {
+                // a failing listener must not fail the mapping
+            }
+        }
+
+        if (FLIGHT_RECORDER) {
+            MapperEvents.fieldMapped(type, column, nanos);
+        }
+    }
+
+    static void optionalColumnMissing(Class<?> type, String column) {
+        for (MapperListener listener : listeners) {
+            try {
+                listener.onOptionalColumnMissing(type, column);
+            } catch (RuntimeException e) {
+                // a failing listener must not fail the mapping
+            }
+        }
+
+        if (FLIGHT_RECORDER) {
+            MapperEvents.optionalColumnMissing(type, column);
+        }
+    }
+
+    static void stringsDeduplicated(Class<?> type, String column, long strings, long deduplicated, long deduplicatedChars) {
+        for (MapperListener listener : listeners) {
+            try {
+                listener.onStringsDeduplicated(type, column, strings, deduplicated, deduplicatedChars);
+            } catch (RuntimeException e) {
+                // a failing listener must not fail the mapping
+            }
+        }
+
+        if (FLIGHT_RECORDER) {
+            MapperEvents.stringsDeduplicated(type, column, strings, deduplicated, deduplicatedChars);
+        }
+    }
+
+    /**
+     * It reports the strings deduplicated by a row mapper, if it deduplicates any.
+     * @param mapper the row mapper, at the end of a mapping operation
+     */
+    static void deduplicated(RowMapper<?> mapper) {
+
+        if (mapper instanceof BoundMapper) {
+            ((BoundMapper<?>) mapper).reportDeduplication();
+        }
+    }
+
+    /**
+     * It reports a failed operation.
+     * @param type the type of the mapped objects
+     * @param operation the operation
+     * @param exception the exception thrown by the operation
+     * @return the exception, to be thrown by the caller
+     */
+    static ResultSetMapperException failed(Class<?> type, MapperOperation operation, ResultSetMapperException exception) {
+        for (MapperListener listener : listeners) {
+            try {
+                listener.onFailure(type, operation, exception);
+            } catch (RuntimeException e) {
+                // a failing listener must not fail the mapping
+            }
+        }
+
+        if (FLIGHT_RECORDER) {
+            MapperEvents.failed(type, operation, exception);
+        }
+
+        return exception;
+    }
+}
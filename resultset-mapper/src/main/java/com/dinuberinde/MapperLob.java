@@ -0,0 +1,41 @@
+package com.dinuberinde;
+
+import java.lang.annotation.*;
+
+/**
+ * Annotation used to map a large object column, BLOB or CLOB, to a {@link LobHandle} field.
+ * The payloads up to the threshold are kept on the heap, the larger ones are streamed to a temporary file,
+ * so that the memory used by the mapping does not depend on the size of the payloads.
+ * The handles stay readable after the result set is closed.
+ * A {@link LobHandle} field without this annotation is mapped as a binary column with the default threshold.
+ * <br>
+ *<p>Example:</p>
+ *<pre class="code">
+ *public class Document {
+ *
+ *  &#064;MapperLabel(name = "ID")
+ *  private Long id;
+ *
+ *  &#064;MapperLob(threshold = 64 * 1024)
+ *  &#064;MapperLabel(name = "CONTENT")
+ *  private LobHandle content;
+ *
+ *  // getters and setters or Lombok
+ * }
+ *</pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+public @interface MapperLob {
+
+    /**
+     * The maximum size in bytes of the payloads kept on the heap.
+     */
+    int threshold() default LobHandle.DEFAULT_THRESHOLD;
+
+    /**
+     * True if the column holds characters, like a CLOB, which are stored encoded in UTF-8.
+     */
+    boolean text() default false;
+}
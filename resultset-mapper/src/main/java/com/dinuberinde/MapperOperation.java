@@ -0,0 +1,93 @@
+package com.dinuberinde;
+
+/**
+ * The mapping operations reported to the {@link MapperListener}s.
+ */
+public enum MapperOperation {
+
+    /**
+     * {@link ResultSetMapper#apply(java.sql.ResultSet, Class)}.
+     */
+    APPLY,
+
+    /**
+     * {@link ResultSetMapper#applyInto(java.sql.ResultSet, Object)}.
+     */
+    APPLY_INTO,
+
+    /**
+     * {@link ResultSetMapper#toList(java.sql.ResultSet, Class)}, {@link ResultSetMapper#toObject(java.sql.ResultSet, Class)}
+     * and {@link CompiledMapper#toList(java.sql.ResultSet)}.
+     */
+    TO_LIST,
+
+    /**
+     * {@link ResultSetMapper#toListParallel(java.sql.ResultSet, Class, java.util.concurrent.Executor, int, boolean)}.
+     */
+    TO_LIST_PARALLEL,
+
+    /**
+     * {@link ResultSetMapper#toAggregate(java.sql.ResultSet, Class)}.
+     */
+    TO_AGGREGATE,
+
+    /**
+     * {@link ResultSetMapper#toMap(java.sql.ResultSet, Class, String, Class, DuplicateKeyPolicy)}.
+     */
+    TO_MAP,
+
+    /**
+     * {@link ResultSetMapper#groupBy(java.sql.ResultSet, Class, String, Class)}.
+     */
+    GROUP_BY,
+
+    /**
+     * {@link ResultSetMapper#toColumns(java.sql.ResultSet, Class)}.
+     */
+    TO_COLUMNS,
+
+    /**
+     * {@link ResultSetMapper#forEachBatch(java.sql.ResultSet, Class, int, java.util.function.Consumer)}.
+     */
+    FOR_EACH_BATCH,
+
+    /**
+     * {@link ResultSetMapper#forEachReusing(java.sql.ResultSet, Class, java.util.function.Consumer)}.
+     */
+    FOR_EACH_REUSING,
+
+    /**
+     * The iterators and the streams, reported when they are closed.
+     */
+    ITERATE,
+
+    /**
+     * The publishers, reported when they complete, fail or are cancelled.
+     */
+    PUBLISH,
+
+    /**
+     * The queries of a {@link QueryExecutor}.
+     */
+    QUERY,
+
+    /**
+     * The exports of a {@link ResultSetExporter}.
+     */
+    EXPORT,
+
+    /**
+     * {@link ResultSetMapper#insertBatch(java.sql.Connection, String, Class, java.util.List, int)}.
+     */
+    INSERT_BATCH,
+
+    /**
+     * {@link ResultSetMapper#updateBatch(java.sql.Connection, String, Class, java.util.List, int)}.
+     */
+    UPDATE_BATCH,
+
+    /**
+     * {@link ResultSetMapper#upsertBatch(java.sql.Connection, String, Class, java.util.List, int)}.
+     */
+    UPSERT_BATCH
+}
@@ -0,0 +1,346 @@
+package com.dinuberinde;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * The precomputed mapping of a POJO class: its constructor and the ordered list of
+ * the fields annotated with {@link MapperLabel}, across the whole class hierarchy.
+ * If the class has a constructor whose parameters are all annotated with {@link MapperLabel},
+ * like the canonical constructor of a record, the objects are built by calling that constructor
+ * with the values of the columns, and only its non-final annotated fields are written afterwards.
+ * Otherwise the objects are built by the no-arg constructor.
+ * Plans are built once per class and cached in a {@link ClassValue}, which is thread-safe
+ * and does not prevent the class loader of the mapped class from being unloaded.
+ */
+final class MappingPlan<T> {
+
+    /**
+     * The cached plans, one cache for each accessor strategy. The caches are replaced,
+     * instead of cleared, when the plans must be rebuilt.
+     */
+    private static volatile ClassValue<?>[] plans = newPlans();
+
+    private static volatile AccessorStrategy accessorStrategy = AccessorStrategy.METHOD_HANDLE;
+
+    /**
+     * It changes whenever the cached plans are discarded or the accessor strategy changes,
+     * so that the mappers bound before can be recognized without building a plan.
+     */
+    private static volatile int generation;
+
+    private final Class<T> type;
+    private final Constructor<T> constructor;
+
+    /**
+     * The constructor, spread to take its arguments as an {@link Object} array: (Object[])Object;
+     * null if the constructor is called by reflection.
+     */
+    private final MethodHandle constructorHandle;
+
+    /**
+     * The mappings of the constructor parameters, empty if the no-arg constructor is used.
+     */
+    private final FieldMapping[] parameters;
+    private final FieldMapping[] fields;
+
+    /**
+     * The mappings of the constructor parameters followed by the mappings of the fields.
+     */
+    private final FieldMapping[] mappings;
+
+    /**
+     * The index in {@link #mappings} of the mapping annotated with {@link MapperId}, or -1 if there is none.
+     */
+    private final int idIndex;
+    private final CollectionMapping[] collections;
+
+    /**
+     * The select clause of each {@link OptionalColumnPolicy}, built on first use.
+     */
+    private final String[] selectClauses = new String[OptionalColumnPolicy.values().length];
+
+    private MappingPlan(Class<T> type, AccessorStrategy strategy) {
+        this.type = type;
+        this.constructor = constructor(type);
+        this.constructorHandle = strategy == AccessorStrategy.METHOD_HANDLE ? constructorHandleOrNull(constructor) : null;
+
+        Parameter[] constructorParameters = constructor.getParameters();
+        this.parameters = new FieldMapping[constructorParameters.length];
+        for (int i = 0; i < constructorParameters.length; i++) {
+            parameters[i] = new FieldMapping(constructorParameters[i], constructorParameters[i].getAnnotation(MapperLabel.class));
+        }
+
+        List<FieldMapping> mappings = new ArrayList<>();
+        List<CollectionMapping> collections = new ArrayList<>();
+        for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                MapperLabel label = field.getAnnotation(MapperLabel.class);
+                MapperCollection collection = field.getAnnotation(MapperCollection.class);
+
+                if (collection != null) {
+                    collections.add(new CollectionMapping(field, collection, strategy));
+                }
+
+                // the final fields of a class built by its constructor, like the ones of a record, are set by the constructor
+                if (label != null && !(parameters.length > 0 && Modifier.isFinal(field.getModifiers()))) {
+                    mappings.add(new FieldMapping(field, label, strategy));
+                }
+            }
+        }
+        this.fields = mappings.toArray(new FieldMapping[0]);
+
+        this.mappings = new FieldMapping[parameters.length + fields.length];
+        System.arraycopy(parameters, 0, this.mappings, 0, parameters.length);
+        System.arraycopy(fields, 0, this.mappings, parameters.length, fields.length);
+        this.collections = collections.toArray(new CollectionMapping[0]);
+        this.idIndex = idIndex(type, this.mappings);
+    }
+
+    private static int idIndex(Class<?> type, FieldMapping[] mappings) {
+        int idIndex = -1;
+
+        for (int i = 0; i < mappings.length; i++) {
+            if (mappings[i].isId()) {
+                if (idIndex >= 0) {
+                    throw new ResultSetMapperException("Only one field of " + type.getName() + " can be annotated with MapperId");
+                }
+
+                idIndex = i;
+            }
+        }
+
+        return idIndex;
+    }
+
+    /**
+     * It yields the constructor whose parameters are all annotated with {@link MapperLabel},
+     * or the no-arg constructor if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Constructor<T> constructor(Class<T> type) {
+        Constructor<T> annotated = null;
+
+        for (Constructor<?> candidate : type.getDeclaredConstructors()) {
+            int annotatedParameters = 0;
+            for (Parameter parameter : candidate.getParameters()) {
+                if (parameter.isAnnotationPresent(MapperLabel.class)) {
+                    annotatedParameters++;
+                }
+            }
+
+            if (annotatedParameters == 0) {
+                continue;
+            }
+
+            if (annotatedParameters < candidate.getParameterCount()) {
+                throw new ResultSetMapperException("All the parameters of the constructor " + candidate + " must be annotated with MapperLabel");
+            }
+
+            if (annotated != null) {
+                throw new ResultSetMapperException("Only one constructor of " + type.getName() + " can have parameters annotated with MapperLabel");
+            }
+
+            annotated = (Constructor<T>) candidate;
+        }
+
+        if (annotated != null) {
+            annotated.setAccessible(true);
+            return annotated;
+        }
+
+        try {
+            return type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new ResultSetMapperException(e);
+        }
+    }
+
+    private static ClassValue<?>[] newPlans() {
+        ClassValue<?>[] plans = new ClassValue<?>[AccessorStrategy.values().length];
+
+        for (AccessorStrategy strategy : AccessorStrategy.values()) {
+            plans[strategy.ordinal()] = new ClassValue<MappingPlan<?>>() {
+                @Override
+                protected MappingPlan<?> computeValue(Class<?> type) {
+                    return new MappingPlan<>(type, strategy);
+                }
+            };
+        }
+
+        return plans;
+    }
+
+    /**
+     * It discards the cached plans, so that they are rebuilt on their next use,
+     * for instance after the registration of a {@link ColumnConverter}.
+     */
+    static void clearCache() {
+        plans = newPlans();
+        generation++;
+    }
+
+    private static MethodHandle constructorHandleOrNull(Constructor<?> constructor) {
+
+        if (constructor.getParameterCount() == 0) {
+            return null;
+        }
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(constructor.getDeclaringClass(), MethodHandles.lookup());
+            return lookup.unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException | RuntimeException e) {
+            // fall back to reflection
+            return null;
+        }
+    }
+
+    /**
+     * It yields the mapping plan of a class for the current accessor strategy, building it on first use.
+     * @param type the class
+     * @return the mapping plan of the class
+     */
+    @SuppressWarnings("unchecked")
+    static <T> MappingPlan<T> of(Class<T> type) {
+        return (MappingPlan<T>) plans[accessorStrategy.ordinal()].get(type);
+    }
+
+    static AccessorStrategy getAccessorStrategy() {
+        return accessorStrategy;
+    }
+
+    static void setAccessorStrategy(AccessorStrategy strategy) {
+        accessorStrategy = strategy;
+        generation++;
+    }
+
+    static int generation() {
+        return generation;
+    }
+
+    Class<T> getType() {
+        return type;
+    }
+
+    Constructor<T> getConstructor() {
+        return constructor;
+    }
+
+    /**
+     * It yields the mappings of the constructor parameters.
+     * @return the mappings of the constructor parameters, empty if the no-arg constructor is used
+     */
+    FieldMapping[] getParameters() {
+        return parameters;
+    }
+
+    FieldMapping[] getFields() {
+        return fields;
+    }
+
+    /**
+     * It yields the mappings of the constructor parameters followed by the mappings of the fields.
+     * @return the mappings
+     */
+    FieldMapping[] getMappings() {
+        return mappings;
+    }
+
+    /**
+     * It yields the index of the mapping annotated with {@link MapperId}.
+     * @return the index in {@link #getMappings()}, or -1 if no mapping is annotated with {@link MapperId}
+     */
+    int getIdIndex() {
+        return idIndex;
+    }
+
+    /**
+     * It yields the mappings of the fields annotated with {@link MapperCollection}.
+     * @return the mappings of the collections
+     */
+    CollectionMapping[] getCollections() {
+        return collections;
+    }
+
+    /**
+     * It yields the columns of the mappings, in their order, without duplicates, separated by commas.
+     * @param policy whether the columns of the optional mappings are selected
+     * @return the select clause, without the SELECT keyword
+     */
+    String selectClause(OptionalColumnPolicy policy) {
+        String selectClause = selectClauses[policy.ordinal()];
+
+        // a benign race: the clause is immutable and equal on every thread that builds it
+        if (selectClause == null) {
+            // the labels are resolved ignoring the case, like by the binding
+            Set<String> selected = new HashSet<>();
+            StringJoiner columns = new StringJoiner(", ");
+
+            for (FieldMapping mapping : mappings) {
+                String column = mapping.getLabel().name();
+
+                if ((policy == OptionalColumnPolicy.INCLUDE || !mapping.getLabel().optional()) && selected.add(column.toUpperCase(Locale.ROOT))) {
+                    columns.add(column);
+                }
+            }
+
+            if (selected.isEmpty()) {
+                throw new ResultSetMapperException(type.getName() + " has no column to select");
+            }
+
+            selectClause = columns.toString();
+            selectClauses[policy.ordinal()] = selectClause;
+        }
+
+        return selectClause;
+    }
+
+    /**
+     * It creates a new instance of the class by means of its no-arg constructor.
+     * @return the new instance
+     * @throws ResultSetMapperException if the class is built by a constructor with parameters
+     */
+    T newInstance() throws InvocationTargetException, InstantiationException, IllegalAccessException {
+
+        if (parameters.length > 0) {
+            throw new ResultSetMapperException(type.getName() + " is built by its constructor and cannot be instantiated without arguments");
+        }
+
+        return constructor.newInstance();
+    }
+
+    /**
+     * It creates a new instance of the class by means of its constructor.
+     * @param arguments the arguments of the constructor, one for each parameter
+     * @return the new instance
+     */
+    @SuppressWarnings("unchecked")
+    T newInstance(Object[] arguments) throws Exception {
+
+        if (constructorHandle == null) {
+            return constructor.newInstance(arguments);
+        }
+
+        try {
+            return (T) (Object) constructorHandle.invokeExact(arguments);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+}
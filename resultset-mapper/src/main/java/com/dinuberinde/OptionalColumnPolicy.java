@@ -0,0 +1,24 @@
+package com.dinuberinde;
+
+/**
+ * The handling of the columns of the fields annotated with {@link MapperLabel#optional()}
+ * in the select clauses generated by {@link ResultSetMapper#selectClause(Class, OptionalColumnPolicy)}.
+ * <br>
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  String sql = ResultSetMapper.select(User.class, OptionalColumnPolicy.INCLUDE, "FROM USERS WHERE ID = ?");
+ * </pre>
+ */
+public enum OptionalColumnPolicy {
+
+    /**
+     * The optional columns are selected, so they must exist in the queried tables.
+     */
+    INCLUDE,
+
+    /**
+     * The optional columns are not selected, and their fields are mapped as missing columns.
+     * This is the default policy.
+     */
+    EXCLUDE
+}
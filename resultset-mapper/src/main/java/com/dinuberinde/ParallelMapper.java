@@ -0,0 +1,230 @@
+package com.dinuberinde;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A two-stage mapping pipeline. The calling thread is the only one reading the result set:
+ * it reads the raw column values by index into chunks of rows. The chunks are converted,
+ * formatted and turned into objects by the tasks of an executor. The number of chunks in flight
+ * is bounded, so that the reader blocks when the workers fall behind and memory stays capped.
+ */
+final class ParallelMapper<T> {
+
+    /**
+     * The number of rows of a chunk.
+     */
+    static final int CHUNK_SIZE = 256;
+
+    private final BoundMapper<T> mapper;
+    private final Executor executor;
+    private final Semaphore chunksInFlight;
+    private final boolean preserveOrder;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    /**
+     * The chunks queued by a reader that is a worker of the pool of the chunks, newest last.
+     */
+    private final Deque<Runnable> queuedChunks = new ArrayDeque<>();
+    private boolean worker;
+
+    ParallelMapper(BoundMapper<T> mapper, Executor executor, int parallelism, boolean preserveOrder) {
+        this.mapper = mapper;
+        this.executor = executor;
+        // two chunks per worker keep the workers busy while the reader fills the next ones
+        this.chunksInFlight = new Semaphore(2 * parallelism);
+        this.preserveOrder = preserveOrder;
+    }
+
+    /**
+     * It maps a result set to a list of objects by iterating over the result set.
+     * @param resultSet the result set
+     * @return a list of mapped objects, in the order of the rows if required
+     */
+    List<T> toList(ResultSet resultSet) throws SQLException, InterruptedException {
+        List<CompletableFuture<List<T>>> submittedChunks = new ArrayList<>();
+        List<CompletableFuture<List<T>>> orderedChunks = new ArrayList<>();
+        Queue<List<T>> completedChunks = new ConcurrentLinkedQueue<>();
+        List<Object[]> chunk = new ArrayList<>(CHUNK_SIZE);
+        Thread thread = Thread.currentThread();
+        worker = thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == executor;
+
+        try {
+            while (failure.get() == null && resultSet.next()) {
+                chunk.add(mapper.readRow(resultSet));
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    submit(chunk, submittedChunks, orderedChunks, completedChunks);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                submit(chunk, submittedChunks, orderedChunks, completedChunks);
+            }
+        } catch (InterruptedException e) {
+            // the chunks not started yet are cancelled and the running ones are awaited, so that no worker is left mapping rows
+            for (CompletableFuture<List<T>> future : submittedChunks) {
+                future.cancel(false);
+            }
+
+            awaitAll(orderedChunks);
+            throw e;
+        }
+
+        // wait for all the chunks, also the ones submitted after a failure
+        awaitAll(orderedChunks);
+
+        Throwable cause = failure.get();
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        if (cause instanceof ResultSetMapperException) {
+            throw (ResultSetMapperException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        } else if (cause != null) {
+            throw new ResultSetMapperException((Exception) cause);
+        }
+
+        List<T> dtoList = new ArrayList<>();
+        if (preserveOrder) {
+            for (CompletableFuture<List<T>> future : orderedChunks) {
+                dtoList.addAll(future.join());
+            }
+        } else {
+            completedChunks.forEach(dtoList::addAll);
+        }
+
+        return dtoList;
+    }
+
+    private void awaitAll(List<CompletableFuture<List<T>>> futures) {
+        while (runQueuedChunk()) {
+            // the reader maps the chunks no worker took yet
+        }
+
+        for (CompletableFuture<List<T>> future : futures) {
+            future.handle((objects, e) -> null).join();
+        }
+    }
+
+    private void submit(List<Object[]> chunk, List<CompletableFuture<List<T>>> submittedChunks,
+                        List<CompletableFuture<List<T>>> orderedChunks, Queue<List<T>> completedChunks) throws InterruptedException {
+        acquireChunk();
+
+        CompletableFuture<List<T>> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> build(chunk), worker ? this::execute : executor);
+        } catch (RuntimeException e) {
+            chunksInFlight.release();
+            throw e;
+        }
+
+        submittedChunks.add(future);
+        orderedChunks.add(future.whenComplete((objects, e) -> {
+            chunksInFlight.release();
+
+            if (e != null) {
+                failure.compareAndSet(null, e);
+            } else if (!preserveOrder) {
+                completedChunks.add(objects);
+            }
+        }));
+    }
+
+    /**
+     * It waits for a chunk to be allowed in flight. If the reader is a worker of a {@link ForkJoinPool},
+     * like the ones of the common pool, it waits as a managed blocker, so that the pool can compensate
+     * for it while the workers it waits for run. A reader that is a worker of the pool of the chunks first runs
+     * the chunks it queued and no worker took yet, since the pool may leave them queued while it compensates.
+     */
+    private void acquireChunk() throws InterruptedException {
+
+        while (!chunksInFlight.tryAcquire()) {
+            if (!runQueuedChunk()) {
+                blockForChunk();
+                return;
+            }
+        }
+    }
+
+    private void blockForChunk() throws InterruptedException {
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            private boolean acquired;
+
+            @Override
+            public boolean block() throws InterruptedException {
+
+                if (!acquired) {
+                    chunksInFlight.acquire();
+                    acquired = true;
+                }
+
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return acquired || (acquired = chunksInFlight.tryAcquire());
+            }
+        });
+    }
+
+    private void execute(Runnable task) {
+        executor.execute(task);
+
+        // the asynchronous tasks of a completable future are fork-join tasks
+        if (task instanceof ForkJoinTask) {
+            queuedChunks.addLast(task);
+        }
+    }
+
+    /**
+     * It runs in the reader the newest chunk it queued, if no worker took it yet.
+     * @return true if a chunk was run
+     */
+    private boolean runQueuedChunk() {
+        Runnable task;
+
+        while ((task = queuedChunks.pollLast()) != null) {
+            // the task completes its future when run, not when invoked as a fork-join task
+            if (((ForkJoinTask<?>) task).tryUnfork()) {
+                task.run();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private List<T> build(List<Object[]> chunk) {
+        List<T> objects = new ArrayList<>(chunk.size());
+
+        try {
+            for (Object[] row : chunk) {
+                objects.add(mapper.build(row));
+            }
+        } catch (ResultSetMapperException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ResultSetMapperException(e);
+        }
+
+        return objects;
+    }
+}
@@ -0,0 +1,370 @@
+package com.dinuberinde;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An executor of parameterized queries whose rows are mapped to objects.
+ * The prepared statements are cached per connection, in a least recently used cache, so that a query
+ * executed again is neither parsed nor planned again, and the columns of its result are bound to the
+ * mapped class again only if they change. The statements are prepared forward-only and read-only,
+ * with the configured fetch size.
+ * <br>
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  QueryExecutor executor = new QueryExecutor();
+ *  List&lt;User&gt; users = executor.list(connection, "SELECT * FROM USERS WHERE NAME = ?", User.class, "John");
+ *  User user = executor.first(connection, "SELECT * FROM USERS WHERE ID = ?", User.class, 1);
+ *  ...
+ *  executor.evict(connection);
+ * </pre>
+ * The caches are keyed by connection and their statements are bound to it: the statements of a connection
+ * should be evicted before it is closed or returned to a pool, otherwise they are released only once
+ * the connection is found closed. The executor is thread-safe, and the queries
+ * on the same connection are serialized, since a JDBC connection is not meant to be used concurrently.
+ */
+public final class QueryExecutor implements AutoCloseable {
+
+    /**
+     * The default maximum number of prepared statements cached for each connection.
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    private final int statementCacheSize;
+    private final int fetchSize;
+
+    /**
+     * The statement cache of each connection, guarded by itself.
+     */
+    private final Map<Connection, StatementCache> caches = new IdentityHashMap<>();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+
+    /**
+     * It creates an executor caching up to {@link #DEFAULT_STATEMENT_CACHE_SIZE} statements for each connection,
+     * with the fetch size of the driver.
+     */
+    public QueryExecutor() {
+        this(DEFAULT_STATEMENT_CACHE_SIZE, 0);
+    }
+
+    /**
+     * It creates an executor.
+     * @param statementCacheSize the maximum number of prepared statements cached for each connection
+     * @param fetchSize the number of rows fetched at a time, or 0 for the fetch size of the driver
+     */
+    public QueryExecutor(int statementCacheSize, int fetchSize) {
+
+        if (statementCacheSize < 1) {
+            throw new ResultSetMapperException("Statement cache size must be positive");
+        }
+
+        if (fetchSize < 0) {
+            throw new ResultSetMapperException("Fetch size cannot be negative");
+        }
+
+        this.statementCacheSize = statementCacheSize;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * It executes a query and maps its rows to a list of objects.
+     * @param connection the connection
+     * @param sql the query, with a ? placeholder for each parameter
+     * @param type the type of the objects
+     * @param parameters the values of the parameters, in order
+     * @return a list of mapped objects
+     */
+    public <T> List<T> list(Connection connection, String sql, Class<T> type, Object... parameters) {
+        return execute(connection, sql, type, parameters, Integer.MAX_VALUE);
+    }
+
+    /**
+     * It executes a query and maps its first row to an object.
+     * @param connection the connection
+     * @param sql the query, with a ? placeholder for each parameter
+     * @param type the type of the object
+     * @param parameters the values of the parameters, in order
+     * @return the object mapped, or null if the query has no rows
+     */
+    public <T> T first(Connection connection, String sql, Class<T> type, Object... parameters) {
+        List<T> dtoList = execute(connection, sql, type, parameters, 1);
+        return !dtoList.isEmpty() ? dtoList.get(0) : null;
+    }
+
+    private <T> List<T> execute(Connection connection, String sql, Class<T> type, Object[] parameters, int maxRows) {
+
+        if (connection == null) {
+            throw new ResultSetMapperException("Connection cannot be null");
+        }
+
+        if (sql == null) {
+            throw new ResultSetMapperException("SQL cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        long start = MapperListeners.start();
+        StatementCache cache = cacheOf(connection);
+
+        synchronized (cache) {
+            CachedStatement cached = null;
+
+            try {
+                cached = cache.statement(connection, sql);
+                PreparedStatement statement = cached.statement;
+                statement.clearParameters();
+
+                if (parameters != null) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        statement.setObject(i + 1, parameters[i]);
+                    }
+                }
+
+                List<T> dtoList = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    RowMapper<T> mapper = cached.mapper(type, resultSet);
+
+                    while (dtoList.size() < maxRows && resultSet.next()) {
+                        dtoList.add(mapper.map(resultSet));
+                    }
+
+                    MapperListeners.deduplicated(mapper);
+                }
+
+                MapperListeners.mapped(type, MapperOperation.QUERY, dtoList.size(), start);
+                return dtoList;
+            } catch (SQLException e) {
+                // the statement may be unusable, for instance if the schema changed: prepare it again next time
+                if (cached != null) {
+                    cache.remove(sql);
+                }
+
+                throw MapperListeners.failed(type, MapperOperation.QUERY, new ResultSetMapperException(e));
+            } catch (ResultSetMapperException e) {
+                invalidate(cached);
+                throw MapperListeners.failed(type, MapperOperation.QUERY, e);
+            } catch (Exception e) {
+                invalidate(cached);
+                throw MapperListeners.failed(type, MapperOperation.QUERY, new ResultSetMapperException(e));
+            }
+        }
+    }
+
+    private static void invalidate(CachedStatement cached) {
+
+        if (cached != null) {
+            cached.invalidate();
+        }
+    }
+
+    private StatementCache cacheOf(Connection connection) {
+        synchronized (caches) {
+            StatementCache cache = caches.get(connection);
+
+            if (cache == null) {
+                // the statements hold their connection, so the caches of the connections closed without being evicted are dropped here
+                caches.entrySet().removeIf(entry -> isClosed(entry.getKey()));
+                cache = new StatementCache();
+                caches.put(connection, cache);
+            }
+
+            return cache;
+        }
+    }
+
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * It closes and discards the statements cached for a connection.
+     * @param connection the connection
+     */
+    public void evict(Connection connection) {
+        StatementCache cache;
+
+        synchronized (caches) {
+            cache = caches.remove(connection);
+        }
+
+        if (cache != null) {
+            synchronized (cache) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * It closes and discards the statements cached for all the connections.
+     */
+    @Override
+    public void close() {
+        List<StatementCache> closed;
+
+        synchronized (caches) {
+            closed = new ArrayList<>(caches.values());
+            caches.clear();
+        }
+
+        for (StatementCache cache : closed) {
+            synchronized (cache) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * It yields the number of executions that reused a cached statement.
+     * @return the number of statement cache hits
+     */
+    public long getStatementHits() {
+        return statementHits.sum();
+    }
+
+    /**
+     * It yields the number of executions that prepared a statement.
+     * @return the number of statement cache misses
+     */
+    public long getStatementMisses() {
+        return statementMisses.sum();
+    }
+
+    /**
+     * The least recently used statements of a connection, with the mappers bound to their results.
+     */
+    private final class StatementCache extends LinkedHashMap<String, CachedStatement> {
+        private static final long serialVersionUID = 1L;
+
+        private StatementCache() {
+            super(16, 0.75f, true);
+        }
+
+        private CachedStatement statement(Connection connection, String sql) throws SQLException {
+            CachedStatement cached = super.get(sql);
+
+            if (cached != null && !cached.statement.isClosed()) {
+                statementHits.increment();
+                return cached;
+            }
+
+            statementMisses.increment();
+            cached = new CachedStatement(prepare(connection, sql));
+            put(sql, cached);
+            return cached;
+        }
+
+        private PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+
+            try {
+                statement.setFetchDirection(ResultSet.FETCH_FORWARD);
+
+                if (fetchSize > 0) {
+                    statement.setFetchSize(fetchSize);
+                }
+            } catch (SQLException e) {
+                // hints only
+            }
+
+            return statement;
+        }
+
+        @Override
+        public CachedStatement remove(Object sql) {
+            CachedStatement cached = super.remove(sql);
+
+            if (cached != null) {
+                cached.close();
+            }
+
+            return cached;
+        }
+
+        @Override
+        public void clear() {
+            values().forEach(CachedStatement::close);
+            super.clear();
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+
+            if (size() > statementCacheSize) {
+                eldest.getValue().close();
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * A prepared statement and the mapper bound to the columns of its last result.
+     * The mapper is bound again if the mapped class or its mapping plan changes, or if the columns
+     * of the result differ, for instance after the schema of a {@code SELECT *} changed.
+     */
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private Class<?> type;
+        private int generation;
+        private int columnCount;
+        private RowMapper<?> mapper;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> RowMapper<T> mapper(Class<T> type, ResultSet resultSet) throws SQLException {
+            // the plans are rebuilt after a converter is registered or the accessor strategy changes
+            int generation = MappingPlan.generation();
+
+            // a schema change usually changes the number of columns; the other ones are caught by invalidate()
+            int columnCount = resultSet.getMetaData().getColumnCount();
+
+            if (this.type != type || this.generation != generation || this.columnCount != columnCount) {
+                this.mapper = ResultSetMapper.rowMapper(type, resultSet);
+                this.type = type;
+                this.generation = generation;
+                this.columnCount = columnCount;
+            } else if (mapper instanceof BoundMapper) {
+                // each execution deduplicates its own strings
+                ((BoundMapper<?>) mapper).clearTables();
+            }
+
+            return (RowMapper<T>) mapper;
+        }
+
+        /**
+         * It discards the mapper after a failed mapping, so that the next execution binds it again
+         * to the columns of its result set.
+         */
+        private void invalidate() {
+            type = null;
+            mapper = null;
+        }
+
+        private void close() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // the statement is discarded anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.dinuberinde;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of the mapped results of the queries of a {@link QueryExecutor}, for the queries run over and over
+ * on data that rarely changes, like reference data and configuration tables.
+ * The results are keyed by their query, parameters and mapped class, and they are held as unmodifiable lists,
+ * up to a maximum number of results: the least recently used ones are evicted first, and the results
+ * expire after a time to live. The concurrent misses on the same key are loaded by a single query,
+ * whose result is shared by all the callers.
+ * <br>
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  ResultCache cache = new ResultCache(executor, 1000, Duration.ofMinutes(5));
+ *  List&lt;Country&gt; countries = cache.list(connection, "SELECT * FROM COUNTRY", Country.class);
+ *  ...
+ *  // after COUNTRY is updated
+ *  cache.invalidateTable("COUNTRY");
+ * </pre>
+ * The mapped objects are shared by all the callers and must not be modified.
+ */
+public final class ResultCache {
+    private final QueryExecutor executor;
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+
+    /**
+     * The cached results, in access order, guarded by itself.
+     */
+    private final Map<Key, Entry> entries;
+
+    /**
+     * The results being loaded, so that the concurrent misses on the same key wait for the same query.
+     */
+    private final Map<Key, CompletableFuture<List<?>>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * The number of invalidations, guarded by {@link #entries}: a result loaded across an invalidation is not cached.
+     */
+    private long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * It creates a result cache.
+     * @param executor the executor of the queries
+     * @param maximumSize the maximum number of cached results
+     * @param timeToLive the time after which a cached result expires
+     */
+    public ResultCache(QueryExecutor executor, int maximumSize, Duration timeToLive) {
+
+        if (executor == null) {
+            throw new ResultSetMapperException("Executor cannot be null");
+        }
+
+        if (maximumSize < 1) {
+            throw new ResultSetMapperException("Maximum size must be positive");
+        }
+
+        if (timeToLive == null || timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new ResultSetMapperException("Time to live must be positive");
+        }
+
+        this.executor = executor;
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+
+                if (size() > ResultCache.this.maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * It yields the cached result of a query, executing the query if its result is not cached or it expired.
+     * @param connection the connection used if the query is executed
+     * @param sql the query, with a ? placeholder for each parameter
+     * @param type the type of the objects
+     * @param parameters the values of the parameters, in order
+     * @return the unmodifiable list of mapped objects
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> list(Connection connection, String sql, Class<T> type, Object... parameters) {
+
+        if (sql == null) {
+            throw new ResultSetMapperException("SQL cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        Key key = new Key(sql, type, parameters);
+        List<T> cached = (List<T>) cached(key);
+
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<List<?>> load = new CompletableFuture<>();
+        CompletableFuture<List<?>> inFlight = loading.putIfAbsent(key, load);
+
+        if (inFlight != null) {
+            // another caller is executing the same query: share its result
+            hits.increment();
+            return (List<T>) await(inFlight);
+        }
+
+        misses.increment();
+
+        try {
+            long invalidationsAtStart;
+            synchronized (entries) {
+                invalidationsAtStart = invalidations;
+            }
+
+            List<T> result = Collections.unmodifiableList(executor.list(connection, sql, type, parameters));
+
+            synchronized (entries) {
+                if (invalidations == invalidationsAtStart) {
+                    entries.put(key, new Entry(result, System.nanoTime() + timeToLiveNanos, tablesOf(sql)));
+                }
+            }
+
+            load.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    private List<?> cached(Key key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+
+            if (entry == null) {
+                return null;
+            }
+
+            if (System.nanoTime() - entry.expiresAt >= 0) {
+                entries.remove(key);
+                expirations.increment();
+                return null;
+            }
+
+            return entry.result;
+        }
+    }
+
+    private static List<?> await(CompletableFuture<List<?>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            // the loads only fail with the unchecked exceptions of their query
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * It discards the cached results of the queries referring to a table. A query refers to a table if its name
+     * appears in the query as a word, so a result may be discarded even if its query does not read the table.
+     * @param table the name of the table, without schema
+     */
+    public void invalidateTable(String table) {
+
+        if (table == null) {
+            throw new ResultSetMapperException("Table cannot be null");
+        }
+
+        String name = table.toUpperCase(Locale.ROOT);
+
+        synchronized (entries) {
+            invalidations++;
+
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                if (it.next().tables.contains(name)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * It discards all the cached results.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations++;
+            entries.clear();
+        }
+    }
+
+    /**
+     * It yields the number of cached results, including the expired ones not yet discarded.
+     * @return the number of cached results
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * It yields the number of calls served by a cached result or by the query of a concurrent call.
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * It yields the number of calls that executed their query.
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * It yields the number of results evicted because the cache was full.
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * It yields the number of results discarded because they expired.
+     * @return the number of expirations
+     */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /**
+     * It yields the upper-case words of a query, a superset of the names of the tables it refers to.
+     */
+    private static Set<String> tablesOf(String sql) {
+        Set<String> words = new HashSet<>();
+        int length = sql.length();
+
+        for (int i = 0; i < length; ) {
+            char c = sql.charAt(i);
+
+            if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_' || sql.charAt(i) == '$')) {
+                    i++;
+                }
+
+                words.add(sql.substring(start, i).toUpperCase(Locale.ROOT));
+            } else {
+                i++;
+            }
+        }
+
+        return words;
+    }
+
+    /**
+     * The key of a cached result.
+     */
+    private static final class Key {
+        private final String sql;
+        private final Class<?> type;
+        private final Object[] parameters;
+        private final int hashCode;
+
+        private Key(String sql, Class<?> type, Object[] parameters) {
+            this.sql = sql;
+            this.type = type;
+            this.parameters = parameters != null ? parameters.clone() : new Object[0];
+            this.hashCode = 31 * (31 * sql.hashCode() + type.hashCode()) + Arrays.deepHashCode(this.parameters);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) other;
+            return hashCode == key.hashCode && type == key.type && sql.equals(key.sql) && Arrays.deepEquals(parameters, key.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * A cached result, with its expiration time and the words of its query.
+     */
+    private static final class Entry {
+        private final List<?> result;
+        private final long expiresAt;
+        private final Set<String> tables;
+
+        private Entry(List<?> result, long expiresAt, Set<String> tables) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+            this.tables = tables;
+        }
+    }
+}
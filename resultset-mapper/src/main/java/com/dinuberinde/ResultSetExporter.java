@@ -0,0 +1,482 @@
+package com.dinuberinde;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Base64;
+
+/**
+ * The export of a result set to CSV or JSON, driven by the {@link MapperLabel} fields of a class,
+ * without mapping the rows to objects. Each row is written with the values its object would have,
+ * including the formatting of {@link MapperDateFormatter}, {@link MapperDecimalFormatter} and the
+ * registered {@link ColumnConverter}s, in the order of the fields of the class, and the columns of
+ * primitive fields are written without boxing their values. The rows are written through a reused buffer,
+ * and the byte outputs are encoded in UTF-8.
+ * <ul>
+ *     <li>CSV: a header with the labels of the fields, then one line for each row, separated by a line feed;
+ *     the values containing a comma, a quote or a line break are quoted, and nulls are empty</li>
+ *     <li>JSON: an array with one object for each row, keyed by the labels of the fields; numbers and booleans
+ *     are written as such, the values of the other types as strings, byte arrays in Base64</li>
+ * </ul>
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  try (Writer writer = Files.newBufferedWriter(path)) {
+ *      long rows = ResultSetExporter.toCsv(resultSet, User.class, writer);
+ *  }
+ * </pre>
+ * Large object fields cannot be exported.
+ */
+public final class ResultSetExporter {
+
+    /**
+     * The number of characters buffered before they are written to the output.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    private ResultSetExporter() {}
+
+    /**
+     * It exports the remaining rows of a result set to CSV.
+     * @param resultSet the result set
+     * @param type the class whose annotated fields define the columns
+     * @param writer the output, flushed but not closed
+     * @return the number of exported rows
+     */
+    public static long toCsv(ResultSet resultSet, Class<?> type, Writer writer) {
+        checkOutput(writer);
+        return export(resultSet, type, false, new WriterSink(writer));
+    }
+
+    /**
+     * It exports the remaining rows of a result set to CSV, encoded in UTF-8.
+     * @param resultSet the result set
+     * @param type the class whose annotated fields define the columns
+     * @param outputStream the output, flushed but not closed
+     * @return the number of exported rows
+     */
+    public static long toCsv(ResultSet resultSet, Class<?> type, OutputStream outputStream) {
+        checkOutput(outputStream);
+        return export(resultSet, type, false, new EncodingSink(outputStream, null));
+    }
+
+    /**
+     * It exports the remaining rows of a result set to CSV, encoded in UTF-8.
+     * @param resultSet the result set
+     * @param type the class whose annotated fields define the columns
+     * @param channel the output, not closed
+     * @return the number of exported rows
+     */
+    public static long toCsv(ResultSet resultSet, Class<?> type, WritableByteChannel channel) {
+        checkOutput(channel);
+        return export(resultSet, type, false, new EncodingSink(null, channel));
+    }
+
+    /**
+     * It exports the remaining rows of a result set to a JSON array.
+     * @param resultSet the result set
+     * @param type the class whose annotated fields define the keys of the objects
+     * @param writer the output, flushed but not closed
+     * @return the number of exported rows
+     */
+    public static long toJson(ResultSet resultSet, Class<?> type, Writer writer) {
+        checkOutput(writer);
+        return export(resultSet, type, true, new WriterSink(writer));
+    }
+
+    /**
+     * It exports the remaining rows of a result set to a JSON array, encoded in UTF-8.
+     * @param resultSet the result set
+     * @param type the class whose annotated fields define the keys of the objects
+     * @param outputStream the output, flushed but not closed
+     * @return the number of exported rows
+     */
+    public static long toJson(ResultSet resultSet, Class<?> type, OutputStream outputStream) {
+        checkOutput(outputStream);
+        return export(resultSet, type, true, new EncodingSink(outputStream, null));
+    }
+
+    /**
+     * It exports the remaining rows of a result set to a JSON array, encoded in UTF-8.
+     * @param resultSet the result set
+     * @param type the class whose annotated fields define the keys of the objects
+     * @param channel the output, not closed
+     * @return the number of exported rows
+     */
+    public static long toJson(ResultSet resultSet, Class<?> type, WritableByteChannel channel) {
+        checkOutput(channel);
+        return export(resultSet, type, true, new EncodingSink(null, channel));
+    }
+
+    private static void checkOutput(Object output) {
+
+        if (output == null) {
+            throw new ResultSetMapperException("Output cannot be null");
+        }
+    }
+
+    private static long export(ResultSet resultSet, Class<?> type, boolean json, Sink sink) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        long start = MapperListeners.start();
+        try {
+            BoundMapper<?> mapper = BoundMapper.bind(MappingPlan.of(type), resultSet.getMetaData());
+            ExportColumn[] columns = columns(mapper);
+            StringBuilder buffer = new StringBuilder(BUFFER_SIZE + BUFFER_SIZE / 4);
+            long rows = 0;
+
+            if (json) {
+                buffer.append('[');
+            } else {
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) {
+                        buffer.append(',');
+                    }
+
+                    appendCsv(buffer, columns[i].label);
+                }
+
+                buffer.append('\n');
+            }
+
+            while (resultSet.next()) {
+
+                if (json) {
+                    buffer.append(rows > 0 ? ",{" : "{");
+                    for (int i = 0; i < columns.length; i++) {
+                        buffer.append(columns[i].key);
+                        columns[i].append(buffer, resultSet, true);
+                    }
+                    buffer.append('}');
+                } else {
+                    for (int i = 0; i < columns.length; i++) {
+                        if (i > 0) {
+                            buffer.append(',');
+                        }
+
+                        columns[i].append(buffer, resultSet, false);
+                    }
+                    buffer.append('\n');
+                }
+
+                rows++;
+
+                if (buffer.length() >= BUFFER_SIZE) {
+                    sink.write(buffer);
+                    buffer.setLength(0);
+                }
+            }
+
+            if (json) {
+                buffer.append(']');
+            }
+
+            sink.write(buffer);
+            sink.flush();
+
+            MapperListeners.mapped(type, MapperOperation.EXPORT, rows, start);
+            return rows;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, MapperOperation.EXPORT, e);
+        } catch (Exception e) {
+            throw MapperListeners.failed(type, MapperOperation.EXPORT, new ResultSetMapperException(e));
+        }
+    }
+
+    private static ExportColumn[] columns(BoundMapper<?> mapper) {
+        FieldMapping[] fields = mapper.getFields();
+        int[] columnIndexes = mapper.getColumnIndexes();
+        ExportColumn[] columns = new ExportColumn[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            Class<?> fieldType = fields[i].getType();
+
+            if (fieldType == LobHandle.class || fieldType == Blob.class || fieldType == Clob.class
+                    || fieldType == InputStream.class || fieldType == Array.class) {
+                throw new ResultSetMapperException("Field " + fields[i].getLabel().name() + " of type " + fieldType.getName() + " cannot be exported");
+            }
+
+            columns[i] = new ExportColumn(fields[i], columnIndexes[i], i == 0);
+        }
+
+        return columns;
+    }
+
+    private static void appendCsv(StringBuilder buffer, String text) {
+        boolean quoted = false;
+
+        for (int i = 0; i < text.length() && !quoted; i++) {
+            char c = text.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quoted) {
+            buffer.append(text);
+            return;
+        }
+
+        buffer.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (c == '"') {
+                buffer.append('"');
+            }
+
+            buffer.append(c);
+        }
+        buffer.append('"');
+    }
+
+    private static void appendJson(StringBuilder buffer, String text) {
+        buffer.append('"');
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            switch (c) {
+                case '"': buffer.append("\\\""); break;
+                case '\\': buffer.append("\\\\"); break;
+                case '\n': buffer.append("\\n"); break;
+                case '\r': buffer.append("\\r"); break;
+                case '\t': buffer.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        buffer.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        buffer.append(c);
+                    }
+            }
+        }
+
+        buffer.append('"');
+    }
+
+    /**
+     * A field written to the export, read by the same reader that maps it,
+     * or without boxing if the field is primitive, or its boxed type, and has no converter.
+     */
+    private static final class ExportColumn {
+        private static final int LONG = 0, INT = 1, DOUBLE = 2, FLOAT = 3, BOOLEAN = 4, OBJECT = 5;
+
+        private final FieldMapping field;
+        private final int columnIndex;
+        private final int kind;
+        private final String label;
+
+        /**
+         * The JSON key of the field, followed by a colon and preceded by a comma if the field is not the first.
+         */
+        private final String key;
+
+        private ExportColumn(FieldMapping field, int columnIndex, boolean first) {
+            this.field = field;
+            this.columnIndex = columnIndex;
+            this.kind = kindOf(field, columnIndex);
+            this.label = field.getLabel().name();
+
+            StringBuilder key = new StringBuilder(first ? "" : ",");
+            appendJson(key, label);
+            this.key = key.append(':').toString();
+        }
+
+        private static int kindOf(FieldMapping field, int columnIndex) {
+            Class<?> fieldType = field.getType();
+
+            // a missing optional column has the default value, and a registered converter takes precedence
+            if (columnIndex == 0 || ColumnConverters.of(fieldType) != null) {
+                return OBJECT;
+            } else if (fieldType == long.class || fieldType == Long.class) {
+                return LONG;
+            } else if (fieldType == int.class || fieldType == Integer.class) {
+                return INT;
+            } else if (fieldType == double.class || fieldType == Double.class) {
+                return DOUBLE;
+            } else if (fieldType == float.class || fieldType == Float.class) {
+                return FLOAT;
+            } else if (fieldType == boolean.class || fieldType == Boolean.class) {
+                return BOOLEAN;
+            } else {
+                return OBJECT;
+            }
+        }
+
+        private void append(StringBuilder buffer, ResultSet resultSet, boolean json) throws SQLException {
+            switch (kind) {
+                case LONG:
+                    buffer.append(resultSet.getLong(columnIndex));
+                    break;
+                case INT:
+                    buffer.append(resultSet.getInt(columnIndex));
+                    break;
+                case DOUBLE:
+                    appendDouble(buffer, resultSet.getDouble(columnIndex), json);
+                    break;
+                case FLOAT:
+                    appendFloat(buffer, resultSet.getFloat(columnIndex), json);
+                    break;
+                case BOOLEAN:
+                    buffer.append(resultSet.getBoolean(columnIndex));
+                    break;
+                default:
+                    appendObject(buffer, field.read(resultSet, columnIndex), json);
+            }
+        }
+
+        private static void appendDouble(StringBuilder buffer, double value, boolean json) {
+
+            // JSON has no literal for NaN and the infinities
+            if (json && !Double.isFinite(value)) {
+                appendJson(buffer, Double.toString(value));
+            } else {
+                buffer.append(value);
+            }
+        }
+
+        private static void appendFloat(StringBuilder buffer, float value, boolean json) {
+
+            if (json && !Float.isFinite(value)) {
+                appendJson(buffer, Float.toString(value));
+            } else {
+                buffer.append(value);
+            }
+        }
+
+        private static void appendObject(StringBuilder buffer, Object value, boolean json) {
+
+            if (value == null) {
+                if (json) {
+                    buffer.append("null");
+                }
+            } else if (value instanceof Double) {
+                appendDouble(buffer, (Double) value, json);
+            } else if (value instanceof Float) {
+                appendFloat(buffer, (Float) value, json);
+            } else if (value instanceof Number || value instanceof Boolean) {
+                buffer.append(value);
+            } else {
+                String text = value instanceof byte[] ? Base64.getEncoder().encodeToString((byte[]) value) : value.toString();
+
+                if (json) {
+                    appendJson(buffer, text);
+                } else {
+                    appendCsv(buffer, text);
+                }
+            }
+        }
+    }
+
+    /**
+     * The output of an export.
+     */
+    private interface Sink {
+        void write(CharSequence chars) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class WriterSink implements Sink {
+        private final Writer writer;
+
+        private WriterSink(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(CharSequence chars) throws IOException {
+            writer.append(chars);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * An output of bytes, written through a reused buffer of encoded bytes.
+     * The characters are always written at the end of a row, so no surrogate pair is split between two writes.
+     */
+    private static final class EncodingSink implements Sink {
+        private final OutputStream outputStream;
+        private final WritableByteChannel channel;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE * 2);
+
+        private EncodingSink(OutputStream outputStream, WritableByteChannel channel) {
+            this.outputStream = outputStream;
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(CharSequence chars) throws IOException {
+            CharBuffer input = CharBuffer.wrap(chars);
+
+            while (true) {
+                CoderResult result = encoder.encode(input, bytes, false);
+
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isUnderflow()) {
+                    return;
+                } else {
+                    result.throwException();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            CharBuffer empty = CharBuffer.allocate(0);
+
+            while (encoder.encode(empty, bytes, true).isOverflow()) {
+                drain();
+            }
+
+            while (encoder.flush(bytes).isOverflow()) {
+                drain();
+            }
+
+            drain();
+
+            if (outputStream != null) {
+                outputStream.flush();
+            }
+        }
+
+        private void drain() throws IOException {
+            bytes.flip();
+
+            if (outputStream != null) {
+                outputStream.write(bytes.array(), bytes.arrayOffset(), bytes.limit());
+            } else {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            }
+
+            bytes.clear();
+        }
+    }
+}
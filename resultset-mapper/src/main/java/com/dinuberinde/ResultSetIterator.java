@@ -0,0 +1,118 @@
+package com.dinuberinde;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy iterator over the rows of a result set: each row is mapped only when it is pulled,
+ * so that the memory used does not depend on the number of rows.
+ * Closing the iterator closes the result set and, optionally, its statement. The result set is also
+ * closed when the iterator is exhausted.
+ * <br>
+ * <p>Usage:</p>
+ * <pre class="code">
+ *  try (ResultSetIterator&lt;User&gt; users = ResultSetMapper.iterator(resultSet, User.class)) {
+ *      while (users.hasNext()) {
+ *          process(users.next());
+ *      }
+ *  }
+ * </pre>
+ */
+public final class ResultSetIterator<T> implements Iterator<T>, AutoCloseable {
+    private final ResultSet resultSet;
+    private final Class<T> type;
+    private final RowMapper<T> mapper;
+    private final boolean closeStatement;
+
+    /**
+     * The start time of the iteration, for the {@link MapperListener}s.
+     */
+    private final long start;
+    private long rows;
+
+    /**
+     * True if the cursor is on a row not yet returned by {@link #next()}.
+     */
+    private boolean rowAvailable;
+    private boolean done;
+
+    ResultSetIterator(ResultSet resultSet, Class<T> type, RowMapper<T> mapper, boolean closeStatement) {
+        this.resultSet = resultSet;
+        this.type = type;
+        this.mapper = mapper;
+        this.closeStatement = closeStatement;
+        this.start = MapperListeners.start();
+    }
+
+    @Override
+    public boolean hasNext() {
+
+        if (rowAvailable) {
+            return true;
+        }
+
+        if (done) {
+            return false;
+        }
+
+        try {
+            rowAvailable = resultSet.next();
+        } catch (SQLException e) {
+            throw MapperListeners.failed(type, MapperOperation.ITERATE, new ResultSetMapperException(e));
+        }
+
+        if (!rowAvailable) {
+            close();
+        }
+
+        return rowAvailable;
+    }
+
+    @Override
+    public T next() {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        rowAvailable = false;
+
+        try {
+            T dto = mapper.map(resultSet);
+            rows++;
+            return dto;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, MapperOperation.ITERATE, e);
+        }
+    }
+
+    /**
+     * It closes the result set and, if requested, its statement.
+     */
+    @Override
+    public void close() {
+
+        if (done) {
+            return;
+        }
+
+        done = true;
+        rowAvailable = false;
+        MapperListeners.deduplicated(mapper);
+        MapperListeners.mapped(type, MapperOperation.ITERATE, rows, start);
+
+        try {
+            Statement statement = closeStatement ? resultSet.getStatement() : null;
+            resultSet.close();
+
+            if (statement != null) {
+                statement.close();
+            }
+        } catch (SQLException e) {
+            throw new ResultSetMapperException(e);
+        }
+    }
+}
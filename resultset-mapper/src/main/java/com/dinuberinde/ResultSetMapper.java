@@ -0,0 +1,1054 @@
+package com.dinuberinde;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The goal of this library is to map a Java {@link java.sql.ResultSet} to a POJO class.
+ * <p>Example:</p>
+ * <pre class="code">
+ *
+ *public class User {
+ *
+ *  &#064;MapperLabel(name = "ID")
+ *  private Long id;
+ *
+ *  &#064;MapperLabel(name = "NAME")
+ *  private String name;
+ *
+ *  &#064;MapperLabel(name = "BIRTHDATE")
+ *  private Date birthDate;
+ *
+ *  // getters and setters or Lombok
+ * }
+ *</pre>
+ *
+ * <p>Usage:</p>
+ * <pre class="code">
+ *
+ *  // map result set to a user
+ *  ResultSetMapper.toObject(resultSet, User.class);
+ *
+ *  // or map result set to a list of users
+ *  List<User> users = ResultSetMapper.toList(resultSet, User.class);
+ *
+ *  // or apply the current row of the result set to an object
+ *  List<User> users = new ArrayList<>();
+ *  while(resultSet.next()) {
+ *      users.add(ResultSetMapper.apply(resultSet, User.class));
+ *  }
+ *
+ *  // or bind the mapping to the columns of the result set once and map row by row
+ *  BoundMapper<User> mapper = ResultSetMapper.bind(resultSet, User.class);
+ *  while(resultSet.next()) {
+ *      users.add(mapper.map(resultSet));
+ *  }
+ * </pre>
+ */
+public class ResultSetMapper {
+
+    /**
+     * The fetch size hinted to the driver when streaming, if the driver has none.
+     */
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    /**
+     * The last binding of each thread, so that mapping a result set row by row with {@link #apply(ResultSet, Class)}
+     * or {@link #applyInto(ResultSet, Object)} reads its metadata once per result set instead of once per row.
+     * The binding is weakly referenced, so that the threads do not retain the mapped classes, their class loaders
+     * and the deduplication tables of the mappers.
+     */
+    private static final ThreadLocal<WeakReference<LastBinding>> LAST_BINDING = new ThreadLocal<>();
+
+    private ResultSetMapper() {}
+
+    /**
+     * It sets the strategy used to write the mapped values into the fields of the objects.
+     * The default strategy is {@link AccessorStrategy#METHOD_HANDLE}.
+     * @param strategy the accessor strategy
+     */
+    public static void setAccessorStrategy(AccessorStrategy strategy) {
+
+        if (strategy == null) {
+            throw new ResultSetMapperException("Accessor strategy cannot be null");
+        }
+
+        MappingPlan.setAccessorStrategy(strategy);
+    }
+
+    /**
+     * It yields the strategy used to write the mapped values into the fields of the objects.
+     * @return the accessor strategy
+     */
+    public static AccessorStrategy getAccessorStrategy() {
+        return MappingPlan.getAccessorStrategy();
+    }
+
+    /**
+     * It registers the converter of a column to a Java type, replacing the built-in one, if any.
+     * Converters should be registered at startup: the cached mapping plans are discarded, so that
+     * the classes mapped from now on use the converter, but the mappers already bound keep the previous one.
+     * @param type the Java type
+     * @param converter the converter
+     */
+    public static <T> void registerConverter(Class<T> type, ColumnConverter<? extends T> converter) {
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        if (converter == null) {
+            throw new ResultSetMapperException("Converter cannot be null");
+        }
+
+        ColumnConverters.register(type, converter);
+    }
+
+    /**
+     * It registers a listener of the mapping activity: rows mapped, time spent, sampled field timings,
+     * missing optional columns and failures. The mapping is timed only while a listener is registered
+     * or while the JDK Flight Recorder events of the mapper are enabled.
+     * @param listener the listener
+     */
+    public static void addListener(MapperListener listener) {
+
+        if (listener == null) {
+            throw new ResultSetMapperException("Listener cannot be null");
+        }
+
+        MapperListeners.add(listener);
+    }
+
+    /**
+     * It unregisters a listener of the mapping activity.
+     * @param listener the listener
+     * @return true if the listener was registered
+     */
+    public static boolean removeListener(MapperListener listener) {
+        return MapperListeners.remove(listener);
+    }
+
+    /**
+     * It builds and caches the mapping plans of the given classes, so that
+     * the reflection over their annotated fields is not paid by the first mapped rows.
+     * It is meant to be called once at startup.
+     * @param types the classes to be mapped
+     */
+    public static void warmUp(Class<?>... types) {
+
+        if (types == null) {
+            throw new ResultSetMapperException("Types cannot be null");
+        }
+
+        for (Class<?> type : types) {
+
+            if (type == null) {
+                throw new ResultSetMapperException("Type cannot be null");
+            }
+
+            try {
+                MappingPlan.of(type);
+            } catch (ResultSetMapperException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ResultSetMapperException(e);
+            }
+        }
+    }
+
+    /**
+     * It binds the mapping of a class to the columns of a result set, so that
+     * its rows can be mapped by column index.
+     * This is the fastest way to map a result set row by row.
+     * @param resultSet the result set
+     * @param type the type of the resulting objects
+     * @return the bound mapper
+     * @throws ResultSetMapperException if a required column does not exist in the result set
+     */
+    public static <T> BoundMapper<T> bind(ResultSet resultSet, Class<T> type) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        try {
+            return bind(MappingPlan.of(type), resultSet);
+        } catch (ResultSetMapperException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ResultSetMapperException(e);
+        }
+    }
+
+    /**
+     * It yields the mapper of a class compiled at runtime into straight-line code,
+     * meant for the highest-volume queries. The compilation happens once per class.
+     * If the compilation is not possible the mapper falls back to the regular mapping.
+     * @param type the type of the resulting objects
+     * @return the compiled mapper
+     */
+    public static <T> CompiledMapper<T> compiled(Class<T> type) {
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        try {
+            return CompiledMapper.of(type);
+        } catch (ResultSetMapperException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ResultSetMapperException(e);
+        }
+    }
+
+    /**
+     * It maps the current row of the result set to an object.
+     * The binding to the columns of the result set is kept for the next row of the same result set
+     * on the same thread, so that mapping row by row reads the metadata once.
+     * @param resultSet the result set
+     * @param type the type of the resulting object
+     * @return the object mapped
+     */
+    public static <T> T apply(ResultSet resultSet, Class<T> type) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        long start = MapperListeners.start();
+        try {
+            T dto = lastBinding(type, resultSet, false).map(resultSet);
+            MapperListeners.mapped(type, MapperOperation.APPLY, 1, start);
+            return dto;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, MapperOperation.APPLY, e);
+        } catch (Exception e) {
+            throw MapperListeners.failed(type, MapperOperation.APPLY, new ResultSetMapperException(e));
+        }
+    }
+
+    /**
+     * It maps the current row of the result set into an existing object, overwriting its mapped fields,
+     * so that no object is created. To map many rows into the same object,
+     * {@link #forEachReusing(ResultSet, Class, Consumer)} or {@link BoundMapper#mapInto(ResultSet, Object)} are faster.
+     * @param resultSet the result set
+     * @param target the object to overwrite
+     * @return the target object
+     */
+    public static <T> T applyInto(ResultSet resultSet, T target) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (target == null) {
+            throw new ResultSetMapperException("Target cannot be null");
+        }
+
+        @SuppressWarnings("unchecked")
+        Class<T> type = (Class<T>) target.getClass();
+        long start = MapperListeners.start();
+        try {
+            T dto = ((BoundMapper<T>) lastBinding(type, resultSet, true)).mapInto(resultSet, target);
+            MapperListeners.mapped(type, MapperOperation.APPLY_INTO, 1, start);
+            return dto;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, MapperOperation.APPLY_INTO, e);
+        } catch (Exception e) {
+            throw MapperListeners.failed(type, MapperOperation.APPLY_INTO, new ResultSetMapperException(e));
+        }
+    }
+
+    /**
+     * It maps each row of a result set into the same object, a flyweight that is handed to the consumer
+     * and then overwritten by the next row, so that scans create no object per row.
+     * The consumer must not retain the object, or must copy it.
+     * @param resultSet the result set
+     * @param type the type of the object
+     * @param consumer the consumer of the object, called once per row
+     * @return the number of mapped rows
+     */
+    public static <T> long forEachReusing(ResultSet resultSet, Class<T> type, Consumer<T> consumer) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        if (consumer == null) {
+            throw new ResultSetMapperException("Consumer cannot be null");
+        }
+
+        long start = MapperListeners.start();
+        try {
+            BoundMapper<T> mapper = bind(MappingPlan.of(type), resultSet);
+            T dto = mapper.newInstance();
+            long count = 0;
+
+            while (resultSet.next()) {
+                consumer.accept(mapper.mapRow(resultSet, dto));
+                count++;
+            }
+
+            MapperListeners.deduplicated(mapper);
+            MapperListeners.mapped(type, MapperOperation.FOR_EACH_REUSING, count, start);
+            return count;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, MapperOperation.FOR_EACH_REUSING, e);
+        } catch (Exception e) {
+            throw MapperListeners.failed(type, MapperOperation.FOR_EACH_REUSING, new ResultSetMapperException(e));
+        }
+    }
+
+    /**
+     * It maps a result set to a single object by iterating over the result set.
+     * @param resultSet the result set
+     * @param type the type of the resulting object
+     * @return the object mapped
+     */
+    public static <T> T toObject(ResultSet resultSet, Class<T> type) {
+        List<T> dtoList = toList(resultSet, type);
+        return !dtoList.isEmpty() ? dtoList.get(0) : null;
+    }
+
+    /**
+     * It maps a result set to a list of objects by iterating over the result set.
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @return a list of mapped objects
+     */
+    public static <T> List<T> toList(ResultSet resultSet, Class<T> type) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        long start = MapperListeners.start();
+        try {
+            RowMapper<T> mapper = rowMapper(type, resultSet);
+            List<T> dtoList = new ArrayList<>();
+
+            while (resultSet.next()) {
+                T dto = mapper.map(resultSet);
+                dtoList.add(dto);
+            }
+
+            MapperListeners.deduplicated(mapper);
+            MapperListeners.mapped(type, MapperOperation.TO_LIST, dtoList.size(), start);
+            return dtoList;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, MapperOperation.TO_LIST, e);
+        } catch (Exception e) {
+            throw MapperListeners.failed(type, MapperOperation.TO_LIST, new ResultSetMapperException(e));
+        }
+    }
+
+    /**
+     * It maps the rows of a join to a list of parent objects in a single pass, aggregating the rows
+     * having the same {@link MapperId} into one parent and adding their child objects to the
+     * {@link MapperCollection} fields of the parent, so that a one-to-many relation is loaded by one query.
+     * The children are read from the columns whose labels start with the prefix of their collection.
+     * @param resultSet the result set of the join
+     * @param type the type of the parent objects, having a field annotated with {@link MapperId}
+     * @return the parent objects, in the order of their first row
+     */
+    public static <T> List<T> toAggregate(ResultSet resultSet, Class<T> type) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        long start = MapperListeners.start();
+        try {
+            List<T> dtoList = AggregateMapper.bind(MappingPlan.of(type), resultSet.getMetaData()).toList(resultSet);
+            MapperListeners.mapped(type, MapperOperation.TO_AGGREGATE, dtoList.size(), start);
+            return dtoList;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, MapperOperation.TO_AGGREGATE, e);
+        } catch (Exception e) {
+            throw MapperListeners.failed(type, MapperOperation.TO_AGGREGATE, new ResultSetMapperException(e));
+        }
+    }
+
+    /**
+     * It maps a result set to a map of objects keyed by the value of a column, without building a list first.
+     * A duplicate key fails the mapping.
+     * <pre class="code">
+     *  Map&lt;Long, User&gt; users = ResultSetMapper.toMap(resultSet, User.class, "ID", Long.class);
+     * </pre>
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @param keyColumn the label of the key column, which need not be mapped by the type
+     * @param keyType the type of the keys: {@link Long} keys are read as primitive longs into a {@link LongObjectMap},
+     *                the others are read by {@link ResultSet#getObject(int, Class)}
+     * @return the map of the objects by key, in no particular order
+     */
+    public static <K, T> Map<K, T> toMap(ResultSet resultSet, Class<T> type, String keyColumn, Class<K> keyType) {
+        return toMap(resultSet, type, keyColumn, keyType, DuplicateKeyPolicy.FAIL);
+    }
+
+    /**
+     * It maps a result set to a map of objects keyed by the value of a column, without building a list first.
+     * The rows with a null key fail the mapping.
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @param keyColumn the label of the key column, which need not be mapped by the type
+     * @param keyType the type of the keys: {@link Long} keys are read as primitive longs into a {@link LongObjectMap},
+     *                the others are read by {@link ResultSet#getObject(int, Class)}
+     * @param policy the handling of the rows of a key already in the map
+     * @return the map of the objects by key, in no particular order
+     */
+    public static <K, T> Map<K, T> toMap(ResultSet resultSet, Class<T> type, String keyColumn, Class<K> keyType, DuplicateKeyPolicy policy) {
+        checkKeyedArguments(resultSet, type, keyColumn, keyType);
+
+        if (policy == null) {
+            throw new ResultSetMapperException("Policy cannot be null");
+        }
+
+        long start = MapperListeners.start();
+        try {
+            RowMapper<T> mapper = rowMapper(type, resultSet);
+            KeyedMapper<K, T> keyedMapper = KeyedMapper.bind(mapper, resultSet, keyColumn, keyType);
+            Map<K, T> map = keyedMapper.toMap(resultSet, policy);
+
+            MapperListeners.deduplicated(mapper);
+            MapperListeners.mapped(type, MapperOperation.TO_MAP, keyedMapper.getRows(), start);
+            return map;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, MapperOperation.TO_MAP, e);
+        } catch (Exception e) {
+            throw MapperListeners.failed(type, MapperOperation.TO_MAP, new ResultSetMapperException(e));
+        }
+    }
+
+    /**
+     * It maps a result set to lists of objects grouped by the value of a column, like the addresses of each user,
+     * without building a list of all the objects first. The rows with a null key fail the mapping.
+     * <pre class="code">
+     *  Map&lt;Long, List&lt;Address&gt;&gt; addresses = ResultSetMapper.groupBy(resultSet, Address.class, "USER_ID", Long.class);
+     * </pre>
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @param keyColumn the label of the key column, which need not be mapped by the type
+     * @param keyType the type of the keys: {@link Long} keys are read as primitive longs into a {@link LongObjectMap},
+     *                the others are read by {@link ResultSet#getObject(int, Class)}
+     * @return the lists of the objects by key, in no particular order, each list in the order of the rows
+     */
+    public static <K, T> Map<K, List<T>> groupBy(ResultSet resultSet, Class<T> type, String keyColumn, Class<K> keyType) {
+        checkKeyedArguments(resultSet, type, keyColumn, keyType);
+
+        long start = MapperListeners.start();
+        try {
+            RowMapper<T> mapper = rowMapper(type, resultSet);
+            KeyedMapper<K, T> keyedMapper = KeyedMapper.bind(mapper, resultSet, keyColumn, keyType);
+            Map<K, List<T>> map = keyedMapper.groupBy(resultSet);
+
+            MapperListeners.deduplicated(mapper);
+            MapperListeners.mapped(type, MapperOperation.GROUP_BY, keyedMapper.getRows(), start);
+            return map;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, MapperOperation.GROUP_BY, e);
+        } catch (Exception e) {
+            throw MapperListeners.failed(type, MapperOperation.GROUP_BY, new ResultSetMapperException(e));
+        }
+    }
+
+    private static void checkKeyedArguments(ResultSet resultSet, Class<?> type, String keyColumn, Class<?> keyType) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        if (keyColumn == null) {
+            throw new ResultSetMapperException("Key column cannot be null");
+        }
+
+        if (keyType == null) {
+            throw new ResultSetMapperException("Key type cannot be null");
+        }
+    }
+
+    /**
+     * It maps a result set to columns instead of objects, one column for each field annotated with
+     * {@link MapperLabel} of a class: primitive values are stored in primitive arrays, strings are
+     * dictionary-encoded and nulls are tracked in bitmaps, so that no object is created per row.
+     * @param resultSet the result set
+     * @param type the class whose annotated fields define the columns
+     * @return the columnar batch of the rows of the result set
+     */
+    public static ColumnarBatch toColumns(ResultSet resultSet, Class<?> type) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        long start = MapperListeners.start();
+        try {
+            ColumnarBatch batch = ColumnarBatch.read(bind(MappingPlan.of(type), resultSet), resultSet);
+            MapperListeners.mapped(type, MapperOperation.TO_COLUMNS, batch.getRowCount(), start);
+            return batch;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, MapperOperation.TO_COLUMNS, e);
+        } catch (Exception e) {
+            throw MapperListeners.failed(type, MapperOperation.TO_COLUMNS, new ResultSetMapperException(e));
+        }
+    }
+
+    /**
+     * It maps a result set to a list of objects using all the cores of the common fork-join pool,
+     * preserving the order of the rows.
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @return a list of mapped objects
+     * @see #toListParallel(ResultSet, Class, Executor, int, boolean)
+     */
+    public static <T> List<T> toListParallel(ResultSet resultSet, Class<T> type) {
+        return toListParallel(resultSet, type, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism(), true);
+    }
+
+    /**
+     * It maps a result set to a list of objects in parallel: the calling thread reads the raw column
+     * values of the rows, by index, while the tasks of the executor convert and format them and build
+     * the objects. This pays off when the mapping of a row costs more than fetching it, for instance
+     * with wide rows or with {@link MapperDateFormatter} and {@link MapperDecimalFormatter} fields.
+     * The rows read but not yet mapped are bounded, so that memory stays capped.
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @param executor the executor of the mapping tasks
+     * @param parallelism the number of mapping tasks expected to run at the same time
+     * @param preserveOrder true to yield the objects in the order of the rows
+     * @return a list of mapped objects
+     */
+    public static <T> List<T> toListParallel(ResultSet resultSet, Class<T> type, Executor executor, int parallelism, boolean preserveOrder) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        if (executor == null) {
+            throw new ResultSetMapperException("Executor cannot be null");
+        }
+
+        if (parallelism <= 0) {
+            throw new ResultSetMapperException("Parallelism must be positive");
+        }
+
+        long start = MapperListeners.start();
+        try {
+            BoundMapper<T> mapper = bind(MappingPlan.of(type), resultSet);
+            List<T> dtoList = new ParallelMapper<>(mapper, executor, parallelism, preserveOrder).toList(resultSet);
+            MapperListeners.deduplicated(mapper);
+            MapperListeners.mapped(type, MapperOperation.TO_LIST_PARALLEL, dtoList.size(), start);
+            return dtoList;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, MapperOperation.TO_LIST_PARALLEL, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw MapperListeners.failed(type, MapperOperation.TO_LIST_PARALLEL, new ResultSetMapperException(e));
+        } catch (Exception e) {
+            throw MapperListeners.failed(type, MapperOperation.TO_LIST_PARALLEL, new ResultSetMapperException(e));
+        }
+    }
+
+    /**
+     * It maps a result set in batches, handing each batch to a consumer as soon as it is full,
+     * and the last batch even if it is not full. A single buffer is reused across the batches, so the list
+     * received by the consumer is read-only and valid only during the call: it must be copied to be retained.
+     * Since the consumer is called synchronously, the result set is not read while a batch is being consumed.
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @param batchSize the maximum number of objects of a batch
+     * @param consumer the consumer of the batches
+     * @return the number of mapped objects
+     */
+    public static <T> long forEachBatch(ResultSet resultSet, Class<T> type, int batchSize, Consumer<List<T>> consumer) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        if (batchSize <= 0) {
+            throw new ResultSetMapperException("Batch size must be positive");
+        }
+
+        if (consumer == null) {
+            throw new ResultSetMapperException("Consumer cannot be null");
+        }
+
+        long start = MapperListeners.start();
+        try {
+            applyStreamingHints(resultSet, batchSize);
+            RowMapper<T> mapper = rowMapper(type, resultSet);
+            List<T> buffer = new ArrayList<>(batchSize);
+            List<T> batch = Collections.unmodifiableList(buffer);
+            long count = 0;
+
+            while (resultSet.next()) {
+                buffer.add(mapper.map(resultSet));
+
+                if (buffer.size() == batchSize) {
+                    count += buffer.size();
+                    consumer.accept(batch);
+                    buffer.clear();
+                }
+            }
+
+            if (!buffer.isEmpty()) {
+                count += buffer.size();
+                consumer.accept(batch);
+                buffer.clear();
+            }
+
+            MapperListeners.deduplicated(mapper);
+            MapperListeners.mapped(type, MapperOperation.FOR_EACH_BATCH, count, start);
+            return count;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, MapperOperation.FOR_EACH_BATCH, e);
+        } catch (Exception e) {
+            throw MapperListeners.failed(type, MapperOperation.FOR_EACH_BATCH, new ResultSetMapperException(e));
+        }
+    }
+
+    /**
+     * It maps a result set to a lazy, sequential stream of objects: each row is mapped only when it is pulled.
+     * Closing the stream closes the result set. The stream should be used in a try-with-resources statement.
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @return a stream of mapped objects
+     */
+    public static <T> Stream<T> stream(ResultSet resultSet, Class<T> type) {
+        return stream(resultSet, type, DEFAULT_FETCH_SIZE, false);
+    }
+
+    /**
+     * It maps a result set to a lazy, sequential stream of objects: each row is mapped only when it is pulled.
+     * Closing the stream closes the result set and, if requested, its statement.
+     * The stream should be used in a try-with-resources statement.
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @param fetchSize the number of rows to be fetched from the database at a time, used if the driver has no fetch size yet
+     * @param closeStatement true to close also the statement of the result set
+     * @return a stream of mapped objects
+     */
+    public static <T> Stream<T> stream(ResultSet resultSet, Class<T> type, int fetchSize, boolean closeStatement) {
+        ResultSetIterator<T> iterator = iterator(resultSet, type, fetchSize, closeStatement);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * It maps a result set to a lazy iterator of objects: each row is mapped only when it is pulled.
+     * Closing the iterator closes the result set.
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @return an iterator of mapped objects
+     */
+    public static <T> ResultSetIterator<T> iterator(ResultSet resultSet, Class<T> type) {
+        return iterator(resultSet, type, DEFAULT_FETCH_SIZE, false);
+    }
+
+    /**
+     * It maps a result set to a lazy iterator of objects: each row is mapped only when it is pulled.
+     * Closing the iterator closes the result set and, if requested, its statement.
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @param fetchSize the number of rows to be fetched from the database at a time, used if the driver has no fetch size yet
+     * @param closeStatement true to close also the statement of the result set
+     * @return an iterator of mapped objects
+     */
+    public static <T> ResultSetIterator<T> iterator(ResultSet resultSet, Class<T> type, int fetchSize, boolean closeStatement) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        try {
+            applyStreamingHints(resultSet, fetchSize);
+            return new ResultSetIterator<>(resultSet, type, rowMapper(type, resultSet), closeStatement);
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, MapperOperation.ITERATE, e);
+        } catch (Exception e) {
+            throw MapperListeners.failed(type, MapperOperation.ITERATE, new ResultSetMapperException(e));
+        }
+    }
+
+    /**
+     * It publishes the rows of a result set, mapped to objects, to a single subscriber, with backpressure.
+     * The blocking JDBC work runs on virtual threads if the runtime has them, otherwise on a pool of daemon threads.
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @return the publisher of the mapped objects
+     * @see #publish(ResultSet, Class, Executor)
+     */
+    public static <T> Flow.Publisher<T> publish(ResultSet resultSet, Class<T> type) {
+        return publish(resultSet, type, BlockingExecutors.get());
+    }
+
+    /**
+     * It publishes the rows of a result set, mapped to objects, to a single subscriber, with backpressure:
+     * the cursor is advanced only as far as the subscriber requested, so that a slow subscriber does not
+     * make the rows pile up in memory. The blocking JDBC work, binding included, runs on the executor,
+     * never on the thread of the subscriber. The result set is closed when it is exhausted,
+     * when the mapping fails or when the subscription is cancelled.
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @param executor the executor of the blocking JDBC work
+     * @return the publisher of the mapped objects
+     */
+    public static <T> Flow.Publisher<T> publish(ResultSet resultSet, Class<T> type, Executor executor) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        if (executor == null) {
+            throw new ResultSetMapperException("Executor cannot be null");
+        }
+
+        return new ResultSetPublisher<>(resultSet, type, executor);
+    }
+
+    /**
+     * It maps a result set to a list of objects asynchronously.
+     * The blocking JDBC work runs on virtual threads if the runtime has them, otherwise on a pool of daemon threads.
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @return the future list of mapped objects
+     * @see #toListAsync(ResultSet, Class, Executor)
+     */
+    public static <T> CompletableFuture<List<T>> toListAsync(ResultSet resultSet, Class<T> type) {
+        return toListAsync(resultSet, type, BlockingExecutors.get());
+    }
+
+    /**
+     * It maps a result set to a list of objects asynchronously, running the blocking JDBC work on the executor.
+     * The future completes exceptionally with a {@link ResultSetMapperException} if the mapping fails.
+     * @param resultSet the result set
+     * @param type the type of the objects
+     * @param executor the executor of the blocking JDBC work
+     * @return the future list of mapped objects
+     */
+    public static <T> CompletableFuture<List<T>> toListAsync(ResultSet resultSet, Class<T> type, Executor executor) {
+
+        if (resultSet == null) {
+            throw new ResultSetMapperException("ResultSet cannot be null");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        if (executor == null) {
+            throw new ResultSetMapperException("Executor cannot be null");
+        }
+
+        return CompletableFuture.supplyAsync(() -> toList(resultSet, type), executor);
+    }
+
+    /**
+     * It yields the columns mapped by a class, separated by commas, to select them instead of all the columns
+     * of a table: the {@link MapperLabel} names of its constructor parameters and of its fields, across the class
+     * hierarchy, in the order in which they are bound, so that the columns are resolved by position.
+     * The optional columns are not selected. The clause is built once per class.
+     * @param type the mapped class
+     * @return the select clause, without the SELECT keyword, like <strong>ID, NAME, SURNAME</strong>
+     */
+    public static String selectClause(Class<?> type) {
+        return selectClause(type, OptionalColumnPolicy.EXCLUDE);
+    }
+
+    /**
+     * It yields the columns mapped by a class, separated by commas, to select them instead of all the columns of a table.
+     * @param type the mapped class
+     * @param policy whether the optional columns are selected
+     * @return the select clause, without the SELECT keyword
+     * @see #selectClause(Class)
+     */
+    public static String selectClause(Class<?> type, OptionalColumnPolicy policy) {
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        if (policy == null) {
+            throw new ResultSetMapperException("Policy cannot be null");
+        }
+
+        try {
+            return MappingPlan.of(type).selectClause(policy);
+        } catch (ResultSetMapperException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ResultSetMapperException(e);
+        }
+    }
+
+    /**
+     * It yields a query selecting the columns mapped by a class, without the optional ones.
+     * <pre class="code">
+     *  String sql = ResultSetMapper.select(User.class, "FROM USERS WHERE ID = ?");
+     *  // SELECT ID, NAME, SURNAME, BIRTHDATE, BIRTHDATE2, MALE, HEIGHT FROM USERS WHERE ID = ?
+     * </pre>
+     * @param type the mapped class
+     * @param fromWhere the rest of the query, from the FROM keyword
+     * @return the query
+     */
+    public static String select(Class<?> type, String fromWhere) {
+        return select(type, OptionalColumnPolicy.EXCLUDE, fromWhere);
+    }
+
+    /**
+     * It yields a query selecting the columns mapped by a class.
+     * @param type the mapped class
+     * @param policy whether the optional columns are selected
+     * @param fromWhere the rest of the query, from the FROM keyword
+     * @return the query
+     */
+    public static String select(Class<?> type, OptionalColumnPolicy policy, String fromWhere) {
+
+        if (fromWhere == null) {
+            throw new ResultSetMapperException("The rest of the query cannot be null");
+        }
+
+        return "SELECT " + selectClause(type, policy) + " " + fromWhere;
+    }
+
+    /**
+     * It inserts a list of objects into a table, in batches. The INSERT statement is generated once
+     * from the fields annotated with {@link MapperLabel}, except the optional ones, and each object is bound
+     * to its parameters by index. The formatted strings are parsed back to dates and numbers.
+     * A failed row, also one whose values cannot be bound, does not stop the insert: it is reported
+     * in the result and the following rows are inserted. The transaction is left to the caller.
+     * @param connection the connection
+     * @param table the name of the table, written as is into the statement
+     * @param type the class whose annotated fields are written
+     * @param objects the objects to insert, not null
+     * @param batchSize the number of rows sent to the database at a time
+     * @return the update count of each object and the failures
+     */
+    public static <T> BatchResult insertBatch(Connection connection, String table, Class<T> type, List<? extends T> objects, int batchSize) {
+        return write(connection, table, type, objects, batchSize, MapperOperation.INSERT_BATCH);
+    }
+
+    /**
+     * It updates the rows of a table from a list of objects, by their {@link MapperId}, in batches.
+     * The UPDATE statement is generated once and it sets all the columns written by
+     * {@link #insertBatch(Connection, String, Class, List, int)} but the identifier.
+     * An object whose row does not exist has an update count of 0.
+     * @param connection the connection
+     * @param table the name of the table, written as is into the statement
+     * @param type the class whose annotated fields are written, having a field annotated with {@link MapperId}
+     * @param objects the objects to update, not null
+     * @param batchSize the number of rows sent to the database at a time
+     * @return the update count of each object and the failures
+     */
+    public static <T> BatchResult updateBatch(Connection connection, String table, Class<T> type, List<? extends T> objects, int batchSize) {
+        return write(connection, table, type, objects, batchSize, MapperOperation.UPDATE_BATCH);
+    }
+
+    /**
+     * It updates the rows of a table from a list of objects, by their {@link MapperId}, in batches,
+     * and then it inserts the objects that did not update any row. This needs no dialect-specific
+     * statement, but it is not atomic: it should run in a transaction, or on a table that is not written concurrently.
+     * The objects whose update count is {@link java.sql.Statement#SUCCESS_NO_INFO} are deemed updated.
+     * @param connection the connection
+     * @param table the name of the table, written as is into the statements
+     * @param type the class whose annotated fields are written, having a field annotated with {@link MapperId}
+     * @param objects the objects to write, not null
+     * @param batchSize the number of rows sent to the database at a time
+     * @return the update count of each object and the failures
+     */
+    public static <T> BatchResult upsertBatch(Connection connection, String table, Class<T> type, List<? extends T> objects, int batchSize) {
+        return write(connection, table, type, objects, batchSize, MapperOperation.UPSERT_BATCH);
+    }
+
+    private static <T> BatchResult write(Connection connection, String table, Class<T> type, List<? extends T> objects, int batchSize, MapperOperation operation) {
+
+        if (connection == null) {
+            throw new ResultSetMapperException("Connection cannot be null");
+        }
+
+        if (table == null || table.isEmpty()) {
+            throw new ResultSetMapperException("Table cannot be empty");
+        }
+
+        if (type == null) {
+            throw new ResultSetMapperException("Type cannot be null");
+        }
+
+        if (objects == null) {
+            throw new ResultSetMapperException("Objects cannot be null");
+        }
+
+        for (T dto : objects) {
+            if (dto == null) {
+                throw new ResultSetMapperException("Objects cannot contain null");
+            }
+        }
+
+        if (batchSize <= 0) {
+            throw new ResultSetMapperException("Batch size must be positive");
+        }
+
+        if (objects.isEmpty()) {
+            return new BatchResult(new int[0], new SQLException[0]);
+        }
+
+        long start = MapperListeners.start();
+        try {
+            WritePlan<T> plan = WritePlan.of(type);
+            BatchResult result;
+
+            if (operation == MapperOperation.INSERT_BATCH) {
+                result = BatchWriter.insert(connection, table, plan, objects, batchSize);
+            } else if (operation == MapperOperation.UPDATE_BATCH) {
+                result = BatchWriter.update(connection, table, plan, objects, batchSize);
+            } else {
+                result = BatchWriter.upsert(connection, table, plan, objects, batchSize);
+            }
+
+            MapperListeners.mapped(type, operation, objects.size(), start);
+            return result;
+        } catch (ResultSetMapperException e) {
+            throw MapperListeners.failed(type, operation, e);
+        } catch (Exception e) {
+            throw MapperListeners.failed(type, operation, new ResultSetMapperException(e));
+        }
+    }
+
+    /**
+     * It hints the driver to fetch the rows forward and in chunks, so that cursors stream
+     * instead of loading the whole result. The hints are ignored if the driver does not support them.
+     */
+    private static void applyStreamingHints(ResultSet resultSet, int fetchSize) {
+        try {
+            if (resultSet.getType() == ResultSet.TYPE_FORWARD_ONLY) {
+                resultSet.setFetchDirection(ResultSet.FETCH_FORWARD);
+            }
+
+            if (fetchSize > 0 && resultSet.getFetchSize() == 0) {
+                resultSet.setFetchSize(fetchSize);
+            }
+        } catch (SQLException e) {
+            // hints only
+        }
+    }
+
+    /**
+     * It yields the row mapper used by the mapping methods: the generated mapper
+     * of the type if there is one, otherwise the reflective mapping.
+     */
+    static <T> RowMapper<T> rowMapper(Class<T> type, ResultSet resultSet) throws SQLException {
+        GeneratedMapper<T> generatedMapper = GeneratedMappers.of(type);
+
+        if (generatedMapper != null) {
+            return GeneratedMappers.bind(generatedMapper, resultSet);
+        }
+
+        return bind(MappingPlan.of(type), resultSet);
+    }
+
+    private static <T> BoundMapper<T> bind(MappingPlan<T> plan, ResultSet resultSet) throws SQLException {
+        return BoundMapper.bind(plan, resultSet.getMetaData());
+    }
+
+    /**
+     * It yields the mapper bound to a result set by the last call of this thread, if it was bound
+     * to the same result set and type, with the same cached plans, or it binds a new one.
+     * @param bound true to yield a {@link BoundMapper}, even if the type has a generated mapper
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> RowMapper<T> lastBinding(Class<T> type, ResultSet resultSet, boolean bound) throws SQLException {
+        int generation = MappingPlan.generation();
+        WeakReference<LastBinding> reference = LAST_BINDING.get();
+        LastBinding last = reference != null ? reference.get() : null;
+
+        if (last != null && last.resultSet.get() == resultSet && last.type == type && last.generation == generation && last.bound == bound) {
+            return (RowMapper<T>) last.mapper;
+        }
+
+        RowMapper<T> mapper = bound ? bind(MappingPlan.of(type), resultSet) : rowMapper(type, resultSet);
+        LAST_BINDING.set(new WeakReference<>(new LastBinding(resultSet, type, generation, bound, mapper)));
+        return mapper;
+    }
+
+    /**
+     * A mapper bound to a result set. The result set is weakly referenced as well, so that it is not retained
+     * while the binding is.
+     */
+    private static final class LastBinding {
+        private final WeakReference<ResultSet> resultSet;
+        private final Class<?> type;
+        private final int generation;
+        private final boolean bound;
+        private final RowMapper<?> mapper;
+
+        private LastBinding(ResultSet resultSet, Class<?> type, int generation, boolean bound, RowMapper<?> mapper) {
+            this.resultSet = new WeakReference<>(resultSet);
+            this.type = type;
+            this.generation = generation;
+            this.bound = bound;
+            this.mapper = mapper;
+        }
+    }
+}
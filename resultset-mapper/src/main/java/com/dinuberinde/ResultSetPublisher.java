@@ -0,0 +1,206 @@
+package com.dinuberinde;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A publisher of the rows of a result set, mapped to objects, with backpressure:
+ * the cursor is advanced only as far as the subscriber requested, and all the JDBC work,
+ * binding included, runs on the executor, never on the thread of the subscriber.
+ * The result set can be consumed once, so the publisher accepts a single subscriber.
+ * The result set is closed when it is exhausted, when the mapping fails or when the subscription is cancelled.
+ */
+final class ResultSetPublisher<T> implements Flow.Publisher<T> {
+    private final ResultSet resultSet;
+    private final Class<T> type;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    ResultSetPublisher(ResultSet resultSet, Class<T> type, Executor executor) {
+        this.resultSet = resultSet;
+        this.type = type;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null");
+        }
+
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("The rows of the result set can be published to one subscriber only"));
+            return;
+        }
+
+        RowSubscription subscription = new RowSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        // the requests made by onSubscribe are served only now, so that onNext never runs concurrently with it
+        subscription.start();
+    }
+
+    /**
+     * The subscription to the rows. The requests and the cancellation only update the demand
+     * and schedule a drain: a single drain runs at a time, and it is the only one touching the result set.
+     */
+    private final class RowSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+
+        /**
+         * The number of drains requested and not yet performed, plus one until the subscription is started.
+         */
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+        private RowMapper<T> mapper;
+        private long rows;
+        private long start;
+        private volatile boolean done;
+
+        private RowSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("The number of requested rows must be positive, but it was " + n);
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        /**
+         * It releases the drains requested before {@code onSubscribe} returned.
+         */
+        private void start() {
+
+            if (pending.decrementAndGet() != 0) {
+                execute();
+            }
+        }
+
+        private void schedule() {
+
+            if (pending.getAndIncrement() == 0) {
+                execute();
+            }
+        }
+
+        private void execute() {
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                pending.set(0);
+                fail(new ResultSetMapperException(e));
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+
+            do {
+                if (done) {
+                    return;
+                }
+
+                if (cancelled) {
+                    finish();
+                    return;
+                }
+
+                if (invalidRequest != null) {
+                    fail(invalidRequest);
+                    return;
+                }
+
+                long requested = demand.get();
+                long emitted = 0;
+
+                try {
+                    if (mapper == null) {
+                        start = MapperListeners.start();
+                        mapper = ResultSetMapper.rowMapper(type, resultSet);
+                    }
+
+                    while (emitted != requested && !cancelled) {
+
+                        if (!resultSet.next()) {
+                            finish();
+                            subscriber.onComplete();
+                            return;
+                        }
+
+                        T dto = mapper.map(resultSet);
+                        rows++;
+                        emitted++;
+                        subscriber.onNext(dto);
+                    }
+                } catch (ResultSetMapperException e) {
+                    fail(MapperListeners.failed(type, MapperOperation.PUBLISH, e));
+                    return;
+                } catch (Exception e) {
+                    fail(MapperListeners.failed(type, MapperOperation.PUBLISH, new ResultSetMapperException(e)));
+                    return;
+                }
+
+                if (requested != Long.MAX_VALUE) {
+                    demand.addAndGet(-emitted);
+                }
+
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void fail(Throwable throwable) {
+
+            if (done) {
+                return;
+            }
+
+            finish();
+            subscriber.onError(throwable);
+        }
+
+        /**
+         * It closes the result set. Later requests are ignored.
+         */
+        private void finish() {
+            done = true;
+
+            if (mapper != null) {
+                MapperListeners.deduplicated(mapper);
+                MapperListeners.mapped(type, MapperOperation.PUBLISH, rows, start);
+            }
+
+            try {
+                resultSet.close();
+            } catch (SQLException e) {
+                // the rows were already delivered
+            }
+        }
+    }
+}
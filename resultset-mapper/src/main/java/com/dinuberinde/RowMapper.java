@@ -0,0 +1,20 @@
+package com.dinuberinde;
+
+import java.sql.ResultSet;
+
+/**
+ * Maps the current row of a result set to an object.
+ * The row mappers yielded by the library are bound to one result set and are not thread-safe:
+ * each result set needs its own row mapper, used by one thread at a time.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * It maps the current row of the result set to an object.
+     * @param resultSet the result set
+     * @return the object mapped
+     * @throws ResultSetMapperException if the row cannot be mapped
+     */
+    T map(ResultSet resultSet);
+}
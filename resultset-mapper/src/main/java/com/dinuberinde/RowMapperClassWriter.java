@@ -0,0 +1,205 @@
+package com.dinuberinde;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * It writes the class file of a subclass of {@link CompiledMapper.CompiledRowMapper} that invokes
+ * the compiled handle of a mapped class from a static final field. The JIT treats the static final
+ * fields as constants, so that it inlines the whole mapping into the loop over the rows,
+ * which it does not do for a handle held by an instance field.
+ * The class is equivalent to:
+ * <pre class="code">
+ *  final class Name extends CompiledMapper.CompiledRowMapper {
+ *      private static final MethodHandle HANDLE = CompiledMapper.pendingHandle();
+ *
+ *      Name(int[] columnIndexes) {
+ *          super(columnIndexes);
+ *      }
+ *
+ *      Object invoke(ResultSet resultSet, int[] columnIndexes) throws Throwable {
+ *          return (Object) HANDLE.invokeExact(resultSet, columnIndexes);
+ *      }
+ *  }
+ * </pre>
+ */
+final class RowMapperClassWriter {
+    private static final int JAVA_11 = 55;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int GETSTATIC = 0xb2;
+    private static final int PUTSTATIC = 0xb3;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+
+    private static final String SUPERCLASS = "com/dinuberinde/CompiledMapper$CompiledRowMapper";
+    private static final String COMPILED_MAPPER = "com/dinuberinde/CompiledMapper";
+    private static final String METHOD_HANDLE = "java/lang/invoke/MethodHandle";
+    private static final String METHOD_HANDLE_DESCRIPTOR = "Ljava/lang/invoke/MethodHandle;";
+    private static final String INVOKE_DESCRIPTOR = "(Ljava/sql/ResultSet;[I)Ljava/lang/Object;";
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> poolIndexes = new HashMap<>();
+    private int poolCount = 1;
+
+    private RowMapperClassWriter() {}
+
+    /**
+     * It writes the class file.
+     * @param name the binary name of the class, in the package of this class
+     * @return the class file
+     */
+    static byte[] write(String name) {
+        try {
+            return new RowMapperClassWriter().writeClass(name.replace('.', '/'));
+        } catch (IOException e) {
+            // not thrown by the in-memory streams
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] writeClass(String name) throws IOException {
+        int thisClass = classEntry(name);
+        int superclass = classEntry(SUPERCLASS);
+        int handleName = utf8("HANDLE");
+        int handleDescriptor = utf8(METHOD_HANDLE_DESCRIPTOR);
+        int handle = fieldEntry(name, "HANDLE", METHOD_HANDLE_DESCRIPTOR);
+        int superConstructor = methodEntry(SUPERCLASS, "<init>", "([I)V");
+        int pendingHandle = methodEntry(COMPILED_MAPPER, "pendingHandle", "()" + METHOD_HANDLE_DESCRIPTOR);
+        int invokeExact = methodEntry(METHOD_HANDLE, "invokeExact", INVOKE_DESCRIPTOR);
+        int code = utf8("Code");
+        int constructorName = utf8("<init>");
+        int constructorDescriptor = utf8("([I)V");
+        int invokeName = utf8("invoke");
+        int invokeDescriptor = utf8(INVOKE_DESCRIPTOR);
+        int initializerName = utf8("<clinit>");
+        int initializerDescriptor = utf8("()V");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(JAVA_11);
+        out.writeShort(poolCount);
+        poolOut.flush();
+        pool.writeTo(out);
+        out.writeShort(ACC_FINAL | ACC_SUPER);
+        out.writeShort(thisClass);
+        out.writeShort(superclass);
+        out.writeShort(0);
+
+        // the field holding the handle
+        out.writeShort(1);
+        out.writeShort(ACC_PRIVATE | ACC_STATIC | ACC_FINAL);
+        out.writeShort(handleName);
+        out.writeShort(handleDescriptor);
+        out.writeShort(0);
+
+        out.writeShort(3);
+        writeMethod(out, 0, constructorName, constructorDescriptor, code, 2, 2,
+                ALOAD_0, ALOAD_1, INVOKESPECIAL, superConstructor >> 8, superConstructor & 0xff, RETURN);
+        writeMethod(out, 0, invokeName, invokeDescriptor, code, 3, 3,
+                GETSTATIC, handle >> 8, handle & 0xff, ALOAD_1, ALOAD_2, INVOKEVIRTUAL, invokeExact >> 8, invokeExact & 0xff, ARETURN);
+        writeMethod(out, ACC_STATIC, initializerName, initializerDescriptor, code, 1, 0,
+                INVOKESTATIC, pendingHandle >> 8, pendingHandle & 0xff, PUTSTATIC, handle >> 8, handle & 0xff, RETURN);
+
+        out.writeShort(0);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeMethod(DataOutputStream out, int access, int name, int descriptor, int code,
+                                    int maxStack, int maxLocals, int... instructions) throws IOException {
+        out.writeShort(access);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(code);
+        out.writeInt(2 + 2 + 4 + instructions.length + 2 + 2);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(instructions.length);
+        for (int instruction : instructions) {
+            out.writeByte(instruction);
+        }
+        // no exception table and no attributes: the methods have no branches, so they need no stack map
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+
+    private int utf8(String value) throws IOException {
+        Integer index = poolIndexes.get("utf8:" + value);
+
+        if (index == null) {
+            poolOut.writeByte(1);
+            poolOut.writeUTF(value);
+            index = add("utf8:" + value);
+        }
+
+        return index;
+    }
+
+    private int classEntry(String name) throws IOException {
+        Integer index = poolIndexes.get("class:" + name);
+
+        if (index == null) {
+            int nameIndex = utf8(name);
+            poolOut.writeByte(7);
+            poolOut.writeShort(nameIndex);
+            index = add("class:" + name);
+        }
+
+        return index;
+    }
+
+    private int nameAndType(String name, String descriptor) throws IOException {
+        Integer index = poolIndexes.get("nameAndType:" + name + descriptor);
+
+        if (index == null) {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            poolOut.writeByte(12);
+            poolOut.writeShort(nameIndex);
+            poolOut.writeShort(descriptorIndex);
+            index = add("nameAndType:" + name + descriptor);
+        }
+
+        return index;
+    }
+
+    private int fieldEntry(String owner, String name, String descriptor) throws IOException {
+        return memberEntry(9, owner, name, descriptor);
+    }
+
+    private int methodEntry(String owner, String name, String descriptor) throws IOException {
+        return memberEntry(10, owner, name, descriptor);
+    }
+
+    private int memberEntry(int tag, String owner, String name, String descriptor) throws IOException {
+        int ownerIndex = classEntry(owner);
+        int nameAndTypeIndex = nameAndType(name, descriptor);
+        poolOut.writeByte(tag);
+        poolOut.writeShort(ownerIndex);
+        poolOut.writeShort(nameAndTypeIndex);
+        return add("member:" + tag + owner + name + descriptor);
+    }
+
+    private int add(String key) {
+        poolIndexes.put(key, poolCount);
+        return poolCount++;
+    }
+}
@@ -0,0 +1,139 @@
+package com.dinuberinde;
+
+import java.util.Arrays;
+
+/**
+ * A bounded table of the distinct values of a low-cardinality string column, so that the rows
+ * holding the same value share one {@link String} instead of a copy each.
+ * It is open-addressed with linear probing and keyed by the content of the strings. Once the column
+ * turns out to have more distinct values than the table holds, the table stops growing, and once
+ * as many more values have missed it, the column is deemed of high cardinality and the table is bypassed.
+ * It is not thread-safe: each mapping run has its own tables.
+ */
+final class StringTable {
+
+    /**
+     * The maximum number of distinct values held by a table.
+     */
+    static final int MAX_SIZE = 1024;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] values;
+    private int size;
+
+    /**
+     * The values not found in the table once it was full.
+     */
+    private int overflow;
+
+    /**
+     * The strings looked up, and the ones replaced by an equal value already in the table,
+     * since the last {@link #reset()}.
+     */
+    private long lookups;
+    private long deduplicated;
+    private long deduplicatedChars;
+
+    StringTable() {
+        this.values = new String[INITIAL_CAPACITY];
+    }
+
+    /**
+     * It yields the value of the table equal to a string, adding the string if the table is not full.
+     * @param value the string, possibly null
+     * @return the equal value of the table, or the string itself
+     */
+    String intern(String value) {
+
+        if (value == null || overflow > MAX_SIZE) {
+            return value;
+        }
+
+        lookups++;
+        int mask = values.length - 1;
+        int slot = spread(value.hashCode()) & mask;
+
+        for (String candidate; (candidate = values[slot]) != null; slot = (slot + 1) & mask) {
+            if (candidate.equals(value)) {
+                deduplicated++;
+                deduplicatedChars += value.length();
+                return candidate;
+            }
+        }
+
+        if (size < MAX_SIZE) {
+            values[slot] = value;
+
+            // keep the load factor at most 1/2, so that the probe sequences stay short
+            if (++size * 2 > values.length) {
+                grow();
+            }
+        } else {
+            overflow++;
+        }
+
+        return value;
+    }
+
+    private void grow() {
+        String[] oldValues = values;
+        values = new String[oldValues.length * 2];
+        int mask = values.length - 1;
+
+        for (String value : oldValues) {
+            if (value != null) {
+                int slot = spread(value.hashCode()) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+
+                values[slot] = value;
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long getLookups() {
+        return lookups;
+    }
+
+    long getDeduplicated() {
+        return deduplicated;
+    }
+
+    /**
+     * It yields the total length of the strings replaced by an equal value of the table,
+     * a lower bound of the characters no longer kept on the heap.
+     * @return the number of characters
+     */
+    long getDeduplicatedChars() {
+        return deduplicatedChars;
+    }
+
+    /**
+     * It resets the counters, keeping the values of the table.
+     */
+    void reset() {
+        lookups = 0;
+        deduplicated = 0;
+        deduplicatedChars = 0;
+    }
+
+    /**
+     * It removes the values of the table and resets the counters, so that a new mapping run starts from an empty table.
+     */
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+        overflow = 0;
+        reset();
+    }
+}
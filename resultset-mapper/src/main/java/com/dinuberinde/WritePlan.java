@@ -0,0 +1,295 @@
+package com.dinuberinde;
+
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The precomputed reverse mapping of a POJO class: the fields annotated with {@link MapperLabel}, across
+ * the whole class hierarchy, read from the objects and bound by index to the parameters of the
+ * INSERT and UPDATE statements generated for them. The fields of optional columns are not written,
+ * since their columns may not exist, and the formatted strings are parsed back to their column type.
+ * Plans are built once per class and cached in a {@link ClassValue}, and the statements once per table.
+ */
+final class WritePlan<T> {
+
+    private static final ClassValue<WritePlan<?>> PLANS = new ClassValue<WritePlan<?>>() {
+        @Override
+        protected WritePlan<?> computeValue(Class<?> type) {
+            return new WritePlan<>(type);
+        }
+    };
+
+    /**
+     * It binds the value of a field of an object to a parameter of a statement.
+     */
+    @FunctionalInterface
+    private interface ParameterBinder {
+        void bind(PreparedStatement statement, int parameterIndex, Object value) throws SQLException;
+    }
+
+    private final Class<T> type;
+    private final String[] columnNames;
+    private final MethodHandle[] getters;
+    private final ParameterBinder[] binders;
+
+    /**
+     * The SQL type of the nulls of each field.
+     */
+    private final int[] nullTypes;
+
+    /**
+     * The index of the field annotated with {@link MapperId}, or -1 if there is none.
+     */
+    private final int idIndex;
+
+    private final Map<String, String> insertStatements = new ConcurrentHashMap<>();
+    private final Map<String, String> updateStatements = new ConcurrentHashMap<>();
+
+    private WritePlan(Class<T> type) {
+        this.type = type;
+
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                MapperLabel label = field.getAnnotation(MapperLabel.class);
+
+                if (label != null && !label.optional() && !Modifier.isStatic(field.getModifiers())) {
+                    fields.add(field);
+                }
+            }
+        }
+
+        if (fields.isEmpty()) {
+            throw new ResultSetMapperException(type.getName() + " has no field annotated with MapperLabel to write");
+        }
+
+        this.columnNames = new String[fields.size()];
+        this.getters = new MethodHandle[fields.size()];
+        this.binders = new ParameterBinder[fields.size()];
+        this.nullTypes = new int[fields.size()];
+        int idIndex = -1;
+
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            columnNames[i] = field.getAnnotation(MapperLabel.class).name();
+            getters[i] = getter(field);
+            binders[i] = binderFor(field);
+            nullTypes[i] = field.isAnnotationPresent(MapperDateFormatter.class) ? Types.DATE
+                    : field.isAnnotationPresent(MapperDecimalFormatter.class) ? Types.DECIMAL
+                    : sqlTypeOf(field.getType());
+
+            if (field.isAnnotationPresent(MapperId.class)) {
+                if (idIndex >= 0) {
+                    throw new ResultSetMapperException("Only one field of " + type.getName() + " can be annotated with MapperId");
+                }
+
+                idIndex = i;
+            }
+        }
+
+        this.idIndex = idIndex;
+    }
+
+    /**
+     * It yields the write plan of a class, building it on first use.
+     * @param type the class
+     * @return the write plan of the class
+     */
+    @SuppressWarnings("unchecked")
+    static <T> WritePlan<T> of(Class<T> type) {
+        return (WritePlan<T>) PLANS.get(type);
+    }
+
+    private static MethodHandle getter(Field field) {
+        field.setAccessible(true);
+
+        try {
+            // the access checks are suppressed by setAccessible
+            return MethodHandles.lookup().unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new ResultSetMapperException(e);
+        }
+    }
+
+    private static ParameterBinder binderFor(Field field) {
+        Class<?> fieldType = field.getType();
+        MapperDateFormatter dateFormatter = field.getAnnotation(MapperDateFormatter.class);
+        MapperDecimalFormatter decimalFormatter = field.getAnnotation(MapperDecimalFormatter.class);
+        MapperLob lob = field.getAnnotation(MapperLob.class);
+
+        if (fieldType == String.class && dateFormatter != null) {
+            DateColumnFormatter formatter = new DateColumnFormatter(dateFormatter.pattern());
+            return (statement, index, value) -> statement.setDate(index, java.sql.Date.valueOf(formatter.parse((String) value)));
+        } else if (fieldType == String.class && decimalFormatter != null) {
+            DecimalColumnFormatter formatter = new DecimalColumnFormatter(decimalFormatter.pattern(), decimalFormatter.locale());
+            return (statement, index, value) -> statement.setBigDecimal(index, formatter.parse((String) value));
+        } else if (fieldType == LobHandle.class && lob != null && lob.text()) {
+            return (statement, index, value) -> statement.setString(index, ((LobHandle) value).asString());
+        } else if (fieldType == LobHandle.class) {
+            return (statement, index, value) -> statement.setBinaryStream(index, ((LobHandle) value).openStream(), ((LobHandle) value).size());
+        } else if (fieldType == InputStream.class) {
+            return (statement, index, value) -> statement.setBinaryStream(index, (InputStream) value);
+        } else if (fieldType.isEnum()) {
+            return (statement, index, value) -> statement.setString(index, ((Enum<?>) value).name());
+        } else if (fieldType == java.util.Date.class) {
+            // the column is read by getDate, so it is written as a date
+            return (statement, index, value) -> statement.setDate(index, value instanceof java.sql.Date
+                    ? (java.sql.Date) value : new java.sql.Date(((java.util.Date) value).getTime()));
+        } else {
+            return PreparedStatement::setObject;
+        }
+    }
+
+    /**
+     * It yields the SQL type of the nulls of a field type.
+     */
+    private static int sqlTypeOf(Class<?> fieldType) {
+
+        if (fieldType == String.class || fieldType.isEnum()) {
+            return Types.VARCHAR;
+        } else if (fieldType == Long.class) {
+            return Types.BIGINT;
+        } else if (fieldType == Integer.class) {
+            return Types.INTEGER;
+        } else if (fieldType == Short.class) {
+            return Types.SMALLINT;
+        } else if (fieldType == Byte.class) {
+            return Types.TINYINT;
+        } else if (fieldType == Double.class) {
+            return Types.DOUBLE;
+        } else if (fieldType == Float.class) {
+            return Types.REAL;
+        } else if (fieldType == Boolean.class) {
+            return Types.BOOLEAN;
+        } else if (fieldType == BigDecimal.class) {
+            return Types.DECIMAL;
+        } else if (fieldType == java.util.Date.class || fieldType == java.sql.Date.class) {
+            return Types.DATE;
+        } else if (fieldType == Timestamp.class) {
+            return Types.TIMESTAMP;
+        } else if (fieldType == byte[].class || fieldType == LobHandle.class || fieldType == InputStream.class) {
+            return Types.VARBINARY;
+        } else {
+            return Types.NULL;
+        }
+    }
+
+    Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * It yields the INSERT statement of a table, with one parameter for each field, in order.
+     * @param table the name of the table
+     * @return the SQL of the statement
+     */
+    String insertStatement(String table) {
+        return insertStatements.computeIfAbsent(table, key -> {
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (");
+            StringBuilder values = new StringBuilder(") VALUES (");
+
+            for (int i = 0; i < columnNames.length; i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                    values.append(", ");
+                }
+
+                sql.append(columnNames[i]);
+                values.append('?');
+            }
+
+            return sql.append(values).append(')').toString();
+        });
+    }
+
+    /**
+     * It yields the UPDATE statement of a table by identifier, with one parameter for each field
+     * but the identifier, in order, followed by the parameter of the identifier.
+     * @param table the name of the table
+     * @return the SQL of the statement
+     * @throws ResultSetMapperException if the class has no field annotated with {@link MapperId}
+     */
+    String updateStatement(String table) {
+
+        if (idIndex < 0) {
+            throw new ResultSetMapperException(type.getName() + " has no field annotated with MapperId");
+        }
+
+        if (columnNames.length == 1) {
+            throw new ResultSetMapperException(type.getName() + " has no field to update but its identifier");
+        }
+
+        return updateStatements.computeIfAbsent(table, key -> {
+            StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+            boolean first = true;
+
+            for (int i = 0; i < columnNames.length; i++) {
+                if (i != idIndex) {
+                    sql.append(first ? "" : ", ").append(columnNames[i]).append(" = ?");
+                    first = false;
+                }
+            }
+
+            return sql.append(" WHERE ").append(columnNames[idIndex]).append(" = ?").toString();
+        });
+    }
+
+    /**
+     * It binds the fields of an object to the parameters of the statement of {@link #insertStatement(String)}.
+     * @param statement the statement
+     * @param dto the object
+     */
+    void bindInsert(PreparedStatement statement, T dto) throws Exception {
+        for (int i = 0; i < getters.length; i++) {
+            bind(statement, i + 1, i, dto);
+        }
+    }
+
+    /**
+     * It binds the fields of an object to the parameters of the statement of {@link #updateStatement(String)}.
+     * @param statement the statement
+     * @param dto the object
+     */
+    void bindUpdate(PreparedStatement statement, T dto) throws Exception {
+        int parameterIndex = 1;
+
+        for (int i = 0; i < getters.length; i++) {
+            if (i != idIndex) {
+                bind(statement, parameterIndex++, i, dto);
+            }
+        }
+
+        bind(statement, parameterIndex, idIndex, dto);
+    }
+
+    private void bind(PreparedStatement statement, int parameterIndex, int fieldIndex, T dto) throws Exception {
+        Object value;
+
+        try {
+            value = getters[fieldIndex].invoke(dto);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new ResultSetMapperException(new Exception(t));
+        }
+
+        if (value == null) {
+            statement.setNull(parameterIndex, nullTypes[fieldIndex]);
+        } else {
+            binders[fieldIndex].bind(statement, parameterIndex, value);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import com.dinuberinde.MapperLabel;
+import com.dinuberinde.ResultSetMapper;
+import helper.DBHelper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordMapperTest {
+    private static DBHelper dbHelper;
+
+    public record Address(@MapperLabel(name = "ID") long id,
+                          @MapperLabel(name = "STREET") String street,
+                          @MapperLabel(name = "NOT_EXISTING_COLUMN", optional = true) Long notExistingColumn) {}
+
+    @BeforeAll
+    static void initDB() throws SQLException, ClassNotFoundException {
+        dbHelper = new DBHelper()
+                        .connectToDB()
+                        .createTables()
+                        .insertData();
+    }
+
+    @AfterAll
+    static void closeDB() throws Exception {
+        dbHelper.close();
+    }
+
+    @Test
+    void itShouldMapAListOfAddressRecords() throws SQLException {
+        List<Address> addresses;
+        List<Address> compiled;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            addresses = ResultSetMapper.toList(stmt.executeQuery("SELECT * FROM ADDRESS ORDER BY ID"), Address.class);
+            compiled = ResultSetMapper.compiled(Address.class).toList(stmt.executeQuery("SELECT * FROM ADDRESS ORDER BY ID"));
+        }
+
+        assertTrue(ResultSetMapper.compiled(Address.class).isCompiled());
+
+        for (List<Address> list : List.of(addresses, compiled)) {
+            assertEquals(5, list.size());
+            assertEquals(new Address(2L, "W 14th", null), list.get(1));
+        }
+    }
+}
@@ -0,0 +1,1418 @@
+import com.dinuberinde.AccessorStrategy;
+import com.dinuberinde.BatchResult;
+import com.dinuberinde.BoundMapper;
+import com.dinuberinde.ColumnarBatch;
+import com.dinuberinde.CompiledMapper;
+import com.dinuberinde.CountingMapperListener;
+import com.dinuberinde.DuplicateKeyPolicy;
+import com.dinuberinde.LobHandle;
+import com.dinuberinde.LongObjectMap;
+import com.dinuberinde.OptionalColumnPolicy;
+import com.dinuberinde.QueryExecutor;
+import com.dinuberinde.ResultCache;
+import com.dinuberinde.ResultSetExporter;
+import com.dinuberinde.ResultSetMapper;
+import com.dinuberinde.ResultSetIterator;
+import com.dinuberinde.ResultSetMapperException;
+import com.dinuberinde.RowMapper;
+import dto.Address;
+import dto.Contact;
+import dto.Document;
+import dto.Distance;
+import dto.Gender;
+import dto.ImmutableAddress;
+import dto.Location;
+import dto.Street;
+import dto.StreetResultSetMapper;
+import dto.Surname;
+import dto.User;
+import dto.UserDetails;
+import dto.UserWithAddresses;
+import dto.UserWithStreets;
+import helper.DBHelper;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultSetMapperTest {
+    private static DBHelper dbHelper;
+
+    @BeforeAll
+    static void initDB() throws SQLException, ClassNotFoundException {
+        dbHelper = new DBHelper()
+                        .connectToDB()
+                        .createTables()
+                        .insertData();
+    }
+
+    @AfterAll
+    static void closeDB() throws Exception {
+        dbHelper.close();
+    }
+
+    @Test
+    void itShouldMapTheSingleUser() throws SQLException {
+        User user;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            System.out.println("Query for user...");
+
+            String sql = "SELECT * FROM USERS WHERE ID = 1";
+            ResultSet resultSet = stmt.executeQuery(sql);
+
+            user = ResultSetMapper.toObject(resultSet, User.class);
+        }
+
+        assertNotNull(user);
+        assertEquals("John", user.getName());
+        assertEquals("Doe", user.getSurname());
+        assertEquals(1L, user.getId());
+        assertEquals(true, user.isMale());
+        assertEquals("1.92", user.getHeight());
+        assertEquals("17/09/2000", user.getBirthDateString());
+        assertEquals(LocalDate.of(2000, 9, 17).format(DateTimeFormatter.ofPattern("yyyy-MM-dd")), user.getBirthDate().toString());
+    }
+
+    @Test
+    void isShouldMapAListOfUsers() throws SQLException {
+        List<User> users;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            System.out.println("Query for users...");
+
+            String sql = "SELECT * FROM USERS";
+            ResultSet resultSet = stmt.executeQuery(sql);
+
+            users = ResultSetMapper.toList(resultSet, User.class);
+        }
+
+        assertNotNull(users);
+        assertEquals(5, users.size());
+
+        users.forEach(user -> {
+            assertNotNull(user.getBirthDate());
+            assertNotNull(user.getName());
+            assertNotNull(user.getSurname());
+            assertNotNull(user.getId());
+            assertNotNull(user.getBirthDateString());
+            assertNotNull(user.getHeight());
+        });
+
+        User mike = users.get(1);
+        assertEquals("Mike", mike.getName());
+        assertEquals("Donald", mike.getSurname());
+        assertEquals(2L, mike.getId());
+        assertEquals(true, mike.isMale());
+        assertEquals("1.80", mike.getHeight());
+        assertEquals("27/09/1993", mike.getBirthDateString());
+        assertEquals(LocalDate.of(1993, 9, 27).format(DateTimeFormatter.ofPattern("yyyy-MM-dd")), mike.getBirthDate().toString());
+
+        User doris = users.get(4);
+        assertEquals("Doris", doris.getName());
+        assertEquals("Smith", doris.getSurname());
+        assertEquals(5L, doris.getId());
+        assertEquals(false, doris.isMale());
+        assertEquals("1.77", doris.getHeight());
+        assertEquals("09/09/1999", doris.getBirthDateString());
+        assertEquals(LocalDate.of(1999, 9, 9).format(DateTimeFormatter.ofPattern("yyyy-MM-dd")), doris.getBirthDate().toString());
+    }
+
+
+    @Test
+    void isShouldMapAListOfUsersByUsingApply() throws SQLException {
+        List<User> users = new ArrayList<>();
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            System.out.println("Query for users...");
+
+            String sql = "SELECT * FROM USERS";
+            ResultSet resultSet = stmt.executeQuery(sql);
+
+            while(resultSet.next()) {
+                users.add(ResultSetMapper.apply(resultSet, User.class));
+            }
+        }
+
+        assertNotNull(users);
+        assertEquals(5, users.size());
+
+        users.forEach(user -> {
+            assertNotNull(user.getBirthDate());
+            assertNotNull(user.getName());
+            assertNotNull(user.getSurname());
+            assertNotNull(user.getId());
+            assertNotNull(user.getBirthDateString());
+            assertNotNull(user.getHeight());
+        });
+
+        User mike = users.get(1);
+        assertEquals("Mike", mike.getName());
+        assertEquals("Donald", mike.getSurname());
+        assertEquals(2L, mike.getId());
+        assertEquals(true, mike.isMale());
+        assertEquals("1.80", mike.getHeight());
+        assertEquals("27/09/1993", mike.getBirthDateString());
+        assertEquals(LocalDate.of(1993, 9, 27).format(DateTimeFormatter.ofPattern("yyyy-MM-dd")), mike.getBirthDate().toString());
+
+        User doris = users.get(4);
+        assertEquals("Doris", doris.getName());
+        assertEquals("Smith", doris.getSurname());
+        assertEquals(5L, doris.getId());
+        assertEquals(false, doris.isMale());
+        assertEquals("1.77", doris.getHeight());
+        assertEquals("09/09/1999", doris.getBirthDateString());
+        assertEquals(LocalDate.of(1999, 9, 9).format(DateTimeFormatter.ofPattern("yyyy-MM-dd")), doris.getBirthDate().toString());
+    }
+
+    @Test
+    void itShouldReadTheMetaDataOnceWhenApplyingRowByRow() throws SQLException {
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet delegate = stmt.executeQuery("SELECT * FROM USERS ORDER BY ID");
+            int[] metaDataReads = new int[1];
+            ResultSet resultSet = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                if (method.getName().equals("getMetaData")) {
+                    metaDataReads[0]++;
+                }
+
+                try {
+                    return method.invoke(delegate, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+
+            List<User> users = new ArrayList<>();
+            while (resultSet.next()) {
+                users.add(ResultSetMapper.apply(resultSet, User.class));
+            }
+
+            assertEquals(5, users.size());
+            assertEquals("Doris", users.get(4).getName());
+            assertEquals(1, metaDataReads[0]);
+        }
+    }
+
+    @Test
+    void itShouldMapTheSingleAddress() throws SQLException {
+        Address address;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            System.out.println("Query for address...");
+
+            String sql = "SELECT * FROM ADDRESS WHERE ID = 4";
+            ResultSet resultSet = stmt.executeQuery(sql);
+
+            address = ResultSetMapper.toObject(resultSet, Address.class);
+        }
+
+        assertNotNull(address);
+        assertEquals("IRELAND", address.getNation());
+        assertEquals("Dublin", address.getCity());
+        assertEquals(4L, address.getID());
+        assertEquals("New Bridge", address.getStreet());
+        assertEquals(21, address.getNumber());
+        assertEquals(4L, address.getUserID());
+    }
+
+    @Test
+    void isShouldMapAListOfAddresses() throws SQLException {
+        List<Address> addresses;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            System.out.println("Query for addresses...");
+
+            String sql = "SELECT * FROM ADDRESS";
+            ResultSet resultSet = stmt.executeQuery(sql);
+
+            addresses = ResultSetMapper.toList(resultSet, Address.class);
+        }
+
+        assertNotNull(addresses);
+        assertEquals(5, addresses.size());
+
+        addresses.forEach(address -> {
+            assertNotNull(address.getUserID());
+            assertNotNull(address.getID());
+            assertNotNull(address.getNation());
+            assertNotNull(address.getNation());
+            assertNotNull(address.getCity());
+            assertNotNull(address.getStreet());
+            assertTrue(address.getNumber() > 0);
+        });
+
+        Address address = addresses.get(1);
+        assertEquals("SUA", address.getNation());
+        assertEquals("New York", address.getCity());
+        assertEquals(2L, address.getID());
+        assertEquals("W 14th", address.getStreet());
+        assertEquals(10, address.getNumber());
+        assertEquals(2L, address.getUserID());
+    }
+
+    @Test
+    void itShouldFailOnNullResultSet() {
+
+        try {
+            ResultSetMapper.toObject(null, Address.class);
+        } catch (Exception e) {
+            assertTrue(e instanceof ResultSetMapperException);
+            return;
+        }
+        fail();
+    }
+
+    @Test
+    void itShouldFailOnNullType() throws SQLException {
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            System.out.println("Query for addresses...");
+
+            String sql = "SELECT * FROM ADDRESS";
+            ResultSet resultSet = stmt.executeQuery(sql);
+
+            ResultSetMapper.toList(resultSet, null);
+        } catch (Exception e) {
+            assertTrue(e instanceof ResultSetMapperException);
+            return;
+        }
+
+        fail();
+    }
+
+    @Test
+    void itShouldWarmUpTheMappingPlans() throws SQLException {
+        ResultSetMapper.warmUp(User.class, Address.class);
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM ADDRESS");
+
+            assertEquals(5, ResultSetMapper.toList(resultSet, Address.class).size());
+        }
+    }
+
+    @Test
+    void itShouldFailToWarmUpAClassWithoutDefaultConstructor() {
+        assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.warmUp(Integer.class));
+    }
+
+    @Test
+    void itShouldMapAListOfAddressesWithABoundMapper() throws SQLException {
+        List<Address> addresses = new ArrayList<>();
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM ADDRESS");
+
+            BoundMapper<Address> mapper = ResultSetMapper.bind(resultSet, Address.class);
+            while (resultSet.next()) {
+                addresses.add(mapper.map(resultSet));
+            }
+        }
+
+        assertEquals(5, addresses.size());
+        Address address = addresses.get(3);
+        assertEquals("IRELAND", address.getNation());
+        assertEquals("Dublin", address.getCity());
+        assertEquals(4L, address.getID());
+        assertEquals(21, address.getNumber());
+        assertNull(address.getNotExistingColumn());
+    }
+
+    @Test
+    void itShouldFailToBindAMissingRequiredColumn() throws SQLException {
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT ID, NAME FROM USERS");
+
+            ResultSetMapperException e = assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.toList(resultSet, User.class));
+            assertTrue(e.getMessage().contains("SURNAME"));
+        }
+    }
+
+    @Test
+    void itShouldMapAListOfUsersWithTheReflectionAccessorStrategy() throws SQLException {
+        List<User> users;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM USERS");
+
+            ResultSetMapper.setAccessorStrategy(AccessorStrategy.REFLECTION);
+            users = ResultSetMapper.toList(resultSet, User.class);
+        } finally {
+            ResultSetMapper.setAccessorStrategy(AccessorStrategy.METHOD_HANDLE);
+        }
+
+        assertEquals(5, users.size());
+        User doris = users.get(4);
+        assertEquals("Doris", doris.getName());
+        assertEquals(5L, doris.getId());
+        assertEquals(false, doris.isMale());
+        assertEquals("1.77", doris.getHeight());
+        assertEquals("09/09/1999", doris.getBirthDateString());
+    }
+
+    @Test
+    void itShouldMapAListOfUsersWithACompiledMapper() throws SQLException {
+        List<User> users;
+        CompiledMapper<User> mapper = ResultSetMapper.compiled(User.class);
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM USERS");
+
+            users = mapper.toList(resultSet);
+        }
+
+        assertTrue(mapper.isCompiled());
+        assertEquals(5, users.size());
+        User mike = users.get(1);
+        assertEquals("Mike", mike.getName());
+        assertEquals("Donald", mike.getSurname());
+        assertEquals(2L, mike.getId());
+        assertEquals(true, mike.isMale());
+        assertEquals("1.80", mike.getHeight());
+        assertEquals("27/09/1993", mike.getBirthDateString());
+        assertEquals(LocalDate.of(1993, 9, 27).format(DateTimeFormatter.ofPattern("yyyy-MM-dd")), mike.getBirthDate().toString());
+    }
+
+    @Test
+    void itShouldReportTheBindingFailuresOfACompiledMapper() throws SQLException {
+        CountingMapperListener counter = new CountingMapperListener();
+        ResultSetMapper.addListener(counter);
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT ID FROM USERS");
+
+            assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.compiled(User.class).toList(resultSet));
+            assertEquals(1, counter.getFailures());
+        } finally {
+            ResultSetMapper.removeListener(counter);
+        }
+    }
+
+    @Test
+    void itShouldMapAnAddressWithACompiledMapper() throws SQLException {
+        Address address;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM ADDRESS WHERE ID = 2");
+
+            RowMapper<Address> mapper = ResultSetMapper.compiled(Address.class).bind(resultSet);
+            // the handle is held as a constant by a class defined for the mapped class
+            assertTrue(mapper.getClass().getName().startsWith("com.dinuberinde.CompiledRowMapper$"));
+            assertTrue(resultSet.next());
+            address = mapper.map(resultSet);
+        }
+
+        assertEquals("SUA", address.getNation());
+        assertEquals("New York", address.getCity());
+        assertEquals(2L, address.getID());
+        assertEquals("W 14th", address.getStreet());
+        assertEquals(10, address.getNumber());
+        assertEquals(2L, address.getUserID());
+        assertNull(address.getNotExistingColumn());
+    }
+
+    @Test
+    void itShouldMapAListOfStreetsWithTheGeneratedMapper() throws SQLException {
+        List<Street> streets;
+        int mappedRows = StreetResultSetMapper.MAPPED_ROWS.get();
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM ADDRESS");
+
+            streets = ResultSetMapper.toList(resultSet, Street.class);
+        }
+
+        assertEquals(5, streets.size());
+        assertEquals(mappedRows + 5, StreetResultSetMapper.MAPPED_ROWS.get());
+        assertEquals(3L, streets.get(2).getId());
+        assertEquals("Wilshire", streets.get(2).getName());
+        assertNull(streets.get(2).getNotExistingColumn());
+    }
+
+    @Test
+    void itShouldStreamAListOfUsers() throws SQLException {
+        List<String> names;
+        ResultSet resultSet;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            resultSet = stmt.executeQuery("SELECT * FROM USERS");
+
+            try (Stream<User> users = ResultSetMapper.stream(resultSet, User.class)) {
+                names = users.filter(User::isMale).map(User::getName).collect(Collectors.toList());
+            }
+
+            assertTrue(resultSet.isClosed());
+        }
+
+        assertEquals(List.of("John", "Mike", "Jake"), names);
+    }
+
+    @Test
+    void itShouldIterateOverAListOfAddressesAndCloseTheStatement() throws SQLException {
+        List<Address> addresses = new ArrayList<>();
+        Statement stmt = dbHelper.getConnection().createStatement();
+        ResultSet resultSet = stmt.executeQuery("SELECT * FROM ADDRESS");
+
+        try (ResultSetIterator<Address> iterator = ResultSetMapper.iterator(resultSet, Address.class, 2, true)) {
+            assertTrue(iterator.hasNext());
+            assertTrue(iterator.hasNext());
+            addresses.add(iterator.next());
+            iterator.forEachRemaining(addresses::add);
+            assertFalse(iterator.hasNext());
+        }
+
+        assertTrue(stmt.isClosed());
+        assertEquals(5, addresses.size());
+        assertEquals("London", addresses.get(4).getCity());
+    }
+
+    @Test
+    void itShouldMapAListOfAddressesInBatches() throws SQLException {
+        List<Integer> batchSizes = new ArrayList<>();
+        List<String> cities = new ArrayList<>();
+        long count;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM ADDRESS");
+
+            count = ResultSetMapper.forEachBatch(resultSet, Address.class, 2, batch -> {
+                batchSizes.add(batch.size());
+                batch.forEach(address -> cities.add(address.getCity()));
+            });
+        }
+
+        assertEquals(5, count);
+        assertEquals(List.of(2, 2, 1), batchSizes);
+        assertEquals(List.of("Chicago", "New York", "Los Angeles", "Dublin", "London"), cities);
+    }
+
+    @Test
+    void itShouldReportTheFailuresOfTheBatchConsumer() throws SQLException {
+        CountingMapperListener counter = new CountingMapperListener();
+        ResultSetMapper.addListener(counter);
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM ADDRESS");
+
+            ResultSetMapperException e = assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.forEachBatch(resultSet, Address.class, 2, batch -> {
+                throw new IllegalStateException("consumer failure");
+            }));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertEquals(1, counter.getFailures());
+        } finally {
+            ResultSetMapper.removeListener(counter);
+        }
+    }
+
+    @Test
+    void itShouldMapAListOfUsersInParallel() throws SQLException {
+        List<User> users;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM USERS");
+
+            users = ResultSetMapper.toListParallel(resultSet, User.class);
+        }
+
+        assertEquals(5, users.size());
+        User doris = users.get(4);
+        assertEquals("Doris", doris.getName());
+        assertEquals(5L, doris.getId());
+        assertEquals(false, doris.isMale());
+        assertEquals("1.77", doris.getHeight());
+        assertEquals("09/09/1999", doris.getBirthDateString());
+    }
+
+    @Test
+    void itShouldMapManyRowsInParallelWithoutPreservingTheOrder() throws SQLException {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Address> addresses;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT A.* FROM ADDRESS A, SYSTEM_RANGE(1, 1000)");
+
+            addresses = ResultSetMapper.toListParallel(resultSet, Address.class, executor, 3, false);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(5000, addresses.size());
+        assertEquals(1000, addresses.stream().filter(address -> "Dublin".equals(address.getCity())).count());
+        assertEquals(5 * 1000 * 3, addresses.stream().mapToLong(Address::getUserID).sum());
+    }
+
+    @Test
+    void itShouldMapInParallelFromAWorkerOfTheSamePool() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(1);
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT A.* FROM ADDRESS A, SYSTEM_RANGE(1, 1000)");
+
+            // the only worker reads the rows while it waits for the chunks it submitted to the same pool
+            List<Address> addresses = pool.submit(() -> ResultSetMapper.toListParallel(resultSet, Address.class, pool, 1, true)).get(30, TimeUnit.SECONDS);
+            assertEquals(5000, addresses.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void itShouldCancelTheChunksInFlightWhenInterrupted() throws SQLException {
+        List<Runnable> tasks = new ArrayList<>();
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT A.* FROM ADDRESS A, SYSTEM_RANGE(1, 1000)");
+
+            // the chunks are never run, so the reader waits until it is interrupted
+            Thread.currentThread().interrupt();
+            ResultSetMapperException e = assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.toListParallel(resultSet, Address.class, tasks::add, 1, true));
+
+            assertTrue(e.getCause() instanceof InterruptedException);
+            assertTrue(Thread.interrupted());
+            // the two chunks in flight were cancelled, or the call would still be waiting for them
+            assertEquals(2, tasks.size());
+        }
+    }
+
+    @Test
+    void itShouldMapAListOfAddressesToColumns() throws SQLException {
+        ColumnarBatch batch;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT A.ID, A.NATION, A.CITY, A.STREET, A.STREET_NUMBER, CASE WHEN A.ID = 3 THEN NULL ELSE A.USER_ID END AS USER_ID FROM ADDRESS A, SYSTEM_RANGE(1, 400) ORDER BY A.ID");
+
+            batch = ResultSetMapper.toColumns(resultSet, Address.class);
+        }
+
+        assertEquals(2000, batch.getRowCount());
+        assertEquals(List.of("ID", "STREET", "STREET_NUMBER", "USER_ID", "NOT_EXISTING_COLUMN", "NATION", "CITY"),
+                batch.getColumns().stream().map(ColumnarBatch.Column::getName).collect(Collectors.toList()));
+
+        ColumnarBatch.LongColumn numbers = batch.longColumn("street_number");
+        assertEquals(400L * (1 + 10 + 12 + 21 + 11), LongStream.of(numbers.toArray()).sum());
+
+        ColumnarBatch.StringColumn nations = batch.stringColumn("NATION");
+        assertEquals(List.of("SUA", "IRELAND", "ENGLAND"), nations.getDictionary());
+        assertEquals("IRELAND", nations.get(1200));
+        assertEquals(nations.code(0), nations.code(1199));
+
+        ColumnarBatch.LongColumn missing = batch.longColumn("NOT_EXISTING_COLUMN");
+        assertTrue(missing.isNull(0));
+        assertTrue(missing.isNull(1999));
+        assertNull(missing.getObject(1999));
+        assertFalse(batch.longColumn("ID").isNull(1999));
+        assertTrue(batch.longColumn("USER_ID").isNull(800));
+        assertEquals(4L, batch.longColumn("USER_ID").getObject(1200));
+        assertThrows(ResultSetMapperException.class, () -> batch.intColumn("ID"));
+    }
+
+    @Test
+    void itShouldMapTheColumnsOfATypeWithAConverterAsObjects() throws SQLException {
+        // the distances are stored in meters
+        ResultSetMapper.registerConverter(Float.class, (resultSet, columnIndex) -> resultSet.getFloat(columnIndex) / 1000);
+        ColumnarBatch batch;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT ID, STREET_NUMBER * 1000 AS KILOMETERS FROM ADDRESS ORDER BY ID");
+
+            batch = ResultSetMapper.toColumns(resultSet, Distance.class);
+        }
+
+        ColumnarBatch.ObjectColumn kilometers = batch.objectColumn("KILOMETERS");
+        assertEquals(10f, kilometers.get(1));
+        assertEquals(21f, kilometers.getObject(3));
+        assertThrows(ResultSetMapperException.class, () -> batch.doubleColumn("KILOMETERS"));
+    }
+
+    @Test
+    void itShouldApplyTheCurrentRowIntoAnExistingAddress() throws SQLException {
+        Address address = new Address();
+        address.setNotExistingColumn(7L);
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM ADDRESS WHERE ID = 5");
+
+            assertTrue(resultSet.next());
+            assertSame(address, ResultSetMapper.applyInto(resultSet, address));
+        }
+
+        assertEquals("ENGLAND", address.getNation());
+        assertEquals("London", address.getCity());
+        assertEquals(5L, address.getID());
+        assertEquals(11, address.getNumber());
+        assertNull(address.getNotExistingColumn());
+    }
+
+    @Test
+    void itShouldMapEachAddressIntoTheSameObject() throws SQLException {
+        Set<Address> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        long[] numbers = new long[1];
+        long count;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM ADDRESS");
+
+            count = ResultSetMapper.forEachReusing(resultSet, Address.class, address -> {
+                instances.add(address);
+                numbers[0] += address.getNumber();
+            });
+        }
+
+        assertEquals(5, count);
+        assertEquals(1, instances.size());
+        assertEquals(1 + 10 + 12 + 21 + 11, numbers[0]);
+    }
+
+    @Test
+    void itShouldMapAListOfAddressesByTheirConstructor() throws SQLException {
+        List<ImmutableAddress> addresses;
+        List<ImmutableAddress> compiled;
+        List<ImmutableAddress> parallel;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            addresses = ResultSetMapper.toList(stmt.executeQuery("SELECT * FROM ADDRESS"), ImmutableAddress.class);
+            compiled = ResultSetMapper.compiled(ImmutableAddress.class).toList(stmt.executeQuery("SELECT * FROM ADDRESS"));
+            parallel = ResultSetMapper.toListParallel(stmt.executeQuery("SELECT * FROM ADDRESS"), ImmutableAddress.class);
+        }
+
+        assertTrue(ResultSetMapper.compiled(ImmutableAddress.class).isCompiled());
+
+        for (List<ImmutableAddress> list : List.of(addresses, compiled, parallel)) {
+            assertEquals(5, list.size());
+            ImmutableAddress address = list.get(1);
+            assertEquals(2L, address.getId());
+            assertEquals("W 14th", address.getStreet());
+            assertEquals(10, address.getNumber());
+            assertEquals("New York", address.getCity());
+            assertNull(address.getNotExistingColumn());
+        }
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM ADDRESS");
+            ImmutableAddress target = new ImmutableAddress(1, "Main", 1, null);
+
+            assertTrue(resultSet.next());
+            assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.applyInto(resultSet, target));
+        }
+    }
+
+    @Test
+    void itShouldAggregateTheAddressesOfEachUser() throws SQLException {
+        List<UserWithAddresses> users;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            // each user gets the addresses of the users with a lower id, and every row is repeated twice
+            ResultSet resultSet = stmt.executeQuery("SELECT U.ID, U.NAME, A.ID AS ADDRESS_ID, A.NATION AS ADDRESS_NATION, " +
+                    "A.CITY AS ADDRESS_CITY, A.STREET AS ADDRESS_STREET, A.STREET_NUMBER AS ADDRESS_STREET_NUMBER, A.USER_ID AS ADDRESS_USER_ID " +
+                    "FROM USERS U LEFT JOIN ADDRESS A ON A.USER_ID < U.ID CROSS JOIN (VALUES (1), (2)) D(N) ORDER BY A.ID DESC, U.ID DESC");
+
+            users = ResultSetMapper.toAggregate(resultSet, UserWithAddresses.class);
+        }
+
+        assertEquals(5, users.size());
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), users.stream().map(UserWithAddresses::getId).collect(Collectors.toList()));
+
+        for (UserWithAddresses user : users) {
+            assertEquals(user.getId() - 1, user.getAddresses().size());
+        }
+
+        UserWithAddresses alice = users.get(1);
+        assertEquals("Alice", alice.getName());
+        assertEquals(List.of(3L, 2L, 1L), alice.getAddresses().stream().map(Address::getID).collect(Collectors.toList()));
+        assertEquals("Los Angeles", alice.getAddresses().get(0).getCity());
+    }
+
+    @Test
+    void itShouldAggregateNoChildWithoutIdFromTheRowsWithoutAMatch() throws SQLException {
+        List<UserWithStreets> users;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT U.ID, A.ID AS STREET_ID, A.STREET AS STREET_STREET " +
+                    "FROM USERS U LEFT JOIN ADDRESS A ON A.USER_ID < U.ID ORDER BY U.ID, A.ID");
+
+            users = ResultSetMapper.toAggregate(resultSet, UserWithStreets.class);
+        }
+
+        assertEquals(5, users.size());
+
+        for (UserWithStreets user : users) {
+            assertEquals(user.getId() - 1, user.getStreets().size());
+        }
+    }
+
+    @Test
+    void itShouldFailToAggregateAClassWithoutId() throws SQLException {
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM USERS");
+
+            assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.toAggregate(resultSet, User.class));
+        }
+    }
+
+    @Test
+    void itShouldReportTheMappingToTheListeners() throws SQLException {
+        CountingMapperListener counter = new CountingMapperListener();
+        ResultSetMapper.addListener(counter);
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            assertEquals(5000, ResultSetMapper.toList(stmt.executeQuery("SELECT A.* FROM ADDRESS A, SYSTEM_RANGE(1, 1000)"), Address.class).size());
+
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM USERS");
+            assertTrue(resultSet.next());
+            ResultSetMapper.apply(resultSet, User.class);
+
+            assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.toList(stmt.executeQuery("SELECT ID FROM USERS"), User.class));
+        } finally {
+            assertTrue(ResultSetMapper.removeListener(counter));
+        }
+
+        assertEquals(2, counter.getOperations());
+        assertEquals(5001, counter.getRows());
+        assertTrue(counter.getMappingNanos() > 0);
+        assertEquals(1, counter.getOptionalColumnMisses());
+        assertEquals(1, counter.getFailures());
+
+        // one row every 1024, and the 7 fields of each sampled address
+        assertEquals(4 * 7, counter.getSampledFields());
+        assertFalse(ResultSetMapper.removeListener(counter));
+    }
+
+    @Test
+    void itShouldRecordTheMappingAsFlightRecorderEvents() throws SQLException, IOException {
+        Path file = Files.createTempFile("mapping", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("com.dinuberinde.Mapping");
+            recording.start();
+
+            try (Statement stmt = dbHelper.getConnection().createStatement()) {
+                ResultSetMapper.toList(stmt.executeQuery("SELECT * FROM ADDRESS"), Address.class);
+            }
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("com.dinuberinde.Mapping"))
+                    .collect(Collectors.toList());
+
+            assertEquals(1, events.size());
+            assertEquals("TO_LIST", events.get(0).getString("operation"));
+            assertEquals(5, events.get(0).getLong("rows"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void itShouldMapJavaTimeUUIDAndEnumColumnsWithTheConverters() throws SQLException {
+        ResultSetMapper.registerConverter(Surname.class, (resultSet, columnIndex) -> new Surname(resultSet.getString(columnIndex)));
+        String sql = "SELECT U.*, CASE WHEN MALE THEN 'MALE' ELSE 'FEMALE' END AS GENDER, " +
+                "CAST('123e4567-e89b-12d3-a456-426614174000' AS UUID) AS TOKEN FROM USERS U WHERE ID = 4";
+        UserDetails alice;
+        UserDetails compiled;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            alice = ResultSetMapper.toObject(stmt.executeQuery(sql), UserDetails.class);
+            compiled = ResultSetMapper.compiled(UserDetails.class).toList(stmt.executeQuery(sql)).get(0);
+        }
+
+        assertTrue(ResultSetMapper.compiled(UserDetails.class).isCompiled());
+
+        for (UserDetails user : List.of(alice, compiled)) {
+            assertEquals(4, user.getId());
+            assertEquals(new Surname("Williams"), user.getSurname());
+            assertEquals(LocalDate.of(2000, 10, 17), user.getBirthDate());
+            assertEquals(LocalDateTime.of(2000, 10, 17, 0, 0), user.getBirthDateTime());
+            assertEquals(LocalDate.of(2000, 10, 17).atStartOfDay(ZoneId.systemDefault()).toInstant(), user.getBirthInstant());
+            assertEquals(Gender.FEMALE, user.getGender());
+            assertEquals(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), user.getToken());
+        }
+    }
+
+    @Test
+    void itShouldSpillTheLargeObjectsToFilesReadableAfterTheResultSetIsClosed() throws Exception {
+        byte[] small = new byte[100];
+        byte[] large = new byte[100_000];
+        Arrays.fill(small, (byte) 1);
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+
+        String text = "\u00e8".repeat(1000);
+        List<Document> documents;
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            stmt.execute("CREATE TABLE DOCUMENTS(ID INTEGER PRIMARY KEY, CONTENT BLOB, TEXT CLOB)");
+
+            try (PreparedStatement insert = dbHelper.getConnection().prepareStatement("INSERT INTO DOCUMENTS VALUES(?, ?, ?)")) {
+                insert.setInt(1, 1);
+                insert.setBytes(2, small);
+                insert.setString(3, "small");
+                insert.addBatch();
+                insert.setInt(1, 2);
+                insert.setBytes(2, large);
+                insert.setString(3, text);
+                insert.addBatch();
+                insert.setInt(1, 3);
+                insert.setNull(2, java.sql.Types.BLOB);
+                insert.setNull(3, java.sql.Types.CLOB);
+                insert.addBatch();
+                insert.executeBatch();
+            }
+
+            try (ResultSet resultSet = stmt.executeQuery("SELECT * FROM DOCUMENTS ORDER BY ID")) {
+                documents = ResultSetMapper.toList(resultSet, Document.class);
+            }
+        } finally {
+            try (Statement stmt = dbHelper.getConnection().createStatement()) {
+                stmt.execute("DROP TABLE IF EXISTS DOCUMENTS");
+            }
+        }
+
+        LobHandle smallContent = documents.get(0).getContent();
+        assertTrue(smallContent.isOnHeap());
+        assertArrayEquals(small, smallContent.toByteArray());
+        assertEquals("small", documents.get(0).getText().asString());
+
+        try (LobHandle largeContent = documents.get(1).getContent()) {
+            assertFalse(largeContent.isOnHeap());
+            assertEquals(large.length, largeContent.size());
+
+            ByteBuffer buffer = largeContent.asByteBuffer();
+            assertEquals((byte) 99_999, buffer.get(99_999));
+            try (InputStream in = largeContent.openStream()) {
+                assertArrayEquals(large, in.readAllBytes());
+            }
+
+            LobHandle largeText = documents.get(1).getText();
+            assertFalse(largeText.isOnHeap());
+            assertEquals(text, largeText.asString());
+        }
+
+        assertThrows(ResultSetMapperException.class, () -> documents.get(1).getContent().asByteBuffer());
+        assertNull(documents.get(2).getContent());
+        assertNull(documents.get(2).getText());
+    }
+
+    @Test
+    void itShouldPublishTheAddressesAsRequested() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        LinkedBlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM ADDRESS ORDER BY ID");
+
+            ResultSetMapper.publish(resultSet, Address.class, executor).subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription s) {
+                    subscription[0] = s;
+                }
+
+                @Override
+                public void onNext(Address address) {
+                    signals.add(address);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    signals.add(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    signals.add("complete");
+                }
+            });
+
+            // nothing is read before the first request
+            assertNull(signals.poll(100, TimeUnit.MILLISECONDS));
+
+            subscription[0].request(2);
+            assertEquals(1L, ((Address) signals.poll(5, TimeUnit.SECONDS)).getID());
+            assertEquals(2L, ((Address) signals.poll(5, TimeUnit.SECONDS)).getID());
+            assertNull(signals.poll(100, TimeUnit.MILLISECONDS));
+            assertFalse(resultSet.isClosed());
+
+            subscription[0].request(Long.MAX_VALUE);
+            for (long id = 3; id <= 5; id++) {
+                assertEquals(id, ((Address) signals.poll(5, TimeUnit.SECONDS)).getID());
+            }
+
+            assertEquals("complete", signals.poll(5, TimeUnit.SECONDS));
+            assertTrue(resultSet.isClosed());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void itShouldNotCallOnNextBeforeOnSubscribeReturns() throws Exception {
+        // the drains run on the thread requesting them, so a request made by onSubscribe would map the rows at once
+        Executor executor = Runnable::run;
+        List<String> signals = new ArrayList<>();
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM ADDRESS ORDER BY ID");
+
+            ResultSetMapper.publish(resultSet, Address.class, executor).subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    signals.add("onSubscribe");
+                    subscription.request(2);
+                    signals.add("requested");
+                }
+
+                @Override
+                public void onNext(Address address) {
+                    signals.add("onNext " + address.getID());
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    signals.add("onError");
+                }
+
+                @Override
+                public void onComplete() {
+                    signals.add("onComplete");
+                }
+            });
+
+            assertEquals(Arrays.asList("onSubscribe", "requested", "onNext 1", "onNext 2"), signals);
+        }
+    }
+
+    @Test
+    void itShouldCloseTheResultSetWhenThePublicationIsCancelled() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        LinkedBlockingQueue<Address> addresses = new LinkedBlockingQueue<>();
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM ADDRESS ORDER BY ID");
+
+            ResultSetMapper.publish(resultSet, Address.class, executor).subscribe(new Flow.Subscriber<>() {
+                private Flow.Subscription subscription;
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(3);
+                }
+
+                @Override
+                public void onNext(Address address) {
+                    addresses.add(address);
+                    subscription.cancel();
+                }
+
+                @Override
+                public void onError(Throwable throwable) {}
+
+                @Override
+                public void onComplete() {}
+            });
+
+            assertNotNull(addresses.poll(5, TimeUnit.SECONDS));
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertTrue(resultSet.isClosed());
+            assertTrue(addresses.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void itShouldMapAListOfUsersAsynchronously() throws Exception {
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            ResultSet resultSet = stmt.executeQuery("SELECT * FROM USERS");
+
+            List<User> users = ResultSetMapper.toListAsync(resultSet, User.class).get(5, TimeUnit.SECONDS);
+            assertEquals(5, users.size());
+        }
+    }
+
+    @Test
+    void itShouldExecuteQueriesThroughCachedStatements() {
+
+        try (QueryExecutor executor = new QueryExecutor(2, 100)) {
+            String sql = "SELECT * FROM USERS WHERE MALE = ? ORDER BY ID";
+
+            List<User> men = executor.list(dbHelper.getConnection(), sql, User.class, true);
+            assertEquals(Arrays.asList(1L, 2L, 3L), men.stream().map(User::getId).collect(Collectors.toList()));
+
+            List<User> women = executor.list(dbHelper.getConnection(), sql, User.class, false);
+            assertEquals(Arrays.asList(4L, 5L), women.stream().map(User::getId).collect(Collectors.toList()));
+            assertEquals(1, executor.getStatementMisses());
+            assertEquals(1, executor.getStatementHits());
+
+            User user = executor.first(dbHelper.getConnection(), "SELECT * FROM USERS WHERE ID = ?", User.class, 4);
+            assertEquals("Alice", user.getName());
+            assertEquals("1.70", user.getHeight());
+            assertNull(executor.first(dbHelper.getConnection(), "SELECT * FROM USERS WHERE ID = ?", User.class, 42));
+
+            // the least recently used statement is evicted
+            executor.list(dbHelper.getConnection(), "SELECT * FROM ADDRESS", Address.class);
+            executor.list(dbHelper.getConnection(), sql, User.class, true);
+            assertEquals(4, executor.getStatementMisses());
+
+            executor.evict(dbHelper.getConnection());
+            executor.list(dbHelper.getConnection(), sql, User.class, true);
+            assertEquals(5, executor.getStatementMisses());
+
+            assertThrows(ResultSetMapperException.class, () -> executor.list(dbHelper.getConnection(), "SELECT * FROM MISSING", User.class));
+        }
+    }
+
+    @Test
+    void itShouldBindTheMapperOfACachedStatementAgainIfTheColumnsChange() throws SQLException {
+
+        try (QueryExecutor executor = new QueryExecutor(); Statement stmt = dbHelper.getConnection().createStatement()) {
+            stmt.execute("CREATE TABLE STREETS (ID BIGINT, STREET VARCHAR(255))");
+            stmt.execute("INSERT INTO STREETS VALUES (1, 'Main')");
+
+            try {
+                assertEquals("Main", executor.first(dbHelper.getConnection(), "SELECT * FROM STREETS", Street.class).getName());
+
+                // the new first column shifts the others
+                stmt.execute("ALTER TABLE STREETS ADD COLUMN NOT_EXISTING_COLUMN BIGINT DEFAULT 7 BEFORE ID");
+                Street street = executor.first(dbHelper.getConnection(), "SELECT * FROM STREETS", Street.class);
+
+                assertEquals(1L, street.getId());
+                assertEquals("Main", street.getName());
+                assertEquals(7L, street.getNotExistingColumn());
+            } finally {
+                stmt.execute("DROP TABLE STREETS");
+            }
+        }
+    }
+
+    @Test
+    void itShouldDeduplicateTheStringsOfEachExecutionOfACachedStatement() {
+        CountingMapperListener counter = new CountingMapperListener();
+        ResultSetMapper.addListener(counter);
+
+        try (QueryExecutor executor = new QueryExecutor()) {
+            for (int i = 1; i <= 2; i++) {
+                executor.list(dbHelper.getConnection(), "SELECT * FROM ADDRESS", Location.class);
+
+                // the nations of the 3 addresses in SUA share one string, the cities are distinct
+                assertEquals(2L * i, counter.getDeduplicatedStrings());
+            }
+        } finally {
+            ResultSetMapper.removeListener(counter);
+        }
+    }
+
+    @Test
+    void itShouldCacheTheResultsOfTheQueries() throws InterruptedException {
+
+        try (QueryExecutor executor = new QueryExecutor()) {
+            ResultCache cache = new ResultCache(executor, 2, Duration.ofMinutes(1));
+            String sql = "SELECT * FROM ADDRESS WHERE NATION = ? ORDER BY ID";
+
+            List<Address> addresses = cache.list(dbHelper.getConnection(), sql, Address.class, "SUA");
+            assertEquals(3, addresses.size());
+            assertSame(addresses, cache.list(dbHelper.getConnection(), sql, Address.class, "SUA"));
+            assertThrows(UnsupportedOperationException.class, () -> addresses.add(new Address()));
+            assertEquals(1, cache.getHits());
+            assertEquals(1, cache.getMisses());
+
+            // the parameters and the type are part of the key
+            assertEquals(1, cache.list(dbHelper.getConnection(), sql, Address.class, "IRELAND").size());
+            assertEquals(1, cache.list(dbHelper.getConnection(), "SELECT * FROM USERS WHERE ID = ?", User.class, 1).size());
+            assertEquals(3, cache.getMisses());
+            assertEquals(1, cache.getEvictions());
+            assertEquals(2, cache.size());
+
+            cache.invalidateTable("address");
+            assertEquals(1, cache.size());
+            cache.list(dbHelper.getConnection(), "SELECT * FROM USERS WHERE ID = ?", User.class, 1);
+            assertEquals(2, cache.getHits());
+
+            ResultCache expiring = new ResultCache(executor, 10, Duration.ofMillis(20));
+            expiring.list(dbHelper.getConnection(), sql, Address.class, "SUA");
+            Thread.sleep(50);
+            expiring.list(dbHelper.getConnection(), sql, Address.class, "SUA");
+            assertEquals(2, expiring.getMisses());
+            assertEquals(1, expiring.getExpirations());
+        }
+    }
+
+    @Test
+    void itShouldDeduplicateTheStringsOfLowCardinalityColumns() throws SQLException {
+        CountingMapperListener counter = new CountingMapperListener();
+        ResultSetMapper.addListener(counter);
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            // computed columns, so that the driver yields a new string for each row
+            List<Location> locations = ResultSetMapper.toList(stmt.executeQuery("SELECT A.ID, UPPER(A.NATION) AS NATION, LOWER(A.CITY) AS CITY " +
+                    "FROM ADDRESS A, SYSTEM_RANGE(1, 100) ORDER BY A.ID"), Location.class);
+
+            assertEquals(500, locations.size());
+            assertEquals("SUA", locations.get(0).getNation());
+            assertEquals("chicago", locations.get(0).getCity());
+            assertSame(locations.get(0).getNation(), locations.get(299).getNation());
+            assertSame(locations.get(0).getCity(), locations.get(99).getCity());
+            assertNotSame(locations.get(0).getCity(), locations.get(100).getCity());
+        } finally {
+            ResultSetMapper.removeListener(counter);
+        }
+
+        assertEquals(497 + 495, counter.getDeduplicatedStrings());
+        assertEquals(299 * 3 + 2 * 99 * 7 + 99 * (7 + 8 + 11 + 6 + 6), counter.getDeduplicatedChars());
+
+        // the compiled mapper of a deduplicated field falls back to the bound mapper
+        CompiledMapper<Location> compiled = ResultSetMapper.compiled(Location.class);
+        assertFalse(compiled.isCompiled());
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            List<Location> locations = compiled.toList(stmt.executeQuery("SELECT A.ID, UPPER(A.NATION) AS NATION, LOWER(A.CITY) AS CITY " +
+                    "FROM ADDRESS A, SYSTEM_RANGE(1, 100) ORDER BY A.ID"));
+
+            assertSame(locations.get(0).getNation(), locations.get(299).getNation());
+            assertSame(locations.get(0).getCity(), locations.get(99).getCity());
+        }
+    }
+
+    @Test
+    void itShouldExportTheUsersToCsvAndJson() throws SQLException {
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            String sql = "SELECT ID, CASE WHEN ID = 2 THEN NAME || ', \"' || SURNAME || '\"' ELSE NAME END AS NAME, " +
+                    "SURNAME, BIRTHDATE, BIRTHDATE2, MALE, HEIGHT FROM USERS WHERE ID <= 2 ORDER BY ID";
+
+            StringWriter csv = new StringWriter();
+            assertEquals(2, ResultSetExporter.toCsv(stmt.executeQuery(sql), User.class, csv));
+            assertEquals("ID,NAME,SURNAME,BIRTHDATE,BIRTHDATE2,MALE,HEIGHT\n" +
+                    "1,John,Doe,2000-09-17,17/09/2000,true,1.92\n" +
+                    "2,\"Mike, \"\"Donald\"\"\",Donald,1993-09-27,27/09/1993,true,1.80\n", csv.toString());
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ResultSetExporter.toCsv(stmt.executeQuery(sql), User.class, Channels.newChannel(bytes));
+            assertEquals(csv.toString(), bytes.toString(StandardCharsets.UTF_8));
+
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            assertEquals(2, ResultSetExporter.toJson(stmt.executeQuery(sql), User.class, json));
+            assertEquals("[{\"ID\":1,\"NAME\":\"John\",\"SURNAME\":\"Doe\",\"BIRTHDATE\":\"2000-09-17\",\"BIRTHDATE2\":\"17/09/2000\",\"MALE\":true,\"HEIGHT\":\"1.92\"}," +
+                    "{\"ID\":2,\"NAME\":\"Mike, \\\"Donald\\\"\",\"SURNAME\":\"Donald\",\"BIRTHDATE\":\"1993-09-27\",\"BIRTHDATE2\":\"27/09/1993\",\"MALE\":true,\"HEIGHT\":\"1.80\"}]",
+                    json.toString(StandardCharsets.UTF_8));
+
+            // the exports write the values of the mapped objects
+            User mike = ResultSetMapper.toList(stmt.executeQuery(sql), User.class).get(1);
+            assertTrue(csv.toString().contains("," + mike.getBirthDate() + "," + mike.getBirthDateString() + ","));
+        }
+    }
+
+    @Test
+    void itShouldWriteContactsInBatches() throws SQLException {
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            stmt.execute("CREATE TABLE CONTACTS (ID INTEGER NOT NULL, NAME VARCHAR(255) NOT NULL, HEIGHT DECIMAL(3,2), GENDER VARCHAR(10), PRIMARY KEY (ID))");
+
+            try {
+                List<Contact> contacts = Arrays.asList(
+                        new Contact(1L, "John", "1.92", Gender.MALE, "Johnny"),
+                        new Contact(2L, "Alice", null, Gender.FEMALE, null),
+                        new Contact(1L, "Duplicate", "1.80", null, null),
+                        new Contact(3L, null, "1.70", Gender.FEMALE, null),
+                        new Contact(4L, "Doris", "1.77", null, null));
+
+                BatchResult inserted = ResultSetMapper.insertBatch(dbHelper.getConnection(), "CONTACTS", Contact.class, contacts, 2);
+                assertEquals(Arrays.asList(2, 3), inserted.getFailures().stream().map(BatchResult.Failure::getIndex).collect(Collectors.toList()));
+                assertEquals(1, inserted.getUpdateCounts()[0]);
+                assertEquals(1, inserted.getUpdateCounts()[4]);
+                assertFalse(inserted.isSuccessful());
+
+                String sql = "SELECT * FROM CONTACTS ORDER BY ID";
+                List<Contact> written = ResultSetMapper.toList(stmt.executeQuery(sql), Contact.class);
+                assertEquals(Arrays.asList(1L, 2L, 4L), written.stream().map(Contact::getId).collect(Collectors.toList()));
+                assertEquals(new Contact(1L, "John", "1.92", Gender.MALE, null), written.get(0));
+                assertEquals(new Contact(2L, "Alice", null, Gender.FEMALE, null), written.get(1));
+
+                BatchResult updated = ResultSetMapper.updateBatch(dbHelper.getConnection(), "CONTACTS", Contact.class,
+                        Arrays.asList(new Contact(2L, "Alice", "1.70", Gender.FEMALE, null), new Contact(5L, "Mike", "1.80", Gender.MALE, null)), 10);
+                assertTrue(updated.isSuccessful());
+                assertArrayEquals(new int[] { 1, 0 }, updated.getUpdateCounts());
+
+                BatchResult upserted = ResultSetMapper.upsertBatch(dbHelper.getConnection(), "CONTACTS", Contact.class,
+                        Arrays.asList(new Contact(4L, "Doris", "1.78", Gender.FEMALE, null), new Contact(5L, "Mike", "1.80", Gender.MALE, null)), 10);
+                assertTrue(upserted.isSuccessful());
+                assertArrayEquals(new int[] { 1, 1 }, upserted.getUpdateCounts());
+
+                written = ResultSetMapper.toList(stmt.executeQuery(sql), Contact.class);
+                assertEquals(Arrays.asList(1L, 2L, 4L, 5L), written.stream().map(Contact::getId).collect(Collectors.toList()));
+                assertEquals("1.70", written.get(1).getHeight());
+                assertEquals(new Contact(4L, "Doris", "1.78", Gender.FEMALE, null), written.get(2));
+
+                // a height that does not parse fails its row only
+                BatchResult unparseable = ResultSetMapper.insertBatch(dbHelper.getConnection(), "CONTACTS", Contact.class,
+                        Arrays.asList(new Contact(6L, "Bob", "tall", Gender.MALE, null), new Contact(7L, "Carol", "1.60", Gender.FEMALE, null)), 10);
+                assertEquals(List.of(0), unparseable.getFailures().stream().map(BatchResult.Failure::getIndex).collect(Collectors.toList()));
+                assertArrayEquals(new int[] { Statement.EXECUTE_FAILED, 1 }, unparseable.getUpdateCounts());
+
+                assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.insertBatch(dbHelper.getConnection(), "CONTACTS", Contact.class,
+                        Arrays.asList(new Contact(8L, "Dave", null, null, null), null), 10));
+                assertEquals(5, ResultSetMapper.toList(stmt.executeQuery(sql), Contact.class).size());
+
+                assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.updateBatch(dbHelper.getConnection(), "USERS", User.class, Collections.singletonList(new User()), 10));
+            } finally {
+                stmt.execute("DROP TABLE CONTACTS");
+            }
+        }
+    }
+
+    @Test
+    void itShouldSelectTheMappedColumns() throws SQLException {
+        assertEquals("ID, NAME, SURNAME, BIRTHDATE, BIRTHDATE2, MALE, HEIGHT", ResultSetMapper.selectClause(User.class));
+        assertEquals("ID, STREET, STREET_NUMBER, USER_ID, NATION, CITY", ResultSetMapper.selectClause(Address.class));
+        assertEquals("SELECT ID, STREET, STREET_NUMBER, USER_ID, NOT_EXISTING_COLUMN, NATION, CITY FROM ADDRESS",
+                ResultSetMapper.select(Address.class, OptionalColumnPolicy.INCLUDE, "FROM ADDRESS"));
+        assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.selectClause(null));
+
+        CountingMapperListener counter = new CountingMapperListener();
+        ResultSetMapper.addListener(counter);
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            List<Address> selected = ResultSetMapper.toList(stmt.executeQuery(ResultSetMapper.select(Address.class, "FROM ADDRESS ORDER BY ID")), Address.class);
+            List<Address> all = ResultSetMapper.toList(stmt.executeQuery("SELECT * FROM ADDRESS ORDER BY ID"), Address.class);
+
+            assertEquals(5, selected.size());
+            assertEquals(all, selected);
+            assertThrows(SQLException.class, () -> stmt.executeQuery(ResultSetMapper.select(Address.class, OptionalColumnPolicy.INCLUDE, "FROM ADDRESS")));
+        } finally {
+            ResultSetMapper.removeListener(counter);
+        }
+
+        // the optional column is missing from both the positional and the named matches
+        assertEquals(2, counter.getOptionalColumnMisses());
+    }
+
+    @Test
+    void itShouldMapTheRowsByKey() throws SQLException {
+
+        try (Statement stmt = dbHelper.getConnection().createStatement()) {
+            Map<Long, User> users = ResultSetMapper.toMap(stmt.executeQuery("SELECT * FROM USERS"), User.class, "ID", Long.class);
+            assertTrue(users instanceof LongObjectMap);
+            assertEquals(5, users.size());
+            assertEquals("Alice", users.get(4L).getName());
+            assertNull(users.get(6L));
+
+            Map<String, Address> byNation = ResultSetMapper.toMap(stmt.executeQuery("SELECT * FROM ADDRESS ORDER BY ID"), Address.class, "NATION", String.class, DuplicateKeyPolicy.KEEP_FIRST);
+            assertEquals(3, byNation.size());
+            assertEquals(1L, byNation.get("SUA").getID());
+            assertEquals(3L, ResultSetMapper.toMap(stmt.executeQuery("SELECT * FROM ADDRESS ORDER BY ID"), Address.class, "nation", String.class, DuplicateKeyPolicy.KEEP_LAST).get("SUA").getID());
+            assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.toMap(stmt.executeQuery("SELECT * FROM ADDRESS"), Address.class, "NATION", String.class));
+
+            Map<Long, List<Address>> byParity = ResultSetMapper.groupBy(stmt.executeQuery("SELECT A.*, MOD(A.ID, 2) AS PARITY FROM ADDRESS A ORDER BY ID"), Address.class, "PARITY", Long.class);
+            assertEquals(2, byParity.size());
+            assertEquals(Arrays.asList(1L, 3L, 5L), byParity.get(1L).stream().map(Address::getID).collect(Collectors.toList()));
+            assertEquals(Arrays.asList(2L, 4L), byParity.get(0L).stream().map(Address::getID).collect(Collectors.toList()));
+
+            Map<String, List<Address>> byCity = ResultSetMapper.groupBy(stmt.executeQuery("SELECT * FROM ADDRESS"), Address.class, "CITY", String.class);
+            assertEquals(5, byCity.size());
+
+            assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.groupBy(stmt.executeQuery("SELECT * FROM ADDRESS"), Address.class, "MISSING", Long.class));
+            assertThrows(ResultSetMapperException.class, () -> ResultSetMapper.groupBy(stmt.executeQuery("SELECT A.*, NULL AS EMPTY FROM ADDRESS A"), Address.class, "EMPTY", Long.class));
+        }
+    }
+
+    @Test
+    void itShouldPutAndRemoveLongKeys() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        for (long key = 0; key < 1000; key++) {
+            map.put(key * 16, "v" + key);
+        }
+
+        for (long key = 0; key < 1000; key += 2) {
+            assertEquals("v" + key, map.remove(key * 16));
+        }
+
+        assertEquals(500, map.size());
+        assertNull(map.remove(0L));
+
+        for (long key = 0; key < 1000; key++) {
+            assertEquals(key % 2 == 1 ? "v" + key : null, map.get(key * 16));
+        }
+
+        Map<Long, String> copy = new HashMap<>(map);
+        assertEquals(copy, map);
+        assertEquals(map, copy);
+        assertEquals(copy.hashCode(), map.hashCode());
+        assertEquals(copy.entrySet(), map.entrySet());
+        assertThrows(NullPointerException.class, () -> map.put(1L, null));
+
+        // the entries write through to the map
+        map.entrySet().forEach(entry -> entry.setValue(entry.getValue().toUpperCase()));
+        assertEquals("V1", map.get(16L));
+    }
+
+    @Test
+    void itShouldFailFastAfterAKeyIsAddedOrRemoved() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, "one");
+        map.put(2L, "two");
+
+        Iterator<Map.Entry<Long, String>> iterator = map.entrySet().iterator();
+        Map.Entry<Long, String> entry = iterator.next();
+        map.remove(entry.getKey() == 1L ? 2L : 1L);
+
+        // the removal may have moved another key into the slot of the entry
+        assertThrows(ConcurrentModificationException.class, () -> entry.setValue("changed"));
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+        assertEquals(1, map.size());
+    }
+}
@@ -0,0 +1,46 @@
+package com.dinuberinde;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnFormatterTest {
+    private static final String[] DECIMAL_PATTERNS = { "#.00#", "0.00", "#.00", "0", "00.0", "#0.0##", "#.##", "#,##0.00", "0.00%" };
+    private static final String[] DECIMALS = { "0", "-0.001", "0.5", "-0.5", "0.05", "1.92", "1.925", "1.935", "-1.5", "10", "123456.789", "0.0001", "99.995", "-99.995", "12345678901234567890.123456", "9999999999999999.99", "-99999999999999999.995", "1000" };
+    private static final String[] DATE_PATTERNS = { "dd/MM/yyyy", "yyyy-MM-dd", "dd.MM.uuuu", "MM/dd/yyyy", "d/M/yyyy", "dd MMM yyyy", "yyyyMMdd" };
+    private static final LocalDate[] DATES = { LocalDate.of(2000, 9, 17), LocalDate.of(1, 1, 1), LocalDate.of(9999, 12, 31), LocalDate.of(10000, 1, 1), LocalDate.of(0, 6, 15), LocalDate.of(-42, 2, 3) };
+
+    @Test
+    void itShouldFormatDecimalsLikeDecimalFormat() {
+        for (String locale : new String[] { "en", "it" }) {
+            for (String pattern : DECIMAL_PATTERNS) {
+                DecimalFormat expected = new DecimalFormat(pattern, new DecimalFormatSymbols(new Locale(locale.toLowerCase(), locale.toUpperCase())));
+                DecimalColumnFormatter formatter = new DecimalColumnFormatter(pattern, locale);
+
+                for (String decimal : DECIMALS) {
+                    BigDecimal value = new BigDecimal(decimal);
+                    assertEquals(expected.format(value), formatter.format(value), pattern + " " + locale + " " + decimal);
+                }
+            }
+        }
+    }
+
+    @Test
+    void itShouldFormatDatesLikeDateTimeFormatter() {
+        for (String pattern : DATE_PATTERNS) {
+            DateTimeFormatter expected = DateTimeFormatter.ofPattern(pattern);
+            DateColumnFormatter formatter = new DateColumnFormatter(pattern);
+
+            for (LocalDate date : DATES) {
+                assertEquals(expected.format(date), formatter.format(date), pattern + " " + date);
+            }
+        }
+    }
+}
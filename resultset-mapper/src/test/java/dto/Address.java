@@ -1,10 +1,12 @@
 package dto;
 
+import com.dinuberinde.MapperId;
 import com.dinuberinde.MapperLabel;
 import lombok.Data;
 
 @Data
 public class Address extends BaseAddress {
+    @MapperId
     @MapperLabel(name = "ID")
     private Long ID;
 
@@ -0,0 +1,30 @@
+package dto;
+
+import com.dinuberinde.MapperDecimalFormatter;
+import com.dinuberinde.MapperId;
+import com.dinuberinde.MapperLabel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Contact {
+    @MapperId
+    @MapperLabel(name = "ID")
+    private Long id;
+
+    @MapperLabel(name = "NAME")
+    private String name;
+
+    @MapperDecimalFormatter(pattern = "#.00#")
+    @MapperLabel(name = "HEIGHT")
+    private String height;
+
+    @MapperLabel(name = "GENDER")
+    private Gender gender;
+
+    @MapperLabel(name = "NICKNAME", optional = true)
+    private String nickname;
+}
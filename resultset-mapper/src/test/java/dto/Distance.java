@@ -0,0 +1,13 @@
+package dto;
+
+import com.dinuberinde.MapperLabel;
+import lombok.Data;
+
+@Data
+public class Distance {
+    @MapperLabel(name = "ID")
+    private Long id;
+
+    @MapperLabel(name = "KILOMETERS")
+    private Float kilometers;
+}
@@ -0,0 +1,20 @@
+package dto;
+
+import com.dinuberinde.LobHandle;
+import com.dinuberinde.MapperLabel;
+import com.dinuberinde.MapperLob;
+import lombok.Data;
+
+@Data
+public class Document {
+    @MapperLabel(name = "ID")
+    private long id;
+
+    @MapperLob(threshold = 1024)
+    @MapperLabel(name = "CONTENT")
+    private LobHandle content;
+
+    @MapperLob(threshold = 1024, text = true)
+    @MapperLabel(name = "TEXT")
+    private LobHandle text;
+}
@@ -0,0 +1,5 @@
+package dto;
+
+public enum Gender {
+    MALE, FEMALE
+}
@@ -0,0 +1,25 @@
+package dto;
+
+import com.dinuberinde.MapperLabel;
+import lombok.Getter;
+
+@Getter
+public final class ImmutableAddress {
+    private final long id;
+    private final String street;
+    private final long number;
+    private final Long notExistingColumn;
+
+    @MapperLabel(name = "CITY")
+    private String city;
+
+    public ImmutableAddress(@MapperLabel(name = "ID") long id,
+                            @MapperLabel(name = "STREET") String street,
+                            @MapperLabel(name = "STREET_NUMBER") long number,
+                            @MapperLabel(name = "NOT_EXISTING_COLUMN", optional = true) Long notExistingColumn) {
+        this.id = id;
+        this.street = street;
+        this.number = number;
+        this.notExistingColumn = notExistingColumn;
+    }
+}
@@ -0,0 +1,16 @@
+package dto;
+
+import com.dinuberinde.MapperLabel;
+import lombok.Data;
+
+@Data
+public class Location {
+    @MapperLabel(name = "ID")
+    private Long id;
+
+    @MapperLabel(name = "NATION", dedup = true)
+    private String nation;
+
+    @MapperLabel(name = "CITY", dedup = true)
+    private String city;
+}
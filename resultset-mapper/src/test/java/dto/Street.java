@@ -0,0 +1,16 @@
+package dto;
+
+import com.dinuberinde.MapperLabel;
+import lombok.Data;
+
+@Data
+public class Street {
+    @MapperLabel(name = "ID")
+    private Long id;
+
+    @MapperLabel(name = "STREET")
+    private String name;
+
+    @MapperLabel(name = "NOT_EXISTING_COLUMN", optional = true)
+    private Long notExistingColumn;
+}
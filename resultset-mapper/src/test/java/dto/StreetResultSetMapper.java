@@ -0,0 +1,64 @@
+package dto;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mapper of {@link dto.Street} written like the ones generated by resultset-mapper-processor,
+ * counting the mapped rows, to test how the generated mappers are discovered and used.
+ * The processor itself is tested by its own module.
+ */
+public final class StreetResultSetMapper implements com.dinuberinde.GeneratedMapper<dto.Street> {
+    public static final AtomicInteger MAPPED_ROWS = new AtomicInteger();
+
+    private static final String[] COLUMN_NAMES = {
+        "ID",
+        "STREET",
+        "NOT_EXISTING_COLUMN"
+    };
+
+    private static final boolean[] OPTIONAL_COLUMNS = {
+        false,
+        false,
+        true
+    };
+
+    private static final Class<?>[] FIELD_TYPES = {
+        java.lang.Long.class,
+        java.lang.String.class,
+        java.lang.Long.class
+    };
+
+    @Override
+    public Class<dto.Street> type() {
+        return dto.Street.class;
+    }
+
+    @Override
+    public String[] columnNames() {
+        return COLUMN_NAMES.clone();
+    }
+
+    @Override
+    public boolean[] optionalColumns() {
+        return OPTIONAL_COLUMNS.clone();
+    }
+
+    @Override
+    public Class<?>[] fieldTypes() {
+        return FIELD_TYPES.clone();
+    }
+
+    @Override
+    public dto.Street map(java.sql.ResultSet resultSet, int[] columnIndexes) throws java.sql.SQLException {
+        MAPPED_ROWS.incrementAndGet();
+        dto.Street dto = new dto.Street();
+        dto.setId(resultSet.getLong(columnIndexes[0]));
+        dto.setName(resultSet.getString(columnIndexes[1]));
+        if (columnIndexes[2] > 0) {
+            dto.setNotExistingColumn(resultSet.getLong(columnIndexes[2]));
+        } else {
+            dto.setNotExistingColumn(null);
+        }
+        return dto;
+    }
+}
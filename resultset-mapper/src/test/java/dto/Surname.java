@@ -0,0 +1,8 @@
+package dto;
+
+import lombok.Value;
+
+@Value
+public class Surname {
+    String value;
+}
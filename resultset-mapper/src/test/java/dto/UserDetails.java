@@ -0,0 +1,33 @@
+package dto;
+
+import com.dinuberinde.MapperLabel;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class UserDetails {
+    @MapperLabel(name = "ID")
+    private short id;
+
+    @MapperLabel(name = "SURNAME")
+    private Surname surname;
+
+    @MapperLabel(name = "BIRTHDATE")
+    private LocalDate birthDate;
+
+    @MapperLabel(name = "BIRTHDATE2")
+    private LocalDateTime birthDateTime;
+
+    @MapperLabel(name = "BIRTHDATE2")
+    private Instant birthInstant;
+
+    @MapperLabel(name = "GENDER")
+    private Gender gender;
+
+    @MapperLabel(name = "TOKEN")
+    private UUID token;
+}
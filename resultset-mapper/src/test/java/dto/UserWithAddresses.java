@@ -0,0 +1,21 @@
+package dto;
+
+import com.dinuberinde.MapperCollection;
+import com.dinuberinde.MapperId;
+import com.dinuberinde.MapperLabel;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UserWithAddresses {
+    @MapperId
+    @MapperLabel(name = "ID")
+    private long id;
+
+    @MapperLabel(name = "NAME")
+    private String name;
+
+    @MapperCollection(prefix = "ADDRESS_")
+    private List<Address> addresses;
+}
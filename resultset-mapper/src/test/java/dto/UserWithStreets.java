@@ -0,0 +1,18 @@
+package dto;
+
+import com.dinuberinde.MapperCollection;
+import com.dinuberinde.MapperId;
+import com.dinuberinde.MapperLabel;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UserWithStreets {
+    @MapperId
+    @MapperLabel(name = "ID")
+    private long id;
+
+    @MapperCollection(prefix = "STREET_")
+    private List<Street> streets;
+}